@@ -0,0 +1,88 @@
+package uis.edu.entorno.proyecto.inicial.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Genera la variante .gz de cada recurso estático comprimible (JS, CSS, HTML, JSON, mapas...).
+ * Se ejecuta en process-resources con el lanzador de archivos fuente de Java (exec-maven-plugin),
+ * sobre target/classes/static: EncodedResourceResolver la sirve según Accept-Encoding.
+ * Uso: java ComprimirEstaticos.java directorio
+ */
+public class ComprimirEstaticos {
+
+    private static final Set<String> EXTENSIONES = Set.of("js", "css", "html", "json", "map", "svg", "txt", "ico",
+            "webmanifest");
+    // Por debajo de este tamaño la cabecera gzip y la petición pesan más que el ahorro
+    private static final long TAMAÑO_MINIMO = 256;
+
+    public static void main(String[] args) throws IOException {
+        Path raiz = Paths.get(args[0]);
+        if (!Files.isDirectory(raiz)) {
+            System.out.println("Sin recursos estáticos en " + raiz);
+            return;
+        }
+        List<Path> archivos;
+        try (Stream<Path> recorrido = Files.walk(raiz)) {
+            archivos = recorrido.filter(Files::isRegularFile).filter(ComprimirEstaticos::comprimible).toList();
+        }
+
+        int generados = 0;
+        long original = 0;
+        long comprimido = 0;
+        for (Path archivo : archivos) {
+            Path gz = archivo.resolveSibling(archivo.getFileName() + ".gz");
+            // Compilaciones incrementales: solo si el original cambió
+            if (Files.exists(gz) && Files.getLastModifiedTime(gz).compareTo(Files.getLastModifiedTime(archivo)) >= 0) {
+                continue;
+            }
+            byte[] contenido = Files.readAllBytes(archivo);
+            byte[] gzip = comprimir(contenido);
+            if (gzip.length >= contenido.length) {
+                Files.deleteIfExists(gz);
+                continue;
+            }
+            Files.write(gz, gzip);
+            generados++;
+            original += contenido.length;
+            comprimido += gzip.length;
+        }
+        System.out.printf("Recursos estáticos comprimidos: %d (%d KB -> %d KB)%n", generados, original / 1024, comprimido / 1024);
+    }
+
+    private static boolean comprimible(Path archivo) {
+        String nombre = archivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 && EXTENSIONES.contains(nombre.substring(punto + 1)) && tamaño(archivo) >= TAMAÑO_MINIMO;
+    }
+
+    private static long tamaño(Path archivo) {
+        try {
+            return Files.size(archivo);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] comprimir(byte[] contenido) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(contenido.length / 3 + 64);
+        try (OutputStream gzip = new GZIPOutputStream(salida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(contenido);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,50 @@
+package uis.edu.entorno.proyecto.inicial.carga;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import uis.edu.entorno.proyecto.inicial.ProyectoInicialApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Levanta la aplicación en este mismo proceso contra H2 en memoria (modo MySQL),
+ * en un puerto libre y sin registro de SQL, para medir el servidor y no los logs.
+ */
+public class AppEmbebida implements AutoCloseable {
+
+    private final ConfigurableApplicationContext contexto;
+    private final int puerto;
+
+    public AppEmbebida(Map<String, String> propiedadesExtra) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:carga;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        propiedadesExtra.forEach((clave, valor) -> argumentos.add("--" + clave + "=" + valor));
+
+        this.contexto = SpringApplication.run(ProyectoInicialApplication.class, argumentos.toArray(String[]::new));
+        this.puerto = ((ServletWebServerApplicationContext) contexto).getWebServer().getPort();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + puerto;
+    }
+
+    @Override
+    public void close() {
+        contexto.close();
+    }
+}
@@ -0,0 +1,383 @@
+package uis.edu.entorno.proyecto.inicial.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import uis.edu.entorno.proyecto.inicial.carga.Latencias.Resultado;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prueba de carga HTTP de extremo a extremo sobre los controladores /api/*.
+ * Sin --url levanta la aplicación en este proceso con H2 en memoria; con --url ataca una instancia ya levantada.
+ * Siembra canchas, usuarios y reservas, ejecuta una mezcla de login, listado de canchas, consulta de
+ * disponibilidad, reserva y cancelación con N hilos y escribe el reporte en JSON.
+ *
+ *   mvn -Pcarga compile exec:java
+ *   mvn -Pcarga compile exec:java -Dcarga.args="--hilos 64 --segundos 60 --mezcla reservas --etiqueta pico"
+ *   mvn -Pcarga compile exec:java -Dcarga.args="--url http://localhost:8095 --pesos disponibilidad=70,reservar=30"
+ *
+ * Opciones: --hilos, --segundos, --calentamiento, --mezcla (mixta|lectura|reservas), --pesos, --pausa-ms,
+ * --canchas, --usuarios-por-hilo, --reservas-iniciales, --dias, --semilla, --etiqueta, --salida.
+ * Cualquier otra opción con punto (p. ej. --spring.profiles.active virtual) se pasa a la aplicación embebida.
+ */
+public class CargaReservas {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String[] DEPORTES = {"Fútbol", "Baloncesto", "Tenis", "Voleibol"};
+    private static final String CONTRASEÑA = "carga";
+
+    private static final Map<String, String> MEZCLAS = Map.of(
+            "mixta", "login=5,canchas=15,disponibilidad=40,reservar=25,cancelar=15",
+            "lectura", "login=10,canchas=40,disponibilidad=50",
+            "reservas", "disponibilidad=30,reservar=45,cancelar=25");
+
+    private final Map<String, String> opciones;
+    private final int hilos;
+    private final int segundos;
+    private final int calentamiento;
+    private final long pausaMs;
+    private final int canchas;
+    private final int usuariosPorHilo;
+    private final int reservasIniciales;
+    private final int dias;
+    private final long semilla;
+    private final String etiqueta;
+    private final EnumMap<Operacion, Integer> pesos;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private String url;
+
+    private CargaReservas(Map<String, String> opciones) {
+        this.opciones = opciones;
+        this.hilos = entero("hilos", 32);
+        this.segundos = entero("segundos", 30);
+        this.calentamiento = entero("calentamiento", 5);
+        this.pausaMs = entero("pausa-ms", 0);
+        this.canchas = entero("canchas", 12);
+        this.usuariosPorHilo = entero("usuarios-por-hilo", 4);
+        this.reservasIniciales = entero("reservas-iniciales", 1000);
+        this.dias = entero("dias", 30);
+        this.semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        this.etiqueta = opciones.getOrDefault("etiqueta", "carga");
+        String mezcla = opciones.getOrDefault("mezcla", "mixta");
+        this.pesos = leerPesos(opciones.containsKey("pesos") ? opciones.get("pesos") : MEZCLAS.get(mezcla));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opciones.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int codigo = new CargaReservas(opciones).ejecutar();
+        System.exit(codigo);
+    }
+
+    private int ejecutar() throws Exception {
+        AppEmbebida app = null;
+        try {
+            if (opciones.containsKey("url")) {
+                url = opciones.get("url");
+            } else {
+                Map<String, String> propiedades = new LinkedHashMap<>();
+                opciones.forEach((clave, valor) -> {
+                    if (clave.contains(".")) {
+                        propiedades.put(clave, valor);
+                    }
+                });
+                app = new AppEmbebida(propiedades);
+                url = app.getUrl();
+            }
+
+            Semilla datos = sembrar();
+            Map<String, Object> reporte = medir(datos);
+
+            String texto = JSON.writeValueAsString(reporte);
+            Path salida = Path.of(opciones.getOrDefault("salida", "target/carga/" + etiqueta + ".json"));
+            if (salida.getParent() != null) {
+                Files.createDirectories(salida.getParent());
+            }
+            Files.writeString(salida, texto);
+            System.out.println(texto);
+            System.out.println("Reporte: " + salida.toAbsolutePath());
+            return 0;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    // Datos de la corrida; el prefijo permite repetirla contra la misma BD sin chocar con usuarios existentes
+    private Semilla sembrar() {
+        Random random = new Random(semilla);
+        String prefijo = Long.toString(System.currentTimeMillis(), 36);
+
+        List<Integer> canchaIds = new ArrayList<>();
+        for (int i = 0; i < canchas; i++) {
+            canchaIds.add(crear("/api/canchas", Map.of("nombre", "Carga " + prefijo + "-" + i,
+                    "deporte", DEPORTES[i % DEPORTES.length], "ubicacion", "Carga",
+                    "precioHora", 20000 + 5000 * (i % 5), "capacidad", 2 + random.nextInt(19),
+                    "horaApertura", "06:00:00", "horaCierre", "22:00:00")));
+        }
+
+        // Un grupo de usuarios por hilo (el límite de 2 h diarias es por usuario) y otro para la siembra
+        int usuariosSiembra = Math.max(1, reservasIniciales / 20);
+        List<String> logins = new ArrayList<>();
+        List<Integer> usuarioIds = new ArrayList<>();
+        for (int i = 0; i < hilos * usuariosPorHilo + usuariosSiembra; i++) {
+            String clave = prefijo + "-" + i;
+            logins.add("carga-" + clave);
+            usuarioIds.add(crear("/api/usuarios", Map.of("cedula", clave, "nombre", "Carga " + i,
+                    "email", clave + "@carga.local", "usuario", "carga-" + clave, "contraseña", CONTRASEÑA, "rol", "USER")));
+        }
+
+        int sembradas = 0;
+        List<Map<String, Object>> lote = new ArrayList<>();
+        for (int i = 0; i < reservasIniciales; i++) {
+            Integer usuarioId = usuarioIds.get(hilos * usuariosPorHilo + random.nextInt(usuariosSiembra));
+            lote.add(solicitudReserva(random, usuarioId, canchaIds));
+            if (lote.size() == 200 || i == reservasIniciales - 1) {
+                JsonNode respuesta = enviar("POST", "/api/reservas/batch", lote, null).cuerpo();
+                for (JsonNode resultado : respuesta != null ? respuesta.path("data") : JSON.createArrayNode()) {
+                    if (resultado.path("exitoso").asBoolean()) {
+                        sembradas++;
+                    }
+                }
+                lote.clear();
+            }
+        }
+        return new Semilla(canchaIds, usuarioIds, logins, sembradas);
+    }
+
+    private Map<String, Object> medir(Semilla datos) throws InterruptedException {
+        long inicioMedicion = System.nanoTime() + calentamiento * 1_000_000_000L;
+        long fin = inicioMedicion + segundos * 1_000_000_000L;
+
+        List<EnumMap<Operacion, Latencias>> porHilo = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch terminados = new CountDownLatch(hilos);
+        for (int h = 0; h < hilos; h++) {
+            EnumMap<Operacion, Latencias> latencias = new EnumMap<>(Operacion.class);
+            for (Operacion operacion : Operacion.values()) {
+                latencias.put(operacion, new Latencias());
+            }
+            porHilo.add(latencias);
+            Trabajador trabajador = new Trabajador(h, datos, latencias);
+            pool.execute(() -> {
+                try {
+                    trabajador.ejecutar(inicioMedicion, fin);
+                } finally {
+                    terminados.countDown();
+                }
+            });
+        }
+        terminados.await();
+        pool.shutdown();
+
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("etiqueta", etiqueta);
+        reporte.put("modo", opciones.containsKey("url") ? "remoto" : "embebido");
+        reporte.put("url", url);
+        reporte.put("hilos", hilos);
+        reporte.put("segundos", segundos);
+        reporte.put("calentamiento", calentamiento);
+        reporte.put("pausaMs", pausaMs);
+        Map<String, Integer> mezcla = new LinkedHashMap<>();
+        pesos.forEach((operacion, peso) -> mezcla.put(operacion.getClave(), peso));
+        reporte.put("mezcla", mezcla);
+        Map<String, Integer> sembrado = new LinkedHashMap<>();
+        sembrado.put("canchas", datos.canchaIds().size());
+        sembrado.put("usuarios", datos.usuarioIds().size());
+        sembrado.put("reservas", datos.reservasSembradas());
+        reporte.put("semilla", sembrado);
+
+        List<Latencias> todas = new ArrayList<>();
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        for (Operacion operacion : Operacion.values()) {
+            List<Latencias> partes = new ArrayList<>();
+            porHilo.forEach(latencias -> partes.add(latencias.get(operacion)));
+            todas.addAll(partes);
+            if (pesos.containsKey(operacion)) {
+                operaciones.put(operacion.getClave(), Latencias.resumen(partes, segundos));
+            }
+        }
+        reporte.put("total", Latencias.resumen(todas, segundos));
+        reporte.put("operaciones", operaciones);
+        return reporte;
+    }
+
+    // Bucle cerrado de un hilo: elige operación según los pesos, la ejecuta y mide
+    private final class Trabajador {
+        private final Random random;
+        private final Semilla datos;
+        private final EnumMap<Operacion, Latencias> latencias;
+        private final int primerUsuario;
+        private final Deque<Integer> reservasPropias = new ArrayDeque<>();
+        private final int pesoTotal;
+
+        Trabajador(int hilo, Semilla datos, EnumMap<Operacion, Latencias> latencias) {
+            this.random = new Random(semilla + 31L * (hilo + 1));
+            this.datos = datos;
+            this.latencias = latencias;
+            this.primerUsuario = hilo * usuariosPorHilo;
+            this.pesoTotal = pesos.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        void ejecutar(long inicioMedicion, long fin) {
+            while (System.nanoTime() < fin) {
+                Operacion operacion = elegir();
+                if (operacion == Operacion.CANCELAR && reservasPropias.isEmpty()) {
+                    operacion = Operacion.RESERVAR;
+                }
+                long inicio = System.nanoTime();
+                Resultado resultado = ejecutar(operacion);
+                if (inicio >= inicioMedicion) {
+                    latencias.get(operacion).registrar(System.nanoTime() - inicio, resultado);
+                }
+                if (pausaMs > 0) {
+                    try {
+                        Thread.sleep(pausaMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        private Operacion elegir() {
+            int valor = random.nextInt(pesoTotal);
+            for (Map.Entry<Operacion, Integer> peso : pesos.entrySet()) {
+                valor -= peso.getValue();
+                if (valor < 0) {
+                    return peso.getKey();
+                }
+            }
+            return Operacion.DISPONIBILIDAD;
+        }
+
+        private Resultado ejecutar(Operacion operacion) {
+            int usuario = primerUsuario + random.nextInt(usuariosPorHilo);
+            Integer canchaId = datos.canchaIds().get(random.nextInt(datos.canchaIds().size()));
+            switch (operacion) {
+                case LOGIN:
+                    return enviar("POST", "/api/auth/login",
+                            Map.of("usuario", datos.logins().get(usuario), "contraseña", CONTRASEÑA), null).resultado();
+                case CANCHAS:
+                    return enviar("GET", "/api/canchas", null, null).resultado();
+                case DISPONIBILIDAD: {
+                    int hora = 6 + random.nextInt(15);
+                    return enviar("GET", String.format("/api/reservas/disponibilidad?canchaId=%d&fecha=%s&horaInicio=%02d:00&horaFin=%02d:00",
+                            canchaId, fecha(random), hora, hora + 1), null, null).resultado();
+                }
+                case RESERVAR: {
+                    Respuesta respuesta = enviar("POST", "/api/reservas",
+                            solicitudReserva(random, datos.usuarioIds().get(usuario), datos.canchaIds()), null);
+                    if (respuesta.resultado() == Resultado.EXITOSA) {
+                        reservasPropias.add(respuesta.cuerpo().path("data").path("id").asInt());
+                    }
+                    return respuesta.resultado();
+                }
+                case CANCELAR:
+                    return enviar("PUT", "/api/reservas/" + reservasPropias.poll() + "/estado", null, "CANCELADA").resultado();
+                default:
+                    throw new IllegalStateException("Operación sin implementar: " + operacion);
+            }
+        }
+    }
+
+    private Map<String, Object> solicitudReserva(Random random, Integer usuarioId, List<Integer> canchaIds) {
+        int hora = 6 + random.nextInt(15);
+        return Map.of("usuarioId", usuarioId, "canchaId", canchaIds.get(random.nextInt(canchaIds.size())),
+                "fecha", fecha(random).toString(),
+                "horaInicio", String.format("%02d:00", hora), "horaFin", String.format("%02d:00", hora + 1));
+    }
+
+    private LocalDate fecha(Random random) {
+        return LocalDate.now().plusDays(1 + random.nextInt(dias));
+    }
+
+    private Integer crear(String ruta, Map<String, Object> cuerpo) {
+        Respuesta respuesta = enviar("POST", ruta, cuerpo, null);
+        if (respuesta.resultado() != Resultado.EXITOSA) {
+            throw new IllegalStateException("No se pudieron sembrar los datos de carga en " + ruta + ": "
+                    + (respuesta.cuerpo() != null ? respuesta.cuerpo().path("message").asText() : "sin respuesta"));
+        }
+        return respuesta.cuerpo().path("data").path("id").asInt();
+    }
+
+    private Respuesta enviar(String metodo, String ruta, Object cuerpoJson, String cuerpoTexto) {
+        try {
+            HttpRequest.Builder peticion = HttpRequest.newBuilder(URI.create(url + ruta))
+                    .timeout(Duration.ofSeconds(30));
+            if (cuerpoJson != null) {
+                peticion.header("Content-Type", "application/json")
+                        .method(metodo, HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(cuerpoJson)));
+            } else if (cuerpoTexto != null) {
+                peticion.header("Content-Type", "text/plain")
+                        .method(metodo, HttpRequest.BodyPublishers.ofString(cuerpoTexto));
+            } else {
+                peticion.method(metodo, HttpRequest.BodyPublishers.noBody());
+            }
+            HttpResponse<String> respuesta = http.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+            if (respuesta.statusCode() >= 500) {
+                return new Respuesta(Resultado.ERROR, null);
+            }
+            JsonNode json = JSON.readTree(respuesta.body());
+            boolean exitosa = respuesta.statusCode() / 100 == 2 && json.path("success").asBoolean(false);
+            return new Respuesta(exitosa ? Resultado.EXITOSA : Resultado.RECHAZADA, json);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Respuesta(Resultado.ERROR, null);
+        } catch (Exception e) {
+            return new Respuesta(Resultado.ERROR, null);
+        }
+    }
+
+    private int entero(String clave, int porDefecto) {
+        return Integer.parseInt(opciones.getOrDefault(clave, Integer.toString(porDefecto)));
+    }
+
+    private static EnumMap<Operacion, Integer> leerPesos(String definicion) {
+        if (definicion == null) {
+            throw new IllegalArgumentException("Mezcla desconocida; use " + MEZCLAS.keySet() + " o --pesos");
+        }
+        EnumMap<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : definicion.split(",")) {
+            String[] claveValor = parte.split("=");
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso > 0) {
+                pesos.put(Operacion.deClave(claveValor[0]), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones con peso positivo");
+        }
+        return pesos;
+    }
+
+    private record Semilla(List<Integer> canchaIds, List<Integer> usuarioIds, List<String> logins, int reservasSembradas) {}
+
+    private record Respuesta(Resultado resultado, JsonNode cuerpo) {}
+}
@@ -0,0 +1,79 @@
+package uis.edu.entorno.proyecto.inicial.carga;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencias y resultados de una operación en un hilo. Cada hilo escribe la suya sin
+ * sincronización; al final se combinan para calcular percentiles.
+ */
+public class Latencias {
+
+    private long[] nanos = new long[1024];
+    private int tamaño;
+    private int rechazadas;
+    private int errores;
+
+    // exitosa: 2xx con success=true; rechazada: respuesta de negocio (sin cupo, límite...); error: 5xx, timeout o red
+    public void registrar(long duracionNanos, Resultado resultado) {
+        if (tamaño == nanos.length) {
+            nanos = Arrays.copyOf(nanos, tamaño * 2);
+        }
+        nanos[tamaño++] = duracionNanos;
+        if (resultado == Resultado.RECHAZADA) {
+            rechazadas++;
+        } else if (resultado == Resultado.ERROR) {
+            errores++;
+        }
+    }
+
+    public static Map<String, Object> resumen(List<Latencias> partes, int segundos) {
+        int total = 0;
+        int rechazadas = 0;
+        int errores = 0;
+        for (Latencias parte : partes) {
+            total += parte.tamaño;
+            rechazadas += parte.rechazadas;
+            errores += parte.errores;
+        }
+        long[] ordenadas = new long[total];
+        int posicion = 0;
+        for (Latencias parte : partes) {
+            System.arraycopy(parte.nanos, 0, ordenadas, posicion, parte.tamaño);
+            posicion += parte.tamaño;
+        }
+        Arrays.sort(ordenadas);
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("peticiones", total);
+        resumen.put("exitosas", total - rechazadas - errores);
+        resumen.put("rechazadas", rechazadas);
+        resumen.put("errores", errores);
+        resumen.put("tasaError", total == 0 ? 0.0 : redondear((double) errores / total, 4));
+        resumen.put("peticionesPorSegundo", redondear((double) total / segundos, 1));
+        resumen.put("exitosasPorSegundo", redondear((double) (total - rechazadas - errores) / segundos, 1));
+        resumen.put("p50Ms", percentil(ordenadas, 0.50));
+        resumen.put("p90Ms", percentil(ordenadas, 0.90));
+        resumen.put("p99Ms", percentil(ordenadas, 0.99));
+        resumen.put("p999Ms", percentil(ordenadas, 0.999));
+        resumen.put("maxMs", percentil(ordenadas, 1.0));
+        return resumen;
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return redondear(ordenadas[Math.max(indice, 0)] / 1_000_000.0, 2);
+    }
+
+    private static double redondear(double valor, int decimales) {
+        double escala = Math.pow(10, decimales);
+        return Math.round(valor * escala) / escala;
+    }
+
+    public enum Resultado { EXITOSA, RECHAZADA, ERROR }
+}
@@ -0,0 +1,31 @@
+package uis.edu.entorno.proyecto.inicial.carga;
+
+/**
+ * Operaciones de la mezcla de carga, con la clave usada en --pesos y en el reporte.
+ */
+public enum Operacion {
+    LOGIN("login"),
+    CANCHAS("canchas"),
+    DISPONIBILIDAD("disponibilidad"),
+    RESERVAR("reservar"),
+    CANCELAR("cancelar");
+
+    private final String clave;
+
+    Operacion(String clave) {
+        this.clave = clave;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public static Operacion deClave(String clave) {
+        for (Operacion operacion : values()) {
+            if (operacion.clave.equalsIgnoreCase(clave.trim())) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + clave);
+    }
+}
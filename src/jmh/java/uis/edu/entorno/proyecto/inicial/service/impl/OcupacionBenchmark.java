@@ -0,0 +1,82 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conteo de reservas solapadas (modelo anterior) frente al barrido de pico simultáneo
+ * sobre un día de una cancha con cientos de reservas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OcupacionBenchmark {
+
+    private static final int APERTURA = 6 * 60;
+    private static final int CIERRE = 22 * 60;
+
+    @Param({"100", "300", "800"})
+    public int reservasPorDia;
+
+    // Duración de la ventana consultada: una reserva típica o el día completo
+    @Param({"60", "960"})
+    public int minutosVentana;
+
+    private int[] ids;
+    private int[] inicios;
+    private int[] fines;
+    private OcupacionIndex.DiaOcupacion dia;
+    private int inicioVentana;
+    private int finVentana;
+
+    @Setup(Level.Trial)
+    public void sembrar() {
+        Random random = new Random(42);
+        ids = new int[reservasPorDia];
+        inicios = new int[reservasPorDia];
+        fines = new int[reservasPorDia];
+        dia = new OcupacionIndex.DiaOcupacion(reservasPorDia);
+        for (int i = 0; i < reservasPorDia; i++) {
+            int duracion = 30 * (1 + random.nextInt(4));
+            int inicio = APERTURA + 30 * random.nextInt((CIERRE - APERTURA - duracion) / 30 + 1);
+            ids[i] = i + 1;
+            inicios[i] = inicio;
+            fines[i] = inicio + duracion;
+            dia.agregar(ids[i], inicio, inicio + duracion);
+        }
+        inicioVentana = Math.max(APERTURA, 18 * 60 - minutosVentana / 2);
+        finVentana = Math.min(CIERRE, inicioVentana + minutosVentana);
+    }
+
+    @Benchmark
+    public int conteoSolapadas() {
+        int total = 0;
+        for (int i = 0; i < reservasPorDia; i++) {
+            if (inicios[i] < finVentana && fines[i] > inicioVentana && ids[i] != -1) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int barridoPicoConcurrente() {
+        return dia.picoConcurrente(inicioVentana, finVentana, -1);
+    }
+}
@@ -0,0 +1,171 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ruta caliente de validación de reservas: reglas puras de ReservaReglas, estado en tiempo real
+ * de las canchas y orden de los listados. El cálculo de cupo está en OcupacionBenchmark.
+ * Para seguir asignaciones entre commits: -Djmh.args="ReservaReglas -prof gc -rf json"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservaReglasBenchmark {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 10, 15);
+    private static final LocalTime AHORA = LocalTime.of(17, 40);
+    private static final String[] ESTADOS = {"ACTIVA", "FINALIZADA", "CANCELADA"};
+
+    // Las 48 medias horas del día
+    @State(Scope.Benchmark)
+    public static class Horas {
+        Cancha cancha;
+        LocalTime[] horas;
+
+        @Setup(Level.Trial)
+        public void sembrar() {
+            cancha = nuevaCancha(1, LocalTime.of(6, 0), LocalTime.of(22, 0));
+            horas = new LocalTime[48];
+            for (int i = 0; i < horas.length; i++) {
+                horas[i] = LocalTime.of(i / 2, 30 * (i % 2));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReservasUsuario {
+        @Param({"2", "16", "128"})
+        public int reservasUsuario;
+
+        List<Reserva> delUsuario;
+
+        @Setup(Level.Trial)
+        public void sembrar() {
+            Random random = new Random(42);
+            Cancha cancha = nuevaCancha(1, LocalTime.of(6, 0), LocalTime.of(22, 0));
+            delUsuario = new ArrayList<>(reservasUsuario);
+            for (int i = 0; i < reservasUsuario; i++) {
+                LocalTime inicio = LocalTime.of(6 + random.nextInt(15), 30 * random.nextInt(2));
+                Reserva reserva = new Reserva(null, cancha, HOY, inicio, inicio.plusMinutes(30));
+                reserva.setId(i + 1);
+                delUsuario.add(reserva);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Canchas {
+        @Param({"10", "100", "1000"})
+        public int canchas;
+
+        List<Cancha> lista;
+
+        @Setup(Level.Trial)
+        public void sembrar() {
+            Random random = new Random(42);
+            lista = new ArrayList<>(canchas);
+            for (int i = 0; i < canchas; i++) {
+                int apertura = 5 + random.nextInt(4);
+                Cancha cancha = nuevaCancha(i + 1, LocalTime.of(apertura, 0), LocalTime.of(apertura + 11 + random.nextInt(5), 0));
+                cancha.setEstado(i % 10 == 0 ? "INACTIVA" : "ACTIVA");
+                lista.add(cancha);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Listado {
+        @Param({"100", "1000", "10000"})
+        public int reservas;
+
+        List<ReservaResponse> desordenadas;
+
+        @Setup(Level.Trial)
+        public void sembrar() {
+            Random random = new Random(42);
+            desordenadas = new ArrayList<>(reservas);
+            for (int i = 0; i < reservas; i++) {
+                LocalTime inicio = LocalTime.of(6 + random.nextInt(15), 30 * random.nextInt(2));
+                desordenadas.add(new ReservaResponse(i + 1, 1 + random.nextInt(50), "Usuario",
+                        1 + random.nextInt(20), "Cancha", HOY.plusDays(random.nextInt(120) - 60),
+                        inicio, inicio.plusHours(1), ESTADOS[random.nextInt(ESTADOS.length)]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void determinarEstadoReserva(Horas s, Blackhole bh) {
+        for (LocalTime hora : s.horas) {
+            bh.consume(ReservaReglas.determinarEstadoReserva(HOY, hora, HOY, AHORA));
+        }
+    }
+
+    @Benchmark
+    public void estaEnHorarioAtencion(Horas s, Blackhole bh) {
+        for (int i = 0; i + 2 < s.horas.length; i++) {
+            bh.consume(ReservaReglas.estaEnHorarioAtencion(s.cancha, s.horas[i], s.horas[i + 2]));
+        }
+    }
+
+    @Benchmark
+    public long validarLimiteHorasUsuario(ReservasUsuario s) {
+        long total = ReservaReglas.minutosUsuario(s.delUsuario, 1, LocalTime.of(18, 0), LocalTime.of(19, 0));
+        try {
+            ReservaReglas.validarTotalMinutosUsuario(total);
+        } catch (RuntimeException e) {
+            return -total;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void formatTimeForDisplay(Horas s, Blackhole bh) {
+        for (LocalTime hora : s.horas) {
+            bh.consume(ReservaReglas.formatTimeForDisplay(hora));
+        }
+    }
+
+    @Benchmark
+    public void actualizarEstadoEnTiempoReal(Canchas c, Blackhole bh) {
+        for (Cancha cancha : c.lista) {
+            bh.consume(CanchaServiceImpl.actualizarEstadoEnTiempoReal(cancha, AHORA));
+        }
+    }
+
+    @Benchmark
+    public List<ReservaResponse> ordenListado(Listado l) {
+        List<ReservaResponse> copia = new ArrayList<>(l.desordenadas);
+        copia.sort(ReservaReglas.ORDEN_LISTADO);
+        return copia;
+    }
+
+    private static Cancha nuevaCancha(int id, LocalTime apertura, LocalTime cierre) {
+        Cancha cancha = new Cancha("Cancha " + id, "Fútbol", "Bucaramanga", 40000.0, 10, apertura, cierre);
+        cancha.setId(id);
+        return cancha;
+    }
+}
@@ -2,8 +2,10 @@ package uis.edu.entorno.proyecto.inicial;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProyectoInicialApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,63 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Envuelve el DataSource con {@link DataSourceBulkhead} cuando
+ * reservas.bd.bulkhead.habilitado=true (lo activa el perfil "virtual").
+ */
+@Configuration
+@ConditionalOnProperty(name = "reservas.bd.bulkhead.habilitado", havingValue = "true")
+public class BulkheadDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(
+            @Value("${reservas.bd.bulkhead.permisos:${spring.datasource.hikari.maximum-pool-size:10}}") int permisos,
+            @Value("${reservas.bd.bulkhead.espera-ms:5000}") long esperaMs,
+            @Value("${reservas.bd.bulkhead.max-en-espera:200}") int maxEnEspera) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceBulkhead)) {
+                    return new DataSourceBulkhead(dataSource, permisos, esperaMs, maxEnEspera);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Permisos libres y peticiones en espera, junto a las métricas de Hikari.
+    // El mamparo puede quedar debajo de otro envoltorio (contador de SQL), por eso se desenvuelve
+    @Bean
+    public MeterBinder dataSourceBulkheadMetricas(DataSource dataSource) {
+        return registry -> {
+            DataSourceBulkhead bulkhead = desenvolver(dataSource);
+            if (bulkhead != null) {
+                Gauge.builder("reservas.bd.bulkhead.permisos", bulkhead, DataSourceBulkhead::getPermisosDisponibles)
+                        .description("Permisos de conexión disponibles")
+                        .register(registry);
+                Gauge.builder("reservas.bd.bulkhead.en_espera", bulkhead, DataSourceBulkhead::getEnEspera)
+                        .description("Peticiones esperando un permiso de conexión")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static DataSourceBulkhead desenvolver(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(DataSourceBulkhead.class) ? dataSource.unwrap(DataSourceBulkhead.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
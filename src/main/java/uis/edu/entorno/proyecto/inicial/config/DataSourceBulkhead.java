@@ -0,0 +1,111 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mamparo delante del pool de conexiones.
+ * Con hilos virtuales cada petición es barata y miles pueden pedir conexión a la vez:
+ * el semáforo deja pasar tantas como conexiones tiene el pool, limita cuántas esperan
+ * y rechaza rápido el resto en lugar de acumularlas en la cola de Hikari.
+ */
+public class DataSourceBulkhead extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMs;
+    private final int maxEnEspera;
+    private final AtomicInteger enEspera = new AtomicInteger();
+
+    public DataSourceBulkhead(DataSource destino, int permisos, long esperaMs, int maxEnEspera) {
+        super(destino);
+        this.permisos = new Semaphore(permisos, true);
+        this.esperaMs = esperaMs;
+        this.maxEnEspera = maxEnEspera;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return envolver(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return envolver(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int getEnEspera() {
+        return enEspera.get();
+    }
+
+    private void adquirir() throws SQLException {
+        if (permisos.tryAcquire()) {
+            return;
+        }
+        if (enEspera.incrementAndGet() > maxEnEspera) {
+            enEspera.decrementAndGet();
+            throw new SQLTransientConnectionException("⏳ Base de datos saturada: demasiadas peticiones esperando conexión");
+        }
+        try {
+            if (!permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("⏳ No se obtuvo conexión a la base de datos en " + esperaMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("⏳ Espera de conexión interrumpida", e);
+        } finally {
+            enEspera.decrementAndGet();
+        }
+    }
+
+    // El permiso se devuelve una sola vez, al cerrar la conexión (devolverla al pool)
+    private Connection envolver(Connection conexion) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            if (cerrada.compareAndSet(false, true)) {
+                                permisos.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(metodo.getName()) && cerrada.get()) {
+                        return true;
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
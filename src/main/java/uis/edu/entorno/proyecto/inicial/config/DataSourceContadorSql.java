@@ -0,0 +1,48 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Cuenta en {@link SentenciasSql} cada sentencia que se prepara sobre las conexiones del pool.
+ * Va por debajo de Hibernate, así que también ve los INSERT por lotes de JdbcTemplate;
+ * un batch cuenta una vez, igual que el viaje a la base de datos.
+ */
+public class DataSourceContadorSql extends DelegatingDataSource {
+
+    private static final Set<String> SENTENCIAS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+    public DataSourceContadorSql(DataSource destino) {
+        super(destino);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envolver(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return envolver(super.getConnection(username, password));
+    }
+
+    private Connection envolver(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    if (SENTENCIAS.contains(metodo.getName())) {
+                        SentenciasSql.registrar();
+                    }
+                    try {
+                        return metodo.invoke(conexion, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
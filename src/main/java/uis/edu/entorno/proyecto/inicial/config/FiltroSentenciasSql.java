@@ -0,0 +1,97 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Mide las sentencias SQL de cada petición y avisa en el log cuando pasan del presupuesto
+ * (así aparecen los N+1 y las consultas repetidas). Con la cabecera activa (perfil "dev")
+ * devuelve el conteo en X-SQL-Statements.
+ */
+public class FiltroSentenciasSql extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-SQL-Statements";
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroSentenciasSql.class);
+
+    private final int presupuesto;
+    private final boolean cabecera;
+
+    public FiltroSentenciasSql(int presupuesto, boolean cabecera) {
+        this.presupuesto = presupuesto;
+        this.cabecera = cabecera;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        SentenciasSql.Medicion medicion = SentenciasSql.iniciar();
+        RespuestaConConteo respuesta = cabecera ? new RespuestaConConteo(response, medicion) : null;
+        try {
+            chain.doFilter(request, respuesta != null ? respuesta : response);
+        } finally {
+            medicion.close();
+            if (respuesta != null) {
+                respuesta.escribirCabecera();
+            }
+            registrar(request, medicion.getSentencias(), (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, int sentencias, long ms) {
+        if (sentencias > presupuesto) {
+            log.warn("🐢 {} {} ejecutó {} sentencias SQL (presupuesto {}) en {} ms",
+                    request.getMethod(), request.getRequestURI(), sentencias, presupuesto, ms);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {}: {} sentencias SQL en {} ms", request.getMethod(), request.getRequestURI(), sentencias, ms);
+        }
+    }
+
+    // La cabecera se fija justo antes de escribir el cuerpo, que es cuando la respuesta se confirma
+    private static final class RespuestaConConteo extends HttpServletResponseWrapper {
+
+        private final SentenciasSql.Medicion medicion;
+        private boolean escrita;
+
+        RespuestaConConteo(HttpServletResponse response, SentenciasSql.Medicion medicion) {
+            super(response);
+            this.medicion = medicion;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            escribirCabecera();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            escribirCabecera();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escribirCabecera();
+            super.flushBuffer();
+        }
+
+        void escribirCabecera() {
+            if (!escrita && !isCommitted()) {
+                setHeader(CABECERA, Integer.toString(medicion.getSentencias()));
+            }
+            escrita = true;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.SesionUsuario;
+import uis.edu.entorno.proyecto.inicial.service.impl.SesionesActivas;
+
+import java.io.IOException;
+
+/**
+ * Resuelve el token de sesión (X-Auth-Token o Authorization: Bearer) contra {@link SesionesActivas}
+ * y deja la sesión como atributo de la petición, sin consultar la BD.
+ * Las peticiones sin token siguen pasando; un token desconocido o vencido responde 401.
+ */
+public class FiltroSesion extends OncePerRequestFilter {
+
+    public static final String CABECERA_TOKEN = "X-Auth-Token";
+    public static final String ATRIBUTO_SESION = FiltroSesion.class.getName() + ".sesion";
+
+    private static final String BEARER = "Bearer ";
+
+    private final SesionesActivas sesionesActivas;
+    private final ObjectMapper objectMapper;
+
+    public FiltroSesion(SesionesActivas sesionesActivas, ObjectMapper objectMapper) {
+        this.sesionesActivas = sesionesActivas;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String token(HttpServletRequest request) {
+        String token = request.getHeader(CABECERA_TOKEN);
+        if (token != null && !token.isBlank()) {
+            return token.trim();
+        }
+        String autorizacion = request.getHeader("Authorization");
+        if (autorizacion != null && autorizacion.startsWith(BEARER)) {
+            return autorizacion.substring(BEARER.length()).trim();
+        }
+        return null;
+    }
+
+    public static SesionUsuario sesion(HttpServletRequest request) {
+        return (SesionUsuario) request.getAttribute(ATRIBUTO_SESION);
+    }
+
+    // El login no lleva token y el logout debe poder cerrar uno ya vencido sin recibir 401
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.endsWith("/api/auth/login") || uri.endsWith("/api/auth/logout");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = token(request);
+        if (token != null) {
+            SesionUsuario sesion = sesionesActivas.resolver(token);
+            if (sesion == null) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding("UTF-8");
+                objectMapper.writeValue(response.getOutputStream(),
+                        ApiResponse.error("🔑 La sesión expiró o no es válida. Inicie sesión nuevamente."));
+                return;
+            }
+            request.setAttribute(ATRIBUTO_SESION, sesion);
+        }
+        chain.doFilter(request, response);
+    }
+}
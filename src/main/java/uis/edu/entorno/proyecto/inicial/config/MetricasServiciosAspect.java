@@ -0,0 +1,61 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizador app.servicio para cada método de IReservaService, ICanchaService e IUsuarioService,
+ * etiquetado con class, method y exception (como @Timed). El conteo del temporizador es el número
+ * de llamadas; los temporizadores de las llamadas exitosas se reutilizan por método.
+ */
+@Aspect
+@Component
+public class MetricasServiciosAspect {
+
+    private static final String NOMBRE = "app.servicio";
+
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> exitosas = new ConcurrentHashMap<>();
+
+    public MetricasServiciosAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* uis.edu.entorno.proyecto.inicial.service.IReservaService.*(..))"
+            + " || execution(* uis.edu.entorno.proyecto.inicial.service.ICanchaService.*(..))"
+            + " || execution(* uis.edu.entorno.proyecto.inicial.service.IUsuarioService.*(..))")
+    public Object medir(ProceedingJoinPoint punto) throws Throwable {
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = punto.proceed();
+            Method metodo = ((MethodSignature) punto.getSignature()).getMethod();
+            exitosas.computeIfAbsent(metodo, m -> temporizador(m, "none"))
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable error) {
+            Method metodo = ((MethodSignature) punto.getSignature()).getMethod();
+            temporizador(metodo, error.getClass().getSimpleName())
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw error;
+        }
+    }
+
+    private Timer temporizador(Method metodo, String excepcion) {
+        return Timer.builder(NOMBRE)
+                .description("Duración de los métodos de servicio")
+                .tag("class", metodo.getDeclaringClass().getSimpleName())
+                .tag("method", metodo.getName())
+                .tag("exception", excepcion)
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Recursos estáticos del SPA. Los de /static/** llevan hash en el nombre (ver asset-manifest.json):
+ * se cachean un año como inmutables. El resto (favicon, manifest...) se revalida en cada uso.
+ * En ambos casos se sirve la variante .gz generada en la compilación si el cliente la acepta;
+ * index.html lo sirve {@code SpaController} desde memoria.
+ */
+@Configuration
+public class RecursosEstaticosConfig implements WebMvcConfigurer {
+
+    private static final Duration CACHE_CON_HASH = Duration.ofDays(365);
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/static/**")
+                .addResourceLocations("classpath:/static/static/")
+                .setCacheControl(CacheControl.maxAge(CACHE_CON_HASH).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
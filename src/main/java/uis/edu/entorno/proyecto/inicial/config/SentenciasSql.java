@@ -0,0 +1,56 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+/**
+ * Contador de sentencias SQL del hilo actual. Solo cuenta dentro de una medición abierta
+ * (una petición HTTP, una prueba); fuera de ella registrar() no hace nada.
+ * Las mediciones se pueden anidar: al cerrar una, sus sentencias se suman a la que la contiene.
+ */
+public final class SentenciasSql {
+
+    private static final ThreadLocal<int[]> ACTUAL = new ThreadLocal<>();
+
+    private SentenciasSql() {
+    }
+
+    public static Medicion iniciar() {
+        Medicion medicion = new Medicion(ACTUAL.get());
+        ACTUAL.set(medicion.contador);
+        return medicion;
+    }
+
+    static void registrar() {
+        int[] contador = ACTUAL.get();
+        if (contador != null) {
+            contador[0]++;
+        }
+    }
+
+    public static final class Medicion implements AutoCloseable {
+
+        private final int[] anterior;
+        private final int[] contador = new int[1];
+        private boolean cerrada;
+
+        private Medicion(int[] anterior) {
+            this.anterior = anterior;
+        }
+
+        public int getSentencias() {
+            return contador[0];
+        }
+
+        @Override
+        public void close() {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+            if (anterior != null) {
+                anterior[0] += contador[0];
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Presupuesto de sentencias SQL por petición: envuelve el DataSource con
+ * {@link DataSourceContadorSql} y registra {@link FiltroSentenciasSql} sobre /api/*.
+ * Se apaga con reservas.sql.contador.habilitado=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reservas.sql.contador.habilitado", havingValue = "true", matchIfMissing = true)
+public class SentenciasSqlConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceContadorSqlPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceContadorSql)) {
+                    return new DataSourceContadorSql(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<FiltroSentenciasSql> filtroSentenciasSql(
+            @Value("${reservas.sql.presupuesto:10}") int presupuesto,
+            @Value("${reservas.sql.cabecera:false}") boolean cabecera) {
+        FilterRegistrationBean<FiltroSentenciasSql> registro =
+                new FilterRegistrationBean<>(new FiltroSentenciasSql(presupuesto, cabecera));
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+}
@@ -0,0 +1,31 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uis.edu.entorno.proyecto.inicial.service.impl.SesionesActivas;
+
+/**
+ * Registra {@link FiltroSesion} sobre /api/*.
+ */
+@Configuration
+public class SesionConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltroSesion> filtroSesion(SesionesActivas sesionesActivas, ObjectMapper objectMapper) {
+        FilterRegistrationBean<FiltroSesion> registro =
+                new FilterRegistrationBean<>(new FiltroSesion(sesionesActivas, objectMapper));
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+
+    @Bean
+    public MeterBinder sesionesActivasMetricas(SesionesActivas sesionesActivas) {
+        return registry -> Gauge.builder("reservas.sesiones.abiertas", sesionesActivas, SesionesActivas::getSesionesAbiertas)
+                .description("Sesiones abiertas en memoria")
+                .register(registry);
+    }
+}
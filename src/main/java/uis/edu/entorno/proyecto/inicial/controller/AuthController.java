@@ -1,17 +1,22 @@
 package uis.edu.entorno.proyecto.inicial.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import uis.edu.entorno.proyecto.inicial.config.FiltroSesion;
+import uis.edu.entorno.proyecto.inicial.exception.UsuarioDuplicadoException;
 import uis.edu.entorno.proyecto.inicial.model.Usuario;
 import uis.edu.entorno.proyecto.inicial.model.dto.LoginRequest;
 import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.SesionUsuario;
 import uis.edu.entorno.proyecto.inicial.service.IUsuarioService;
+import uis.edu.entorno.proyecto.inicial.service.impl.SesionesActivas;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,6 +26,9 @@ public class AuthController {
     @Autowired
     private IUsuarioService usuarioService;
 
+    @Autowired
+    private SesionesActivas sesionesActivas;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
@@ -48,14 +56,35 @@ public class AuthController {
             usuarioResponse.setRol(usuario.getRol());
             usuarioResponse.setCreatedAt(usuario.getCreatedAt());
 
+            // El token de sesión viaja en la cabecera; las siguientes peticiones lo reenvían
+            String token = sesionesActivas.abrir(usuario);
+
             // Cambio clave: usar ApiResponse en lugar de AuthResponse
-            return ResponseEntity.ok(ApiResponse.success("Login exitoso", usuarioResponse));
+            return ResponseEntity.ok()
+                    .header(FiltroSesion.CABECERA_TOKEN, token)
+                    .body(ApiResponse.success("Login exitoso", usuarioResponse));
 
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.error("Error en el login: " + e.getMessage()));
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(HttpServletRequest request) {
+        sesionesActivas.cerrar(FiltroSesion.token(request));
+        return ResponseEntity.ok(ApiResponse.success("Sesión cerrada"));
+    }
+
+    // Usuario de la sesión actual, resuelto en memoria por FiltroSesion
+    @GetMapping("/sesion")
+    public ResponseEntity<ApiResponse> sesionActual(HttpServletRequest request) {
+        SesionUsuario sesion = FiltroSesion.sesion(request);
+        if (sesion == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error("No hay una sesión iniciada"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Sesión activa", sesion));
+    }
+
     private Map<String, Object> mapUsuarioToResponse(Usuario usuario) {
         Map<String, Object> usuarioResponse = new HashMap<>();
         usuarioResponse.put("id", usuario.getId());
@@ -92,17 +121,7 @@ public class AuthController {
                 usuario.setRol("USER");
             }
 
-            // Verificar duplicados
-            if (usuarioService.existsByCedula(usuario.getCedula())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con esta cédula"));
-            }
-            if (usuarioService.existsByEmail(usuario.getEmail())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este email"));
-            }
-            if (usuarioService.existsByUsuario(usuario.getUsuario())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este nombre de usuario"));
-            }
-
+            // Los duplicados (cédula, email, usuario) los detectan las restricciones únicas al insertar
             Usuario nuevoUsuario = usuarioService.create(usuario);
 
             // Crear respuesta sin la contraseña
@@ -116,13 +135,10 @@ public class AuthController {
             usuarioResponse.setCreatedAt(nuevoUsuario.getCreatedAt());
 
             return ResponseEntity.ok(ApiResponse.success("Usuario registrado exitosamente", usuarioResponse));
+        } catch (UsuarioDuplicadoException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Error al registrar usuario: " + e.getMessage()));
         }
     }
-
-    private String generarToken() {
-        // Generar un token simple (en producción usar JWT)
-        return "token-" + UUID.randomUUID().toString();
-    }
 }
\ No newline at end of file
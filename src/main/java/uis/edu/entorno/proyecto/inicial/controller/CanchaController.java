@@ -2,10 +2,21 @@ package uis.edu.entorno.proyecto.inicial.controller;
 
 import uis.edu.entorno.proyecto.inicial.model.Cancha;
 import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.CanchaLibreResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.DisponibilidadCanchaResponse;
 import uis.edu.entorno.proyecto.inicial.service.ICanchaService;
+import uis.edu.entorno.proyecto.inicial.service.impl.EventosDisponibilidad;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +28,18 @@ public class CanchaController {
     @Autowired
     private ICanchaService canchaService;
 
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Autowired
+    private EventosDisponibilidad eventosDisponibilidad;
+
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllCanchas() {
+    public ResponseEntity<ApiResponse> getAllCanchas(WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagCanchas())) {
+                return null;
+            }
             List<Cancha> canchas = canchaService.findAll();
             return ResponseEntity.ok(ApiResponse.success("Canchas obtenidas exitosamente", canchas));
         } catch (Exception e) {
@@ -28,8 +48,11 @@ public class CanchaController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getCanchaById(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponse> getCanchaById(@PathVariable Integer id, WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagCanchas())) {
+                return null;
+            }
             Optional<Cancha> cancha = canchaService.findById(id);
             return cancha.map(value -> ResponseEntity.ok(ApiResponse.success("Cancha encontrada", value))).orElseGet(() -> ResponseEntity.ok(ApiResponse.error("Cancha no encontrada")));
         } catch (Exception e) {
@@ -38,8 +61,11 @@ public class CanchaController {
     }
 
     @GetMapping("/deporte/{deporte}")
-    public ResponseEntity<ApiResponse> getCanchasByDeporte(@PathVariable String deporte) {
+    public ResponseEntity<ApiResponse> getCanchasByDeporte(@PathVariable String deporte, WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagCanchas())) {
+                return null;
+            }
             List<Cancha> canchas = canchaService.findByDeporte(deporte);
             return ResponseEntity.ok(ApiResponse.success("Canchas obtenidas exitosamente", canchas));
         } catch (Exception e) {
@@ -47,9 +73,76 @@ public class CanchaController {
         }
     }
 
+    // Canchas de un deporte con cupo en una franja; orden=cupos (por defecto) o orden=precio
+    @GetMapping("/buscar")
+    public ResponseEntity<ApiResponse> buscarCanchasLibres(
+            @RequestParam String deporte,
+            @RequestParam String fecha,
+            @RequestParam String horaInicio,
+            @RequestParam String horaFin,
+            @RequestParam(required = false) Double precioMaximo,
+            @RequestParam(required = false) Integer capacidadMinima,
+            @RequestParam(defaultValue = "cupos") String orden) {
+        try {
+            List<CanchaLibreResponse> libres = canchaService.buscarLibres(deporte, LocalDate.parse(fecha),
+                    LocalTime.parse(horaInicio), LocalTime.parse(horaFin), precioMaximo, capacidadMinima, orden);
+            return ResponseEntity.ok(ApiResponse.success("Canchas disponibles obtenidas exitosamente", libres));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al buscar canchas: " + e.getMessage()));
+        }
+    }
+
+    // Cupos por franja de 30 minutos de cada día entre desde y hasta (por defecto, hoy)
+    @GetMapping("/{id}/disponibilidad")
+    public ResponseEntity<ApiResponse> getDisponibilidad(
+            @PathVariable Integer id,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta) {
+        try {
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : LocalDate.now();
+            LocalDate fechaHasta = hasta != null ? LocalDate.parse(hasta) : fechaDesde;
+            DisponibilidadCanchaResponse disponibilidad = canchaService.getDisponibilidad(id, fechaDesde, fechaHasta);
+            return ResponseEntity.ok(ApiResponse.success("Disponibilidad obtenida exitosamente", disponibilidad));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener disponibilidad: " + e.getMessage()));
+        }
+    }
+
+    // Server-Sent Events: un evento "disponibilidad" con los cupos de las franjas afectadas cada vez que
+    // se crea, modifica, cancela o elimina una reserva de la cancha
+    @GetMapping(value = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> getEventos(@PathVariable Integer id) {
+        if (canchaService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emisor = eventosDisponibilidad.suscribir(id);
+        if (emisor == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(emisor);
+    }
+
+    @GetMapping("/deporte/{deporte}/disponibilidad")
+    public ResponseEntity<ApiResponse> getDisponibilidadPorDeporte(
+            @PathVariable String deporte,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta) {
+        try {
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : LocalDate.now();
+            LocalDate fechaHasta = hasta != null ? LocalDate.parse(hasta) : fechaDesde;
+            List<DisponibilidadCanchaResponse> disponibilidad = canchaService.getDisponibilidadPorDeporte(deporte, fechaDesde, fechaHasta);
+            return ResponseEntity.ok(ApiResponse.success("Disponibilidad obtenida exitosamente", disponibilidad));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener disponibilidad: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<ApiResponse> getCanchasByEstado(@PathVariable String estado) {
+    public ResponseEntity<ApiResponse> getCanchasByEstado(@PathVariable String estado, WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagCanchas())) {
+                return null;
+            }
             List<Cancha> canchas = canchaService.findByEstado(estado);
             return ResponseEntity.ok(ApiResponse.success("Canchas obtenidas exitosamente", canchas));
         } catch (Exception e) {
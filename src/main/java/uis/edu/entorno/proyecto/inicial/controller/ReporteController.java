@@ -0,0 +1,54 @@
+package uis.edu.entorno.proyecto.inicial.controller;
+
+import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReporteOcupacion;
+import uis.edu.entorno.proyecto.inicial.service.IReporteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reportes")
+@CrossOrigin(origins = "*")
+public class ReporteController {
+
+    @Autowired
+    private IReporteService reporteService;
+
+    // Ocupación e ingresos por cancha; periodo=dia (por defecto), semana o mes. Sin fechas: el mes en curso
+    @GetMapping("/ocupacion")
+    public ResponseEntity<ApiResponse> getOcupacion(
+            @RequestParam(defaultValue = "dia") String periodo,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta,
+            @RequestParam(required = false) Integer canchaId) {
+        try {
+            LocalDate hoy = LocalDate.now();
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : hoy.withDayOfMonth(1);
+            LocalDate fechaHasta = hasta != null ? LocalDate.parse(hasta) : hoy.with(TemporalAdjusters.lastDayOfMonth());
+            List<ReporteOcupacion> reportes = reporteService.getOcupacion(periodo, fechaDesde, fechaHasta, canchaId);
+            return ResponseEntity.ok(ApiResponse.success("Reporte de ocupación obtenido exitosamente", reportes));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener reporte: " + e.getMessage()));
+        }
+    }
+
+    // Recalcula los resúmenes desde las reservas y los compara; con reparar=false solo informa las diferencias
+    @PostMapping("/resumen/reconstruir")
+    public ResponseEntity<ApiResponse> reconstruirResumen(
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta,
+            @RequestParam(defaultValue = "true") boolean reparar) {
+        try {
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : null;
+            LocalDate fechaHasta = hasta != null ? LocalDate.parse(hasta) : null;
+            return ResponseEntity.ok(ApiResponse.success("Resumen de ocupación verificado",
+                    reporteService.reconstruirResumen(fechaDesde, fechaHasta, reparar)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al reconstruir resumen: " + e.getMessage()));
+        }
+    }
+}
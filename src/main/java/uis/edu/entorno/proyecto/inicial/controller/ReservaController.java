@@ -1,21 +1,32 @@
 package uis.edu.entorno.proyecto.inicial.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uis.edu.entorno.proyecto.inicial.model.Reserva;
 import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.dto.FormatoExportacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.PageResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaFiltro;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaLoteResultado;
 import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
 import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaRequest;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaResponse;
 import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.service.ICanchaService;
 import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos;
 import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
-import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,8 +42,15 @@ public class ReservaController {
     private ReservaRepository reservaRepository;
 
     @Autowired
-    private CanchaRepository canchaRepository;
+    private ICanchaService canchaService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    // create, update y updateEstado devuelven la reserva con usuario y cancha ya cargados: el mapeo no consulta la BD
     private ReservaResponse mapToResponse(Reserva r) {
         return new ReservaResponse(
                 r.getId(),
@@ -47,53 +65,122 @@ public class ReservaController {
         );
     }
 
+    private static final int LIMITE_POR_DEFECTO = 50;
+
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllReservas() {
+    public ResponseEntity<ApiResponse> getAllReservas(
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer usuarioId,
+            @RequestParam(required = false) Integer canchaId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta,
+            WebRequest request) {
         try {
-            List<Reserva> reservas = reservaService.findAll();
-            // Aplicar ordenamiento personalizado
-            reservas.sort((r1, r2) -> {
-                // Primero por estado: ACTIVA > FINALIZADA > CANCELADA
-                int estadoCompare = getEstadoPriority(r1.getEstado()) - getEstadoPriority(r2.getEstado());
-                if (estadoCompare != 0) return estadoCompare;
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagReservas())) {
+                return null;
+            }
+            // Sin parámetros se conserva la respuesta original (lista completa) que consume el frontend;
+            // el orden ACTIVA > FINALIZADA > CANCELADA, fecha, hora de inicio ya viene de la BD
+            if (limite == null && cursor == null && usuarioId == null && canchaId == null
+                    && estado == null && desde == null && hasta == null) {
+                List<ReservaResponse> resp = reservaService.findAll();
+                return ResponseEntity.ok(ApiResponse.success("Reservas obtenidas exitosamente", resp));
+            }
 
-                // Luego por fecha (más cercana primero)
-                int fechaCompare = r1.getFecha().compareTo(r2.getFecha());
-                if (fechaCompare != 0) return fechaCompare;
+            ReservaFiltro filtro = new ReservaFiltro(usuarioId, canchaId, estado,
+                    desde != null ? LocalDate.parse(desde) : null,
+                    hasta != null ? LocalDate.parse(hasta) : null);
+            PageResponse<ReservaResponse> pagina = reservaService.findPagina(filtro, cursor,
+                    limite != null ? limite : LIMITE_POR_DEFECTO);
+            return ResponseEntity.ok(ApiResponse.success("Reservas obtenidas exitosamente", pagina));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener reservas: " + e.getMessage()));
+        }
+    }
 
-                // Finalmente por hora de inicio
-                return r1.getHoraInicio().compareTo(r2.getHoraInicio());
-            });
+    // Exportación completa para conciliación: se escribe en flujo, sin armar la lista ni envolverla en ApiResponse
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta,
+            @RequestParam(required = false) Integer canchaId) {
+        try {
+            FormatoExportacion tipo = FormatoExportacion.desde(formato);
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : null;
+            LocalDate fechaHasta = hasta != null ? LocalDate.parse(hasta) : null;
+            if (fechaDesde != null && fechaHasta != null && fechaHasta.isBefore(fechaDesde)) {
+                return errorExportacion("❌ La fecha final no puede ser anterior a la inicial");
+            }
 
-            List<ReservaResponse> resp = reservas.stream()
-                    .map(this::mapToResponse)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(ApiResponse.success("Reservas obtenidas exitosamente", resp));
+            String archivo = "reservas" + (fechaDesde != null ? "_" + fechaDesde : "") +
+                    (fechaHasta != null ? "_" + fechaHasta : "") + "." + tipo.getExtension();
+            StreamingResponseBody cuerpo = salida -> reservaService.exportar(tipo, fechaDesde, fechaHasta, canchaId, salida);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(tipo.getTipoContenido() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                    .body(cuerpo);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener reservas: " + e.getMessage()));
+            return errorExportacion("Error al exportar reservas: " + e.getMessage());
         }
     }
 
-    private int getEstadoPriority(String estado) {
-        return switch (estado) {
-            case "ACTIVA" -> 1;
-            case "FINALIZADA" -> 2;
-            case "CANCELADA" -> 3;
-            default -> 4;
-        };
+    // El endpoint devuelve un flujo; los errores previos a escribir se envían como ApiResponse en JSON
+    private ResponseEntity<StreamingResponseBody> errorExportacion(String mensaje) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> objectMapper.writeValue(salida, ApiResponse.error(mensaje)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getReservaById(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponse> getReservaById(@PathVariable Integer id, WebRequest request) {
         try {
-            return reservaService.findById(id)
-                    .map(r -> ResponseEntity.ok(ApiResponse.success("Reserva encontrada", mapToResponse(r))))
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagReservas())) {
+                return null;
+            }
+            return reservaService.findResponseById(id)
+                    .map(r -> ResponseEntity.ok(ApiResponse.success("Reserva encontrada", r)))
                     .orElseGet(() -> ResponseEntity.ok(ApiResponse.error("Reserva no encontrada")));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Error al buscar reserva: " + e.getMessage()));
         }
     }
 
+    // Historial del usuario; si el rango (o la falta de él) llega a fechas archivadas se une con reservas_historial
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<ApiResponse> getReservasByUsuario(
+            @PathVariable Integer usuarioId,
+            @RequestParam(required = false) String desde,
+            @RequestParam(required = false) String hasta,
+            WebRequest request) {
+        try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagReservas())) {
+                return null;
+            }
+            List<ReservaResponse> reservas = reservaService.findByUsuarioId(usuarioId,
+                    desde != null ? LocalDate.parse(desde) : null,
+                    hasta != null ? LocalDate.parse(hasta) : null);
+            return ResponseEntity.ok(ApiResponse.success("Reservas obtenidas exitosamente", reservas));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener reservas: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/cancha/{canchaId}")
+    public ResponseEntity<ApiResponse> getReservasByCancha(@PathVariable Integer canchaId, WebRequest request) {
+        try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagReservas())) {
+                return null;
+            }
+            List<ReservaResponse> reservas = reservaService.findByCanchaId(canchaId);
+            return ResponseEntity.ok(ApiResponse.success("Reservas obtenidas exitosamente", reservas));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al obtener reservas: " + e.getMessage()));
+        }
+    }
+
     @PostMapping
     public ResponseEntity<ApiResponse> createReserva(@RequestBody ReservaRequest reservaRequest) {
         try {
@@ -104,6 +191,60 @@ public class ReservaController {
         }
     }
 
+    // Varias reservas en una sola transacción; cada solicitud reporta su propio resultado
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> createReservasLote(@RequestBody List<ReservaRequest> solicitudes) {
+        try {
+            List<ReservaLoteResultado> resultados = reservaService.createLote(solicitudes);
+            long creadas = resultados.stream().filter(ReservaLoteResultado::isExitoso).count();
+            return ResponseEntity.ok(ApiResponse.success("Lote procesado: " + creadas + " creadas, " +
+                    (resultados.size() - creadas) + " rechazadas", resultados));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al crear reservas: " + e.getMessage()));
+        }
+    }
+
+    // Reservas recurrentes semanales: la serie entera se admite o se rechaza
+    @PostMapping("/series")
+    public ResponseEntity<ApiResponse> createSerie(@RequestBody SerieReservaRequest solicitud) {
+        try {
+            SerieReservaResponse serie = reservaService.createSerie(solicitud);
+            return ResponseEntity.ok(ApiResponse.success("Serie creada exitosamente: " +
+                    serie.getOcurrencias().size() + " reservas", serie));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al crear serie: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/series/{id}")
+    public ResponseEntity<ApiResponse> getSerie(@PathVariable Integer id) {
+        try {
+            return reservaService.findSerie(id)
+                    .map(serie -> ResponseEntity.ok(ApiResponse.success("Serie encontrada", serie)))
+                    .orElseGet(() -> ResponseEntity.ok(ApiResponse.error("Serie no encontrada")));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al buscar serie: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/series/{id}")
+    public ResponseEntity<ApiResponse> updateSerie(@PathVariable Integer id, @RequestBody SerieReservaRequest solicitud) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Serie actualizada exitosamente", reservaService.updateSerie(id, solicitud)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al actualizar serie: " + e.getMessage()));
+        }
+    }
+
+    @PutMapping("/series/{id}/cancelar")
+    public ResponseEntity<ApiResponse> cancelarSerie(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Serie cancelada exitosamente", reservaService.cancelarSerie(id)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al cancelar serie: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}/estado")
     public ResponseEntity<ApiResponse> updateEstadoReserva(@PathVariable Integer id, @RequestBody String estado) {
         try {
@@ -151,29 +292,53 @@ public class ReservaController {
         }
     }
 
+    // Mueve a reservas_historial las FINALIZADAS y CANCELADAS anteriores al horizonte (también lo hace el job nocturno)
+    @PostMapping("/archivar")
+    public ResponseEntity<ApiResponse> archivarHistorial() {
+        try {
+            int archivadas = reservaService.archivarHistorial();
+            return ResponseEntity.ok(ApiResponse.success("Reservas archivadas: " + archivadas, archivadas));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al archivar reservas: " + e.getMessage()));
+        }
+    }
+
+    // Compara el inventario de franjas con las reservas; con reparar=true reconstruye los días que difieran
+    @PostMapping("/ocupacion/verificar")
+    public ResponseEntity<ApiResponse> verificarOcupacion(
+            @RequestParam(required = false) String desde,
+            @RequestParam(defaultValue = "false") boolean reparar) {
+        try {
+            LocalDate fechaDesde = desde != null ? LocalDate.parse(desde) : LocalDate.now();
+            return ResponseEntity.ok(ApiResponse.success("Inventario de franjas verificado",
+                    reservaService.verificarOcupacionSlots(fechaDesde, reparar)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al verificar ocupación: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/disponibilidad")
     public ResponseEntity<ApiResponse> getCuposDisponibles(
             @RequestParam Integer canchaId,
             @RequestParam String fecha,
             @RequestParam String horaInicio,
-            @RequestParam String horaFin) {
+            @RequestParam String horaFin,
+            @RequestParam(required = false) Integer reservaId) {
 
         try {
             LocalDate fechaLocal = LocalDate.parse(fecha);
             LocalTime horaInicioLocal = LocalTime.parse(horaInicio);
             LocalTime horaFinLocal = LocalTime.parse(horaFin);
 
-            // Obtener cancha
-            Cancha cancha = canchaRepository.findById(canchaId)
+            // Obtener cancha (catálogo en memoria)
+            Cancha cancha = canchaService.findById(canchaId)
                     .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
 
-            // Obtener reservas activas en el mismo horario
-            List<Reserva> reservasSolapadas = reservaRepository
-                    .findByCanchaIdAndFechaAndHoraInicioLessThanAndHoraFinGreaterThanAndEstadoNot(
-                            canchaId, fechaLocal, horaFinLocal, horaInicioLocal, "CANCELADA");
-
-            int reservasCount = reservasSolapadas.size();
-            int cuposDisponibles = cancha.getCapacidad() - reservasCount;
+            // Máximo de reservas simultáneas en el horario (desde el índice de ocupación);
+            // al editar, la propia reserva no ocupa cupo
+            int reservasCount = reservaService.ocupacionMaxima(
+                    canchaId, fechaLocal, horaInicioLocal, horaFinLocal, reservaId);
+            int cuposDisponibles = Math.max(cancha.getCapacidad() - reservasCount, 0);
 
             Map<String, Object> response = new HashMap<>();
             response.put("cuposDisponibles", cuposDisponibles);
@@ -1,15 +1,113 @@
 // src/main/java/uis/edu/entorno/proyecto/inicial/controller/SpaController.java
 package uis.edu.entorno.proyecto.inicial.controller;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sirve index.html para "/" y las rutas del SPA (sin punto) sin pasar por el manejador de recursos:
+ * el archivo y su variante gzip se leen una sola vez al arrancar. Nunca se cachea sin revalidar,
+ * porque es quien apunta a los bundles con hash de la versión desplegada.
+ */
 @Controller
 public class SpaController {
 
-    @RequestMapping(value = "/{path:[^\\.]*}")
-    public String redirect() {
-        // Forward to home page so that route is preserved.
-        return "forward:/";
+    private static final ClassPathResource INDEX = new ClassPathResource("static/index.html");
+    private static final ClassPathResource INDEX_GZIP = new ClassPathResource("static/index.html.gz");
+    private static final MediaType HTML_UTF8 = MediaType.parseMediaType("text/html;charset=UTF-8");
+
+    private byte[] index;
+    private byte[] indexGzip;
+    private String etag;
+    private String etagGzip;
+
+    @PostConstruct
+    void cargar() {
+        if (!INDEX.exists()) {
+            return;
+        }
+        try {
+            index = INDEX.getContentAsByteArray();
+            // Sin el paso de compilación (p. ej. desde el IDE) se comprime aquí
+            indexGzip = INDEX_GZIP.exists() ? INDEX_GZIP.getContentAsByteArray() : comprimir(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String hash = DigestUtils.md5DigestAsHex(index);
+        etag = "\"" + hash + "\"";
+        etagGzip = "\"" + hash + "-gzip\"";
+    }
+
+    @GetMapping(value = {"/", "/{path:[^\\.]*}"})
+    public ResponseEntity<byte[]> index(WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        if (index == null) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean gzip = aceptaGzip(aceptaCodificacion);
+        if (request.checkNotModified(gzip ? etagGzip : etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(HTML_UTF8)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(indexGzip);
+        }
+        return respuesta.body(index);
+    }
+
+    // "gzip" o "*" con q mayor que 0
+    private static boolean aceptaGzip(String aceptaCodificacion) {
+        if (aceptaCodificacion == null) {
+            return false;
+        }
+        for (String parte : aceptaCodificacion.split(",")) {
+            String[] campos = parte.trim().split(";");
+            String codificacion = campos[0].trim();
+            if (!codificacion.equalsIgnoreCase("gzip") && !codificacion.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < campos.length; i++) {
+                String parametro = campos[i].trim().replace(" ", "");
+                if (parametro.startsWith("q=") && !pesoPositivo(parametro.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Un q mal formado se trata como no aceptable: se responde sin comprimir
+    private static boolean pesoPositivo(String q) {
+        try {
+            return Double.parseDouble(q) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static byte[] comprimir(byte[] contenido) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(contenido.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(contenido);
+        }
+        return salida.toByteArray();
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,17 @@
 package uis.edu.entorno.proyecto.inicial.controller;
 
+import uis.edu.entorno.proyecto.inicial.exception.UsuarioDuplicadoException;
 import uis.edu.entorno.proyecto.inicial.model.Usuario;
 import uis.edu.entorno.proyecto.inicial.model.dto.ApiResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.UsuarioLoteResultado;
 import uis.edu.entorno.proyecto.inicial.service.IUsuarioService;
+import uis.edu.entorno.proyecto.inicial.service.impl.SesionesActivas;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +20,23 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class UsuarioController {
 
+    private static final int LIMITE_MAXIMO_LOTE = 200;
+
     @Autowired
     private IUsuarioService usuarioService;
 
+    @Autowired
+    private SesionesActivas sesionesActivas;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllUsuarios() {
+    public ResponseEntity<ApiResponse> getAllUsuarios(WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagUsuarios())) {
+                return null;
+            }
             List<Usuario> usuarios = usuarioService.findAll();
             return ResponseEntity.ok(ApiResponse.success("Usuarios obtenidos exitosamente", usuarios));
         } catch (Exception e) {
@@ -28,8 +45,11 @@ public class UsuarioController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse> getUsuarioById(@PathVariable Integer id) {
+    public ResponseEntity<ApiResponse> getUsuarioById(@PathVariable Integer id, WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagUsuarios())) {
+                return null;
+            }
             Optional<Usuario> usuario = usuarioService.findById(id);
             return usuario.map(value -> ResponseEntity.ok(ApiResponse.success("Usuario encontrado", value))).orElseGet(() -> ResponseEntity.ok(ApiResponse.error("Usuario no encontrado")));
         } catch (Exception e) {
@@ -38,8 +58,11 @@ public class UsuarioController {
     }
 
     @GetMapping("/cedula/{cedula}")
-    public ResponseEntity<ApiResponse> getUsuarioByCedula(@PathVariable String cedula) {
+    public ResponseEntity<ApiResponse> getUsuarioByCedula(@PathVariable String cedula, WebRequest request) {
         try {
+            if (VersionesDatos.sinCambios(request, versionesDatos.etagUsuarios())) {
+                return null;
+            }
             Optional<Usuario> usuario = usuarioService.findByCedula(cedula);
             return usuario.map(value -> ResponseEntity.ok(ApiResponse.success("Usuario encontrado", value))).orElseGet(() -> ResponseEntity.ok(ApiResponse.error("Usuario no encontrado")));
         } catch (Exception e) {
@@ -50,44 +73,52 @@ public class UsuarioController {
     @PostMapping
     public ResponseEntity<ApiResponse> createUsuario(@RequestBody Usuario usuario) {
         try {
-            // Validar campos requeridos
-            if (usuario.getCedula() == null || usuario.getCedula().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("La cédula es requerida"));
-            }
-            if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El nombre es requerido"));
-            }
-            if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El email es requerido"));
-            }
-            if (usuario.getUsuario() == null || usuario.getUsuario().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El nombre de usuario es requerido"));
-            }
-            if (usuario.getContraseña() == null || usuario.getContraseña().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("La contraseña es requerida"));
-            }
-            if (usuario.getRol() == null || usuario.getRol().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El rol es requerido"));
-            }
-
-            // Verificar duplicados
-            if (usuarioService.existsByCedula(usuario.getCedula())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con esta cédula"));
-            }
-            if (usuarioService.existsByEmail(usuario.getEmail())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este email"));
-            }
-            if (usuarioService.existsByUsuario(usuario.getUsuario())) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este nombre de usuario"));
+            String error = validarCampos(usuario);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(error));
             }
 
+            // Los duplicados (cédula, email, usuario) los detectan las restricciones únicas al insertar
             Usuario nuevoUsuario = usuarioService.create(usuario);
             return ResponseEntity.ok(ApiResponse.success("Usuario creado exitosamente", nuevoUsuario));
+        } catch (UsuarioDuplicadoException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Error al crear usuario: " + e.getMessage()));
         }
     }
 
+    // Importación de varios usuarios; cada uno se valida e inserta por separado, como en POST /api/usuarios
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> createUsuariosLote(@RequestBody List<Usuario> usuarios) {
+        try {
+            if (usuarios.size() > LIMITE_MAXIMO_LOTE) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(
+                        "❌ Un lote admite como máximo " + LIMITE_MAXIMO_LOTE + " usuarios."));
+            }
+            List<UsuarioLoteResultado> resultados = new ArrayList<>(usuarios.size());
+            int creados = 0;
+            for (int i = 0; i < usuarios.size(); i++) {
+                Usuario usuario = usuarios.get(i);
+                String error = validarCampos(usuario);
+                if (error != null) {
+                    resultados.add(UsuarioLoteResultado.rechazado(i, error));
+                    continue;
+                }
+                try {
+                    resultados.add(UsuarioLoteResultado.creado(i, usuarioService.create(usuario)));
+                    creados++;
+                } catch (UsuarioDuplicadoException e) {
+                    resultados.add(UsuarioLoteResultado.rechazado(i, e.getMessage()));
+                }
+            }
+            return ResponseEntity.ok(ApiResponse.success("Lote procesado: " + creados + " creados, " +
+                    (usuarios.size() - creados) + " rechazados", resultados));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Error al importar usuarios: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse> updateUsuario(@PathVariable Integer id, @RequestBody Usuario usuario) {
         try {
@@ -95,45 +126,17 @@ public class UsuarioController {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Usuario no encontrado"));
             }
 
-            // Validar campos requeridos
-            if (usuario.getCedula() == null || usuario.getCedula().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("La cédula es requerida"));
-            }
-            if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El nombre es requerido"));
-            }
-            if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El email es requerido"));
-            }
-            if (usuario.getUsuario() == null || usuario.getUsuario().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El nombre de usuario es requerido"));
-            }
-            if (usuario.getContraseña() == null || usuario.getContraseña().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("La contraseña es requerida"));
-            }
-            if (usuario.getRol() == null || usuario.getRol().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("El rol es requerido"));
-            }
-
-            // Verificar duplicados excluyendo el usuario actual
-            Optional<Usuario> usuarioPorCedula = usuarioService.findByCedula(usuario.getCedula());
-            if (usuarioPorCedula.isPresent() && !usuarioPorCedula.get().getId().equals(id)) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con esta cédula"));
-            }
-
-            Optional<Usuario> usuarioPorEmail = usuarioService.findByEmail(usuario.getEmail());
-            if (usuarioPorEmail.isPresent() && !usuarioPorEmail.get().getId().equals(id)) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este email"));
-            }
-
-            Optional<Usuario> usuarioPorUsuario = usuarioService.findByUsuario(usuario.getUsuario());
-            if (usuarioPorUsuario.isPresent() && !usuarioPorUsuario.get().getId().equals(id)) {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Ya existe un usuario con este nombre de usuario"));
+            String error = validarCampos(usuario);
+            if (error != null) {
+                return ResponseEntity.badRequest().body(ApiResponse.error(error));
             }
 
             usuario.setId(id);
             Usuario usuarioActualizado = usuarioService.update(usuario);
+            sesionesActivas.cerrarDeUsuario(id);
             return ResponseEntity.ok(ApiResponse.success("Usuario actualizado exitosamente", usuarioActualizado));
+        } catch (UsuarioDuplicadoException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Error al actualizar usuario: " + e.getMessage()));
         }
@@ -146,9 +149,33 @@ public class UsuarioController {
                 return ResponseEntity.badRequest().body(ApiResponse.error("Usuario no encontrado"));
             }
             usuarioService.delete(id);
+            sesionesActivas.cerrarDeUsuario(id);
             return ResponseEntity.ok(ApiResponse.success("Usuario eliminado exitosamente"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Error al eliminar usuario: " + e.getMessage()));
         }
     }
+
+    // Campos requeridos; devuelve el mensaje del primero que falte o null si están todos
+    private static String validarCampos(Usuario usuario) {
+        if (usuario.getCedula() == null || usuario.getCedula().trim().isEmpty()) {
+            return "La cédula es requerida";
+        }
+        if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
+            return "El nombre es requerido";
+        }
+        if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
+            return "El email es requerido";
+        }
+        if (usuario.getUsuario() == null || usuario.getUsuario().trim().isEmpty()) {
+            return "El nombre de usuario es requerido";
+        }
+        if (usuario.getContraseña() == null || usuario.getContraseña().trim().isEmpty()) {
+            return "La contraseña es requerida";
+        }
+        if (usuario.getRol() == null || usuario.getRol().trim().isEmpty()) {
+            return "El rol es requerido";
+        }
+        return null;
+    }
 }
@@ -0,0 +1,35 @@
+package uis.edu.entorno.proyecto.inicial.exception;
+
+/**
+ * Reserva rechazada por una regla de negocio; el motivo se usa en las métricas.
+ * El mensaje es el mismo que ve el usuario.
+ */
+public class ReservaRechazadaException extends RuntimeException {
+
+    private final Motivo motivo;
+
+    public ReservaRechazadaException(Motivo motivo, String message) {
+        super(message);
+        this.motivo = motivo;
+    }
+
+    public Motivo getMotivo() {
+        return motivo;
+    }
+
+    public enum Motivo {
+        FUERA_DE_HORARIO("fuera_de_horario"),
+        LIMITE_HORAS("limite_horas"),
+        SIN_CUPO("sin_cupo");
+
+        private final String etiqueta;
+
+        Motivo(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package uis.edu.entorno.proyecto.inicial.exception;
+
+/**
+ * Alta o edición de usuario rechazada por una restricción única (cédula, email o usuario).
+ * El mensaje es el mismo que ve el usuario.
+ */
+public class UsuarioDuplicadoException extends RuntimeException {
+
+    private final Campo campo;
+
+    public UsuarioDuplicadoException(Campo campo) {
+        super(campo.getMensaje());
+        this.campo = campo;
+    }
+
+    public Campo getCampo() {
+        return campo;
+    }
+
+    public enum Campo {
+        CEDULA("uk_usuarios_cedula", "Ya existe un usuario con esta cédula"),
+        EMAIL("uk_usuarios_email", "Ya existe un usuario con este email"),
+        USUARIO("uk_usuarios_usuario", "Ya existe un usuario con este nombre de usuario");
+
+        // Nombre de la restricción única en Usuario
+        private final String restriccion;
+        private final String mensaje;
+
+        Campo(String restriccion, String mensaje) {
+            this.restriccion = restriccion;
+            this.mensaje = mensaje;
+        }
+
+        public String getRestriccion() {
+            return restriccion;
+        }
+
+        public String getMensaje() {
+            return mensaje;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uis.edu.entorno.proyecto.inicial.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Fila de bloqueo por (cancha, fecha): serializa la admisión de reservas entre nodos
+@Entity
+@Table(name = "bloqueos_cancha_dia")
+@IdClass(BloqueoCanchaDia.Clave.class)
+public class BloqueoCanchaDia {
+    @Id
+    @Column(name = "cancha_id")
+    private Integer canchaId;
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    public BloqueoCanchaDia() {}
+
+    public BloqueoCanchaDia(Integer canchaId, LocalDate fecha) {
+        this.canchaId = canchaId;
+        this.fecha = fecha;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public static class Clave implements Serializable {
+        private Integer canchaId;
+        private LocalDate fecha;
+
+        public Clave() {}
+
+        public Clave(Integer canchaId, LocalDate fecha) {
+            this.canchaId = canchaId;
+            this.fecha = fecha;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(canchaId, clave.canchaId) && Objects.equals(fecha, clave.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(canchaId, fecha);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uis.edu.entorno.proyecto.inicial.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Objects;
+
+// Inventario materializado: reservas que ocupan cada franja de 30 minutos de una cancha en un día
+@Entity
+@Table(name = "ocupacion_slots")
+@IdClass(OcupacionSlot.Clave.class)
+public class OcupacionSlot {
+    @Id
+    @Column(name = "cancha_id")
+    private Integer canchaId;
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Id
+    @Column(name = "slot_inicio")
+    private LocalTime slotInicio;
+
+    @Column(name = "reservados", nullable = false)
+    private Integer reservados;
+
+    public OcupacionSlot() {
+        this.reservados = 0;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public LocalTime getSlotInicio() { return slotInicio; }
+    public void setSlotInicio(LocalTime slotInicio) { this.slotInicio = slotInicio; }
+
+    public Integer getReservados() { return reservados; }
+    public void setReservados(Integer reservados) { this.reservados = reservados; }
+
+    public static class Clave implements Serializable {
+        private Integer canchaId;
+        private LocalDate fecha;
+        private LocalTime slotInicio;
+
+        public Clave() {}
+
+        public Clave(Integer canchaId, LocalDate fecha, LocalTime slotInicio) {
+            this.canchaId = canchaId;
+            this.fecha = fecha;
+            this.slotInicio = slotInicio;
+        }
+
+        public Integer getCanchaId() { return canchaId; }
+        public LocalDate getFecha() { return fecha; }
+        public LocalTime getSlotInicio() { return slotInicio; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(canchaId, clave.canchaId) && Objects.equals(fecha, clave.fecha)
+                    && Objects.equals(slotInicio, clave.slotInicio);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(canchaId, fecha, slotInicio);
+        }
+    }
+}
@@ -7,17 +7,23 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reservas")
+@Table(name = "reservas", indexes = {
+        // Orden de listado: ACTIVA > FINALIZADA > CANCELADA, luego fecha y hora de inicio
+        @Index(name = "idx_reservas_orden", columnList = "estado_prioridad, fecha, hora_inicio, id"),
+        @Index(name = "idx_reservas_usuario_orden", columnList = "usuario_id, estado_prioridad, fecha, hora_inicio, id"),
+        @Index(name = "idx_reservas_cancha_orden", columnList = "cancha_id, estado_prioridad, fecha, hora_inicio, id"),
+        @Index(name = "idx_reservas_serie", columnList = "serie_id, fecha")
+})
 public class Reserva {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     private Usuario usuario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cancha_id", nullable = false)
     private Cancha cancha;
 
@@ -36,6 +42,18 @@ public class Reserva {
     @Column(name = "estado", length = 20)
     private String estado;
 
+    // Derivado de estado; se persiste para poder ordenar y paginar con índice
+    @Column(name = "estado_prioridad")
+    private Integer estadoPrioridad;
+
+    // Precio por hora de la cancha al reservar: los ingresos se calculan con él aunque la cancha cambie de precio
+    @Column(name = "precio_hora")
+    private Double precioHora;
+
+    // Serie recurrente a la que pertenece; null para reservas sueltas
+    @Column(name = "serie_id")
+    private Integer serieId;
+
     @Column(name = "creado_en")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime creadoEn;
@@ -50,11 +68,28 @@ public class Reserva {
         this();
         this.usuario = usuario;
         this.cancha = cancha;
+        this.precioHora = cancha.getPrecioHora();
         this.fecha = fecha;
         this.horaInicio = horaInicio;
         this.horaFin = horaFin;
     }
 
+    @PrePersist
+    @PreUpdate
+    private void calcularEstadoPrioridad() {
+        this.estadoPrioridad = prioridadDeEstado(estado);
+    }
+
+    public static int prioridadDeEstado(String estado) {
+        if (estado == null) return 4;
+        return switch (estado) {
+            case "ACTIVA" -> 1;
+            case "FINALIZADA" -> 2;
+            case "CANCELADA" -> 3;
+            default -> 4;
+        };
+    }
+
     // Getters y setters...
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
@@ -77,6 +112,14 @@ public class Reserva {
     public String getEstado() { return estado; }
     public void setEstado(String estado) { this.estado = estado; }
 
+    public Integer getEstadoPrioridad() { return estadoPrioridad; }
+
+    public Double getPrecioHora() { return precioHora; }
+    public void setPrecioHora(Double precioHora) { this.precioHora = precioHora; }
+
+    public Integer getSerieId() { return serieId; }
+    public void setSerieId(Integer serieId) { this.serieId = serieId; }
+
     public java.time.LocalDateTime getCreadoEn() { return creadoEn; }
     public void setCreadoEn(java.time.LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package uis.edu.entorno.proyecto.inicial.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Reservas FINALIZADAS y CANCELADAS ya archivadas (ArchivoReservas): mismas columnas e id que en reservas.
+// Solo se escribe con el INSERT ... SELECT del archivado; la API la lee junto con reservas cuando el rango lo pide
+@Entity
+@Table(name = "reservas_historial", indexes = {
+        @Index(name = "idx_historial_usuario_fecha", columnList = "usuario_id, fecha"),
+        @Index(name = "idx_historial_cancha_fecha", columnList = "cancha_id, fecha"),
+        @Index(name = "idx_historial_fecha", columnList = "fecha, hora_inicio, id")
+})
+public class ReservaHistorial {
+    @Id
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cancha_id", nullable = false)
+    private Cancha cancha;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin", nullable = false)
+    private LocalTime horaFin;
+
+    @Column(name = "estado", length = 20)
+    private String estado;
+
+    @Column(name = "estado_prioridad")
+    private Integer estadoPrioridad;
+
+    @Column(name = "precio_hora")
+    private Double precioHora;
+
+    @Column(name = "serie_id")
+    private Integer serieId;
+
+    @Column(name = "creado_en")
+    private LocalDateTime creadoEn;
+
+    @Column(name = "archivado_en")
+    private LocalDateTime archivadoEn;
+
+    public ReservaHistorial() {
+    }
+
+    // Getters y Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    public Cancha getCancha() { return cancha; }
+    public void setCancha(Cancha cancha) { this.cancha = cancha; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public LocalTime getHoraInicio() { return horaInicio; }
+    public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Integer getEstadoPrioridad() { return estadoPrioridad; }
+    public void setEstadoPrioridad(Integer estadoPrioridad) { this.estadoPrioridad = estadoPrioridad; }
+
+    public Double getPrecioHora() { return precioHora; }
+    public void setPrecioHora(Double precioHora) { this.precioHora = precioHora; }
+
+    public Integer getSerieId() { return serieId; }
+    public void setSerieId(Integer serieId) { this.serieId = serieId; }
+
+    public LocalDateTime getCreadoEn() { return creadoEn; }
+    public void setCreadoEn(LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
+
+    public LocalDateTime getArchivadoEn() { return archivadoEn; }
+    public void setArchivadoEn(LocalDateTime archivadoEn) { this.archivadoEn = archivadoEn; }
+}
@@ -0,0 +1,79 @@
+package uis.edu.entorno.proyecto.inicial.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Agregado diario por cancha de las reservas no canceladas: se mantiene con cada escritura de reservas
+@Entity
+@Table(name = "resumen_cancha_dia")
+@IdClass(ResumenCanchaDia.Clave.class)
+public class ResumenCanchaDia {
+    @Id
+    @Column(name = "cancha_id")
+    private Integer canchaId;
+
+    @Id
+    @Column(name = "fecha")
+    private LocalDate fecha;
+
+    @Column(name = "reservas", nullable = false)
+    private Integer reservas;
+
+    @Column(name = "minutos_reservados", nullable = false)
+    private Integer minutosReservados;
+
+    // precioHora × duración de cada reserva
+    @Column(name = "ingresos", nullable = false)
+    private Double ingresos;
+
+    public ResumenCanchaDia() {
+        this.reservas = 0;
+        this.minutosReservados = 0;
+        this.ingresos = 0.0;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public Integer getReservas() { return reservas; }
+    public void setReservas(Integer reservas) { this.reservas = reservas; }
+
+    public Integer getMinutosReservados() { return minutosReservados; }
+    public void setMinutosReservados(Integer minutosReservados) { this.minutosReservados = minutosReservados; }
+
+    public Double getIngresos() { return ingresos; }
+    public void setIngresos(Double ingresos) { this.ingresos = ingresos; }
+
+    public static class Clave implements Serializable {
+        private Integer canchaId;
+        private LocalDate fecha;
+
+        public Clave() {}
+
+        public Clave(Integer canchaId, LocalDate fecha) {
+            this.canchaId = canchaId;
+            this.fecha = fecha;
+        }
+
+        public Integer getCanchaId() { return canchaId; }
+        public LocalDate getFecha() { return fecha; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(canchaId, clave.canchaId) && Objects.equals(fecha, clave.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(canchaId, fecha);
+        }
+    }
+}
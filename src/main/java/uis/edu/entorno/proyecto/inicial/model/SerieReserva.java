@@ -0,0 +1,86 @@
+package uis.edu.entorno.proyecto.inicial.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Regla de una reserva recurrente semanal; cada ocurrencia es una fila de reservas con serie_id
+@Entity
+@Table(name = "series_reserva")
+public class SerieReserva {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cancha_id", nullable = false)
+    private Cancha cancha;
+
+    @Column(name = "fecha_inicio", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate fechaInicio;
+
+    @Column(name = "fecha_fin", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate fechaFin;
+
+    @Column(name = "cada_semanas", nullable = false)
+    private Integer cadaSemanas;
+
+    @Column(name = "hora_inicio", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaInicio;
+
+    @Column(name = "hora_fin", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaFin;
+
+    @Column(name = "estado", length = 20)
+    private String estado;
+
+    @Column(name = "creado_en")
+    private LocalDateTime creadoEn;
+
+    public SerieReserva() {
+        this.creadoEn = LocalDateTime.now();
+        this.estado = "ACTIVA";
+        this.cadaSemanas = 1;
+    }
+
+    // Getters y Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    public Cancha getCancha() { return cancha; }
+    public void setCancha(Cancha cancha) { this.cancha = cancha; }
+
+    public LocalDate getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDate fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDate getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDate fechaFin) { this.fechaFin = fechaFin; }
+
+    public Integer getCadaSemanas() { return cadaSemanas; }
+    public void setCadaSemanas(Integer cadaSemanas) { this.cadaSemanas = cadaSemanas; }
+
+    public LocalTime getHoraInicio() { return horaInicio; }
+    public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public LocalDateTime getCreadoEn() { return creadoEn; }
+    public void setCreadoEn(LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
+}
@@ -4,22 +4,27 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", uniqueConstraints = {
+        // Nombres fijos: UsuarioServiceImpl identifica el campo duplicado por la restricción que falla
+        @UniqueConstraint(name = "uk_usuarios_cedula", columnNames = "cedula"),
+        @UniqueConstraint(name = "uk_usuarios_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_usuarios_usuario", columnNames = "usuario")
+})
 public class Usuario {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "cedula", unique = true, nullable = false, length = 20)
+    @Column(name = "cedula", nullable = false, length = 20)
     private String cedula;
 
     @Column(name = "nombre", nullable = false, length = 100)
     private String nombre;
 
-    @Column(name = "email", unique = true, nullable = false, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
-    @Column(name = "usuario", unique = true, nullable = false, length = 50)
+    @Column(name = "usuario", nullable = false, length = 50)
     private String usuario;
 
     @Column(name = "contraseña", nullable = false, length = 255)
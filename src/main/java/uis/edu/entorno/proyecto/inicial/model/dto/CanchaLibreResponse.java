@@ -0,0 +1,51 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+public class CanchaLibreResponse {
+    private Integer canchaId;
+    private String nombre;
+    private String deporte;
+    private String ubicacion;
+    private Double precioHora;
+    private Integer capacidad;
+    private int reservasActivas;
+    private int cuposDisponibles;
+
+    public CanchaLibreResponse() {}
+
+    public CanchaLibreResponse(Integer canchaId, String nombre, String deporte, String ubicacion,
+                               Double precioHora, Integer capacidad, int reservasActivas, int cuposDisponibles) {
+        this.canchaId = canchaId;
+        this.nombre = nombre;
+        this.deporte = deporte;
+        this.ubicacion = ubicacion;
+        this.precioHora = precioHora;
+        this.capacidad = capacidad;
+        this.reservasActivas = reservasActivas;
+        this.cuposDisponibles = cuposDisponibles;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getDeporte() { return deporte; }
+    public void setDeporte(String deporte) { this.deporte = deporte; }
+
+    public String getUbicacion() { return ubicacion; }
+    public void setUbicacion(String ubicacion) { this.ubicacion = ubicacion; }
+
+    public Double getPrecioHora() { return precioHora; }
+    public void setPrecioHora(Double precioHora) { this.precioHora = precioHora; }
+
+    public Integer getCapacidad() { return capacidad; }
+    public void setCapacidad(Integer capacidad) { this.capacidad = capacidad; }
+
+    public int getReservasActivas() { return reservasActivas; }
+    public void setReservasActivas(int reservasActivas) { this.reservasActivas = reservasActivas; }
+
+    public int getCuposDisponibles() { return cuposDisponibles; }
+    public void setCuposDisponibles(int cuposDisponibles) { this.cuposDisponibles = cuposDisponibles; }
+}
@@ -0,0 +1,86 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cupos libres de una cancha por franja de 30 minutos dentro de su horario, para cada día de un rango
+public class DisponibilidadCanchaResponse {
+    private Integer canchaId;
+    private String nombreCancha;
+    private Integer capacidad;
+    private List<Dia> dias = new ArrayList<>();
+
+    public DisponibilidadCanchaResponse() {}
+
+    public DisponibilidadCanchaResponse(Integer canchaId, String nombreCancha, Integer capacidad) {
+        this.canchaId = canchaId;
+        this.nombreCancha = nombreCancha;
+        this.capacidad = capacidad;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public String getNombreCancha() { return nombreCancha; }
+    public void setNombreCancha(String nombreCancha) { this.nombreCancha = nombreCancha; }
+
+    public Integer getCapacidad() { return capacidad; }
+    public void setCapacidad(Integer capacidad) { this.capacidad = capacidad; }
+
+    public List<Dia> getDias() { return dias; }
+    public void setDias(List<Dia> dias) { this.dias = dias; }
+
+    public static class Dia {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+        private LocalDate fecha;
+        private List<Franja> franjas = new ArrayList<>();
+
+        public Dia() {}
+
+        public Dia(LocalDate fecha) {
+            this.fecha = fecha;
+        }
+
+        public LocalDate getFecha() { return fecha; }
+        public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+        public List<Franja> getFranjas() { return franjas; }
+        public void setFranjas(List<Franja> franjas) { this.franjas = franjas; }
+    }
+
+    public static class Franja {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+        private LocalTime horaInicio;
+
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+        private LocalTime horaFin;
+
+        private int reservasActivas;
+        private int cuposDisponibles;
+
+        public Franja() {}
+
+        public Franja(LocalTime horaInicio, LocalTime horaFin, int reservasActivas, int cuposDisponibles) {
+            this.horaInicio = horaInicio;
+            this.horaFin = horaFin;
+            this.reservasActivas = reservasActivas;
+            this.cuposDisponibles = cuposDisponibles;
+        }
+
+        public LocalTime getHoraInicio() { return horaInicio; }
+        public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+        public LocalTime getHoraFin() { return horaFin; }
+        public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
+        public int getReservasActivas() { return reservasActivas; }
+        public void setReservasActivas(int reservasActivas) { this.reservasActivas = reservasActivas; }
+
+        public int getCuposDisponibles() { return cuposDisponibles; }
+        public void setCuposDisponibles(int cuposDisponibles) { this.cuposDisponibles = cuposDisponibles; }
+    }
+}
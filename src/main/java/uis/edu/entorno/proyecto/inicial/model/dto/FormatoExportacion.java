@@ -0,0 +1,32 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+// Formatos de GET /api/reservas/exportar
+public enum FormatoExportacion {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static FormatoExportacion desde(String valor) {
+        for (FormatoExportacion formato : values()) {
+            if (formato.extension.equalsIgnoreCase(valor)) {
+                return formato;
+            }
+        }
+        throw new RuntimeException("❌ Formato de exportación no soportado: " + valor + ". Use csv o ndjson.");
+    }
+}
@@ -0,0 +1,10 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.time.LocalTime;
+
+// Proyección mínima de una reserva: solo lo necesario para calcular ocupación
+public interface IntervaloReserva {
+    Integer getId();
+    LocalTime getHoraInicio();
+    LocalTime getHoraFin();
+}
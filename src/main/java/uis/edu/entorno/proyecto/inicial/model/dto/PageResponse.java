@@ -0,0 +1,27 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.util.List;
+
+public class PageResponse<T> {
+    private List<T> items;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    public PageResponse() {}
+
+    public PageResponse(List<T> items, String siguienteCursor) {
+        this.items = items;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = siguienteCursor != null;
+    }
+
+    // Getters y Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(String siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+}
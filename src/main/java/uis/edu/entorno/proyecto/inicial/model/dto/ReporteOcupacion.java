@@ -0,0 +1,65 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+
+// Ocupación e ingresos de una cancha en un periodo (día, semana o mes) de GET /api/reportes/ocupacion
+public class ReporteOcupacion {
+    private Integer canchaId;
+    private String nombreCancha;
+    private String periodo;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate desde;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate hasta;
+
+    private int reservas;
+    private long minutosReservados;
+    // Minutos de atención del periodo multiplicados por la capacidad de la cancha
+    private long minutosDisponibles;
+    private double ocupacionPorcentaje;
+    private double ingresos;
+
+    public ReporteOcupacion() {}
+
+    public ReporteOcupacion(Integer canchaId, String nombreCancha, String periodo, LocalDate desde, LocalDate hasta) {
+        this.canchaId = canchaId;
+        this.nombreCancha = nombreCancha;
+        this.periodo = periodo;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    // Getters y Setters
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public String getNombreCancha() { return nombreCancha; }
+    public void setNombreCancha(String nombreCancha) { this.nombreCancha = nombreCancha; }
+
+    public String getPeriodo() { return periodo; }
+    public void setPeriodo(String periodo) { this.periodo = periodo; }
+
+    public LocalDate getDesde() { return desde; }
+    public void setDesde(LocalDate desde) { this.desde = desde; }
+
+    public LocalDate getHasta() { return hasta; }
+    public void setHasta(LocalDate hasta) { this.hasta = hasta; }
+
+    public int getReservas() { return reservas; }
+    public void setReservas(int reservas) { this.reservas = reservas; }
+
+    public long getMinutosReservados() { return minutosReservados; }
+    public void setMinutosReservados(long minutosReservados) { this.minutosReservados = minutosReservados; }
+
+    public long getMinutosDisponibles() { return minutosDisponibles; }
+    public void setMinutosDisponibles(long minutosDisponibles) { this.minutosDisponibles = minutosDisponibles; }
+
+    public double getOcupacionPorcentaje() { return ocupacionPorcentaje; }
+    public void setOcupacionPorcentaje(double ocupacionPorcentaje) { this.ocupacionPorcentaje = ocupacionPorcentaje; }
+
+    public double getIngresos() { return ingresos; }
+    public void setIngresos(double ingresos) { this.ingresos = ingresos; }
+}
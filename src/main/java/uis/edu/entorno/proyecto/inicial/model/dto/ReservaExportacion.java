@@ -0,0 +1,87 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// Fila plana de GET /api/reservas/exportar (conciliación mensual); no es una entidad administrada
+public class ReservaExportacion {
+    private Integer id;
+    private Integer usuarioId;
+    private String nombreUsuario;
+    private Integer canchaId;
+    private String nombreCancha;
+    private Double precioHora;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate fecha;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaInicio;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaFin;
+
+    private String estado;
+    private Integer serieId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime creadoEn;
+
+    public ReservaExportacion() {}
+
+    public ReservaExportacion(Integer id, Integer usuarioId, String nombreUsuario, Integer canchaId, String nombreCancha,
+                              Double precioHora, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+                              String estado, Integer serieId, LocalDateTime creadoEn) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.nombreUsuario = nombreUsuario;
+        this.canchaId = canchaId;
+        this.nombreCancha = nombreCancha;
+        this.precioHora = precioHora;
+        this.fecha = fecha;
+        this.horaInicio = horaInicio;
+        this.horaFin = horaFin;
+        this.estado = estado;
+        this.serieId = serieId;
+        this.creadoEn = creadoEn;
+    }
+
+    // Getters y Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Integer getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(Integer usuarioId) { this.usuarioId = usuarioId; }
+
+    public String getNombreUsuario() { return nombreUsuario; }
+    public void setNombreUsuario(String nombreUsuario) { this.nombreUsuario = nombreUsuario; }
+
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public String getNombreCancha() { return nombreCancha; }
+    public void setNombreCancha(String nombreCancha) { this.nombreCancha = nombreCancha; }
+
+    public Double getPrecioHora() { return precioHora; }
+    public void setPrecioHora(Double precioHora) { this.precioHora = precioHora; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public LocalTime getHoraInicio() { return horaInicio; }
+    public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Integer getSerieId() { return serieId; }
+    public void setSerieId(Integer serieId) { this.serieId = serieId; }
+
+    public LocalDateTime getCreadoEn() { return creadoEn; }
+    public void setCreadoEn(LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
+}
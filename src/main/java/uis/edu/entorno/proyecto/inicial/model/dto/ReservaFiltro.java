@@ -0,0 +1,37 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.time.LocalDate;
+
+public class ReservaFiltro {
+    private Integer usuarioId;
+    private Integer canchaId;
+    private String estado;
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    public ReservaFiltro() {}
+
+    public ReservaFiltro(Integer usuarioId, Integer canchaId, String estado, LocalDate desde, LocalDate hasta) {
+        this.usuarioId = usuarioId;
+        this.canchaId = canchaId;
+        this.estado = estado;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    // Getters y Setters
+    public Integer getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(Integer usuarioId) { this.usuarioId = usuarioId; }
+
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public LocalDate getDesde() { return desde; }
+    public void setDesde(LocalDate desde) { this.desde = desde; }
+
+    public LocalDate getHasta() { return hasta; }
+    public void setHasta(LocalDate hasta) { this.hasta = hasta; }
+}
@@ -0,0 +1,40 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+// Resultado de una solicitud dentro de POST /api/reservas/batch
+public class ReservaLoteResultado {
+    private int indice;
+    private boolean exitoso;
+    private String mensaje;
+    private ReservaResponse reserva;
+
+    public ReservaLoteResultado() {}
+
+    public ReservaLoteResultado(int indice, boolean exitoso, String mensaje, ReservaResponse reserva) {
+        this.indice = indice;
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+        this.reserva = reserva;
+    }
+
+    // Getters y Setters
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public boolean isExitoso() { return exitoso; }
+    public void setExitoso(boolean exitoso) { this.exitoso = exitoso; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+
+    public ReservaResponse getReserva() { return reserva; }
+    public void setReserva(ReservaResponse reserva) { this.reserva = reserva; }
+
+    // Métodos estáticos para resultados comunes
+    public static ReservaLoteResultado creada(int indice, ReservaResponse reserva) {
+        return new ReservaLoteResultado(indice, true, "Reserva creada exitosamente", reserva);
+    }
+
+    public static ReservaLoteResultado rechazada(int indice, String mensaje) {
+        return new ReservaLoteResultado(indice, false, mensaje, null);
+    }
+}
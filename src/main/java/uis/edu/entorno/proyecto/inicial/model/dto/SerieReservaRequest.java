@@ -0,0 +1,39 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Regla semanal: una ocurrencia cada "cadaSemanas" semanas desde fechaInicio hasta fechaFin (incluida)
+public class SerieReservaRequest {
+    private Integer usuarioId;
+    private Integer canchaId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Integer cadaSemanas;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+
+    public SerieReservaRequest() {}
+
+    // Getters y Setters
+    public Integer getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(Integer usuarioId) { this.usuarioId = usuarioId; }
+
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public LocalDate getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDate fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDate getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDate fechaFin) { this.fechaFin = fechaFin; }
+
+    public Integer getCadaSemanas() { return cadaSemanas; }
+    public void setCadaSemanas(Integer cadaSemanas) { this.cadaSemanas = cadaSemanas; }
+
+    public LocalTime getHoraInicio() { return horaInicio; }
+    public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+}
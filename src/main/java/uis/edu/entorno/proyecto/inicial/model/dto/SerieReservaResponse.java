@@ -0,0 +1,77 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class SerieReservaResponse {
+    private Integer id;
+    private Integer usuarioId;
+    private Integer canchaId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate fechaInicio;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate fechaFin;
+
+    private Integer cadaSemanas;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaInicio;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
+    private LocalTime horaFin;
+
+    private String estado;
+    private List<ReservaResponse> ocurrencias;
+
+    public SerieReservaResponse() {}
+
+    public SerieReservaResponse(Integer id, Integer usuarioId, Integer canchaId, LocalDate fechaInicio, LocalDate fechaFin,
+                                Integer cadaSemanas, LocalTime horaInicio, LocalTime horaFin, String estado,
+                                List<ReservaResponse> ocurrencias) {
+        this.id = id;
+        this.usuarioId = usuarioId;
+        this.canchaId = canchaId;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.cadaSemanas = cadaSemanas;
+        this.horaInicio = horaInicio;
+        this.horaFin = horaFin;
+        this.estado = estado;
+        this.ocurrencias = ocurrencias;
+    }
+
+    // Getters y Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Integer getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(Integer usuarioId) { this.usuarioId = usuarioId; }
+
+    public Integer getCanchaId() { return canchaId; }
+    public void setCanchaId(Integer canchaId) { this.canchaId = canchaId; }
+
+    public LocalDate getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDate fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDate getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDate fechaFin) { this.fechaFin = fechaFin; }
+
+    public Integer getCadaSemanas() { return cadaSemanas; }
+    public void setCadaSemanas(Integer cadaSemanas) { this.cadaSemanas = cadaSemanas; }
+
+    public LocalTime getHoraInicio() { return horaInicio; }
+    public void setHoraInicio(LocalTime horaInicio) { this.horaInicio = horaInicio; }
+
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public List<ReservaResponse> getOcurrencias() { return ocurrencias; }
+    public void setOcurrencias(List<ReservaResponse> ocurrencias) { this.ocurrencias = ocurrencias; }
+}
@@ -0,0 +1,24 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+/**
+ * Lo que el servidor recuerda de un usuario con sesión abierta.
+ * Se comparte entre peticiones, por eso no tiene setters.
+ */
+public class SesionUsuario {
+    private final Integer id;
+    private final String rol;
+    private final String nombre;
+
+    public SesionUsuario(Integer id, String rol, String nombre) {
+        this.id = id;
+        this.rol = rol;
+        this.nombre = nombre;
+    }
+
+    // Getters
+    public Integer getId() { return id; }
+
+    public String getRol() { return rol; }
+
+    public String getNombre() { return nombre; }
+}
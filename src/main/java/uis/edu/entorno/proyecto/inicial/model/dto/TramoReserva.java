@@ -0,0 +1,16 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Proyección de una reserva con su usuario, cancha, día, estado y precio cobrado, sin cargar entidades
+public interface TramoReserva {
+    Integer getId();
+    Integer getUsuarioId();
+    Integer getCanchaId();
+    LocalDate getFecha();
+    LocalTime getHoraInicio();
+    LocalTime getHoraFin();
+    Double getPrecioHora();
+    String getEstado();
+}
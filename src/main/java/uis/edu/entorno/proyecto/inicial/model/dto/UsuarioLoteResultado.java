@@ -0,0 +1,42 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+
+// Resultado de un usuario dentro de POST /api/usuarios/batch
+public class UsuarioLoteResultado {
+    private int indice;
+    private boolean exitoso;
+    private String mensaje;
+    private Usuario usuario;
+
+    public UsuarioLoteResultado() {}
+
+    public UsuarioLoteResultado(int indice, boolean exitoso, String mensaje, Usuario usuario) {
+        this.indice = indice;
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+        this.usuario = usuario;
+    }
+
+    // Getters y Setters
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public boolean isExitoso() { return exitoso; }
+    public void setExitoso(boolean exitoso) { this.exitoso = exitoso; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    // Métodos estáticos para resultados comunes
+    public static UsuarioLoteResultado creado(int indice, Usuario usuario) {
+        return new UsuarioLoteResultado(indice, true, "Usuario creado exitosamente", usuario);
+    }
+
+    public static UsuarioLoteResultado rechazado(int indice, String mensaje) {
+        return new UsuarioLoteResultado(indice, false, mensaje, null);
+    }
+}
@@ -0,0 +1,10 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Momento (fecha + hora de fin) en que una reserva activa pasa a FINALIZADA
+public interface VencimientoReserva {
+    LocalDate getFecha();
+    LocalTime getHoraFin();
+}
@@ -0,0 +1,26 @@
+package uis.edu.entorno.proyecto.inicial.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class VerificacionSlotsResponse {
+    private int diasRevisados;
+    private int diasConDiferencias;
+    private int diasReconstruidos;
+    private List<String> diferencias = new ArrayList<>();
+
+    public VerificacionSlotsResponse() {}
+
+    // Getters y Setters
+    public int getDiasRevisados() { return diasRevisados; }
+    public void setDiasRevisados(int diasRevisados) { this.diasRevisados = diasRevisados; }
+
+    public int getDiasConDiferencias() { return diasConDiferencias; }
+    public void setDiasConDiferencias(int diasConDiferencias) { this.diasConDiferencias = diasConDiferencias; }
+
+    public int getDiasReconstruidos() { return diasReconstruidos; }
+    public void setDiasReconstruidos(int diasReconstruidos) { this.diasReconstruidos = diasReconstruidos; }
+
+    public List<String> getDiferencias() { return diferencias; }
+    public void setDiferencias(List<String> diferencias) { this.diferencias = diferencias; }
+}
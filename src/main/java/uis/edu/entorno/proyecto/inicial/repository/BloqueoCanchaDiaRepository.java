@@ -0,0 +1,32 @@
+package uis.edu.entorno.proyecto.inicial.repository;
+
+import jakarta.persistence.LockModeType;
+import uis.edu.entorno.proyecto.inicial.model.BloqueoCanchaDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BloqueoCanchaDiaRepository extends JpaRepository<BloqueoCanchaDia, BloqueoCanchaDia.Clave> {
+
+    // Crea la fila de bloqueo la primera vez que se reserva ese día de cancha
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO bloqueos_cancha_dia (cancha_id, fecha) VALUES (?1, ?2)", nativeQuery = true)
+    int asegurar(Integer canchaId, LocalDate fecha);
+
+    // SELECT ... FOR UPDATE: se mantiene hasta el fin de la transacción que lo toma
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BloqueoCanchaDia b WHERE b.canchaId = ?1 AND b.fecha = ?2")
+    Optional<BloqueoCanchaDia> bloquear(Integer canchaId, LocalDate fecha);
+
+    // Varios días de una cancha en una sentencia; InnoDB los bloquea en el orden de la clave (cancha, fecha)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BloqueoCanchaDia b WHERE b.canchaId = ?1 AND b.fecha IN ?2 ORDER BY b.fecha")
+    List<BloqueoCanchaDia> bloquearVarios(Integer canchaId, Collection<LocalDate> fechas);
+}
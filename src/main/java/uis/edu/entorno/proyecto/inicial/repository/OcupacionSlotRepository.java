@@ -0,0 +1,31 @@
+package uis.edu.entorno.proyecto.inicial.repository;
+
+import uis.edu.entorno.proyecto.inicial.model.OcupacionSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Repository
+public interface OcupacionSlotRepository extends JpaRepository<OcupacionSlot, OcupacionSlot.Clave> {
+
+    // Admisión: suma 1 a cada franja cubierta que aún tenga cupo; el llamador compara filas afectadas vs franjas
+    @Modifying
+    @Query("UPDATE OcupacionSlot s SET s.reservados = s.reservados + 1 WHERE s.canchaId = ?1 AND s.fecha = ?2 " +
+            "AND s.slotInicio >= ?3 AND s.slotInicio < ?4 AND s.reservados < ?5")
+    int incrementar(Integer canchaId, LocalDate fecha, LocalTime desde, LocalTime hasta, int capacidad);
+
+    @Modifying
+    @Query("UPDATE OcupacionSlot s SET s.reservados = s.reservados - 1 WHERE s.canchaId = ?1 AND s.fecha = ?2 " +
+            "AND s.slotInicio >= ?3 AND s.slotInicio < ?4 AND s.reservados > 0")
+    int decrementar(Integer canchaId, LocalDate fecha, LocalTime desde, LocalTime hasta);
+
+    @Modifying
+    @Query("DELETE FROM OcupacionSlot s WHERE s.canchaId = ?1 AND s.fecha = ?2")
+    int deleteByCanchaIdAndFecha(Integer canchaId, LocalDate fecha);
+
+    List<OcupacionSlot> findByFechaGreaterThanEqual(LocalDate fecha);
+}
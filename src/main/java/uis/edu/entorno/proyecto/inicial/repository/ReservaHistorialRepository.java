@@ -0,0 +1,46 @@
+package uis.edu.entorno.proyecto.inicial.repository;
+
+import uis.edu.entorno.proyecto.inicial.model.ReservaHistorial;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mismas proyecciones que ReservaRepository, sobre las reservas archivadas
+@Repository
+public interface ReservaHistorialRepository extends JpaRepository<ReservaHistorial, Integer> {
+
+    String SELECT_RESPONSE = "SELECT new uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse(" +
+            "r.id, u.id, u.nombre, c.id, c.nombre, r.fecha, r.horaInicio, r.horaFin, r.estado) " +
+            "FROM ReservaHistorial r JOIN r.usuario u JOIN r.cancha c ";
+
+    String SELECT_TRAMO = "SELECT r.id AS id, r.usuario.id AS usuarioId, r.cancha.id AS canchaId, r.fecha AS fecha, " +
+            "r.horaInicio AS horaInicio, r.horaFin AS horaFin, r.precioHora AS precioHora, r.estado AS estado " +
+            "FROM ReservaHistorial r ";
+
+    String SELECT_EXPORTACION = "SELECT new uis.edu.entorno.proyecto.inicial.model.dto.ReservaExportacion(" +
+            "r.id, u.id, u.nombre, c.id, c.nombre, r.precioHora, r.fecha, r.horaInicio, r.horaFin, r.estado, " +
+            "r.serieId, r.creadoEn) FROM ReservaHistorial r JOIN r.usuario u JOIN r.cancha c ";
+
+    // Fecha más reciente archivada: por encima de ella todo está en reservas
+    @Query("SELECT MAX(r.fecha) FROM ReservaHistorial r")
+    LocalDate findUltimaFecha();
+
+    @Query("SELECT MIN(r.fecha) FROM ReservaHistorial r")
+    LocalDate findPrimeraFecha();
+
+    @Query(SELECT_RESPONSE + "WHERE u.id = ?1 AND (?2 IS NULL OR r.fecha >= ?2) AND (?3 IS NULL OR r.fecha <= ?3)" +
+            ReservaRepository.ORDEN_LISTADO)
+    List<ReservaResponse> findResponsesByUsuarioId(Integer usuarioId, LocalDate desde, LocalDate hasta);
+
+    // Las FINALIZADAS archivadas siguen contando en los resúmenes de ocupación
+    @Query(SELECT_TRAMO + "WHERE (?1 IS NULL OR r.fecha >= ?1) AND (?2 IS NULL OR r.fecha <= ?2) AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosEntre(LocalDate desde, LocalDate hasta);
+
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id = ?1 AND r.fecha = ?2 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosDelDia(Integer canchaId, LocalDate fecha);
+}
@@ -1,15 +1,61 @@
 package uis.edu.entorno.proyecto.inicial.repository;
 
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
 import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.IntervaloReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.VencimientoReserva;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
+
+    // Proyección a ReservaResponse en un único SELECT con join: solo las columnas que expone la API
+    String SELECT_RESPONSE = "SELECT new uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse(" +
+            "r.id, u.id, u.nombre, c.id, c.nombre, r.fecha, r.horaInicio, r.horaFin, r.estado) " +
+            "FROM Reserva r JOIN r.usuario u JOIN r.cancha c ";
+    String ORDEN_LISTADO = " ORDER BY r.estadoPrioridad, r.fecha, r.horaInicio, r.id";
+    // Misma proyección con joins implícitos: r.usuario.id y r.cancha.id se leen de las columnas de reservas
+    // (con JOIN explícito Hibernate los resuelve sobre la tabla unida y el filtro no cae en el índice)
+    String SELECT_PAGINA = "SELECT new uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse(" +
+            "r.id, r.usuario.id, r.usuario.nombre, r.cancha.id, r.cancha.nombre, r.fecha, r.horaInicio, r.horaFin, " +
+            "r.estado) FROM Reserva r ";
+    // Paginación por clave (keyset): filas estrictamente posteriores al cursor, comparando la fila de valores
+    // con las columnas de idx_reservas_orden (y de los índices por usuario y por cancha, que las siguen)
+    String POSTERIOR_AL_CURSOR = "(r.estadoPrioridad, r.fecha, r.horaInicio, r.id) > (:prioridad, :fecha, :horaInicio, :id)";
+
+    // Tramo de reserva por claves foráneas, sin join con usuarios ni canchas
+    String SELECT_TRAMO = "SELECT r.id AS id, r.usuario.id AS usuarioId, r.cancha.id AS canchaId, r.fecha AS fecha, " +
+            "r.horaInicio AS horaInicio, r.horaFin AS horaFin, r.precioHora AS precioHora, r.estado AS estado " +
+            "FROM Reserva r ";
+
+    // Filas planas para la exportación: sin entidades en el contexto de persistencia; el precio es el cobrado,
+    // el mismo que suman los resúmenes de ocupación
+    String SELECT_EXPORTACION = "SELECT new uis.edu.entorno.proyecto.inicial.model.dto.ReservaExportacion(" +
+            "r.id, u.id, u.nombre, c.id, c.nombre, r.precioHora, r.fecha, r.horaInicio, r.horaFin, r.estado, " +
+            "r.serieId, r.creadoEn) FROM Reserva r JOIN r.usuario u JOIN r.cancha c ";
+    // Filtros y orden de la exportación, comunes a la tabla viva y al historial (ExportacionReservas las
+    // ejecuta en flujo con el tamaño de lote configurado)
+    String FILTRO_EXPORTACION = "WHERE (?1 IS NULL OR r.fecha >= ?1) AND (?2 IS NULL OR r.fecha <= ?2) " +
+            "AND (?3 IS NULL OR c.id = ?3) ORDER BY r.fecha, r.horaInicio, r.id";
+
+    @Query(SELECT_TRAMO + "WHERE r.id = ?1")
+    Optional<TramoReserva> findTramoById(Integer id);
+
+    // Reserva con su usuario y su cancha en un solo SELECT: la respuesta de las ediciones los usa sin cargas perezosas
+    @Query("SELECT r FROM Reserva r JOIN FETCH r.usuario JOIN FETCH r.cancha WHERE r.id = ?1")
+    Optional<Reserva> findConUsuarioYCanchaById(Integer id);
+
     List<Reserva> findByUsuarioId(Integer usuarioId);
     List<Reserva> findByCanchaId(Integer canchaId);
 
@@ -29,4 +75,98 @@ public interface ReservaRepository extends JpaRepository<Reserva, Integer> {
             Integer canchaId, LocalDate fecha, LocalTime horaFin, LocalTime horaInicio, String estado, Integer id);
 
     List<Reserva> findAllByOrderByIdAsc();
+
+    @Query(SELECT_RESPONSE + ORDEN_LISTADO)
+    List<ReservaResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + "WHERE r.id = ?1")
+    Optional<ReservaResponse> findResponseById(Integer id);
+
+    @Query(SELECT_RESPONSE + "WHERE u.id = ?1 AND (?2 IS NULL OR r.fecha >= ?2) AND (?3 IS NULL OR r.fecha <= ?3)" + ORDEN_LISTADO)
+    List<ReservaResponse> findResponsesByUsuarioId(Integer usuarioId, LocalDate desde, LocalDate hasta);
+
+    @Query(SELECT_RESPONSE + "WHERE c.id = ?1" + ORDEN_LISTADO)
+    List<ReservaResponse> findResponsesByCanchaId(Integer canchaId);
+
+    // Intervalos de un día de cancha para el índice de ocupación (sin cargar entidades)
+    @Query("SELECT r.id AS id, r.horaInicio AS horaInicio, r.horaFin AS horaFin FROM Reserva r " +
+            "WHERE r.cancha.id = ?1 AND r.fecha = ?2 AND r.estado != ?3")
+    List<IntervaloReserva> findIntervalosByCanchaIdAndFechaAndEstadoNot(Integer canchaId, LocalDate fecha, String estado);
+
+    // Tramos ocupados (no cancelados) desde una fecha, para reconstruir el inventario de franjas
+    @Query(SELECT_TRAMO + "WHERE r.fecha >= ?1 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosDesde(LocalDate fecha);
+
+    // Tramos ocupados en un rango de fechas opcional, para recalcular los resúmenes diarios
+    @Query(SELECT_TRAMO + "WHERE (?1 IS NULL OR r.fecha >= ?1) AND (?2 IS NULL OR r.fecha <= ?2) AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosEntre(LocalDate desde, LocalDate hasta);
+
+    // Tramos ocupados de un día de cancha, para reconstruir su resumen
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id = ?1 AND r.fecha = ?2 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosDelDia(Integer canchaId, LocalDate fecha);
+
+    // Primera y última fecha con reservas, para recorrer todo el rango por ventanas
+    @Query("SELECT MIN(r.fecha) FROM Reserva r")
+    LocalDate findPrimeraFecha();
+
+    @Query("SELECT MAX(r.fecha) FROM Reserva r")
+    LocalDate findUltimaFecha();
+
+    // Tramos ocupados de varias canchas y fechas en una sola consulta (el llamador descarta combinaciones ajenas)
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id IN ?1 AND r.fecha IN ?2 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupados(Collection<Integer> canchaIds, Collection<LocalDate> fechas);
+
+    // Ocupación de una cancha en un rango de fechas: una sola consulta para todas las ocurrencias de una serie
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id = ?1 AND r.fecha BETWEEN ?2 AND ?3 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosEnRango(Integer canchaId, LocalDate desde, LocalDate hasta);
+
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id IN ?1 AND r.fecha BETWEEN ?2 AND ?3 AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosEnRango(Collection<Integer> canchaIds, LocalDate desde, LocalDate hasta);
+
+    // Tramos de varias canchas que se solapan con una franja de un día, para el barrido de ocupación por cancha
+    @Query(SELECT_TRAMO + "WHERE r.cancha.id IN ?1 AND r.fecha = ?2 AND r.horaInicio < ?4 AND r.horaFin > ?3 " +
+            "AND r.estado != 'CANCELADA'")
+    List<TramoReserva> findTramosOcupadosEnFranja(Collection<Integer> canchaIds, LocalDate fecha,
+                                                  LocalTime horaInicio, LocalTime horaFin);
+
+    @Query(SELECT_TRAMO + "WHERE r.serieId = ?1 AND r.fecha >= ?2 AND r.estado = ?3 ORDER BY r.fecha")
+    List<TramoReserva> findTramosDeSerie(Integer serieId, LocalDate desde, String estado);
+
+    @Query(SELECT_RESPONSE + "WHERE r.serieId = ?1 ORDER BY r.fecha")
+    List<ReservaResponse> findResponsesBySerieId(Integer serieId);
+
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = 'CANCELADA', r.estadoPrioridad = 3 " +
+            "WHERE r.serieId = ?1 AND r.fecha >= ?2 AND r.estado = 'ACTIVA'")
+    int cancelarSerieDesde(Integer serieId, LocalDate desde);
+
+    @Modifying
+    @Query("UPDATE Reserva r SET r.cancha = ?2, r.horaInicio = ?3, r.horaFin = ?4, r.precioHora = ?6 " +
+            "WHERE r.serieId = ?1 AND r.fecha >= ?5 AND r.estado = 'ACTIVA'")
+    int reprogramarSerieDesde(Integer serieId, Cancha cancha, LocalTime horaInicio, LocalTime horaFin, LocalDate desde,
+                              Double precioHora);
+
+    // Vencimientos pendientes para sembrar el programador de expiración
+    @Query("SELECT DISTINCT r.fecha AS fecha, r.horaFin AS horaFin FROM Reserva r WHERE r.estado = 'ACTIVA'")
+    List<VencimientoReserva> findVencimientosActivos();
+
+    // Actualizaciones masivas de estado: una sola sentencia en lugar de guardar fila por fila
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = 'FINALIZADA', r.estadoPrioridad = 2 WHERE r.estado = 'ACTIVA' " +
+            "AND (r.fecha < ?1 OR (r.fecha = ?1 AND r.horaFin < ?2))")
+    int finalizarVencidas(LocalDate hoy, LocalTime ahora);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = 'ACTIVA', r.estadoPrioridad = 1 WHERE r.estado = 'FINALIZADA' " +
+            "AND (r.fecha > ?1 OR (r.fecha = ?1 AND r.horaFin >= ?2))")
+    int reactivarNoVencidas(LocalDate hoy, LocalTime ahora);
+
+    // Completa la prioridad de filas creadas antes de existir la columna
+    @Transactional
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estadoPrioridad = CASE r.estado WHEN 'ACTIVA' THEN 1 WHEN 'FINALIZADA' THEN 2 " +
+            "WHEN 'CANCELADA' THEN 3 ELSE 4 END WHERE r.estadoPrioridad IS NULL")
+    int completarEstadoPrioridad();
 }
\ No newline at end of file
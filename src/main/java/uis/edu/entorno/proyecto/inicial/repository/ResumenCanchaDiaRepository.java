@@ -0,0 +1,28 @@
+package uis.edu.entorno.proyecto.inicial.repository;
+
+import uis.edu.entorno.proyecto.inicial.model.ResumenCanchaDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResumenCanchaDiaRepository extends JpaRepository<ResumenCanchaDia, ResumenCanchaDia.Clave> {
+
+    // Filtros opcionales (null = sin límite), como en la paginación de reservas
+    @Query("SELECT r FROM ResumenCanchaDia r WHERE (?1 IS NULL OR r.canchaId = ?1) " +
+            "AND (?2 IS NULL OR r.fecha >= ?2) AND (?3 IS NULL OR r.fecha <= ?3)")
+    List<ResumenCanchaDia> findEnRango(Integer canchaId, LocalDate desde, LocalDate hasta);
+
+    @Query("SELECT MIN(r.fecha) FROM ResumenCanchaDia r")
+    LocalDate findPrimeraFecha();
+
+    @Query("SELECT MAX(r.fecha) FROM ResumenCanchaDia r")
+    LocalDate findUltimaFecha();
+
+    @Modifying
+    @Query("DELETE FROM ResumenCanchaDia r WHERE r.canchaId = ?1 AND r.fecha = ?2")
+    int deleteByCanchaIdAndFecha(Integer canchaId, LocalDate fecha);
+}
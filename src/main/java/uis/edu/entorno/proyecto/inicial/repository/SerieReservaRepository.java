@@ -0,0 +1,9 @@
+package uis.edu.entorno.proyecto.inicial.repository;
+
+import uis.edu.entorno.proyecto.inicial.model.SerieReserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SerieReservaRepository extends JpaRepository<SerieReserva, Integer> {
+}
@@ -1,6 +1,10 @@
 package uis.edu.entorno.proyecto.inicial.service;
 
 import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.dto.CanchaLibreResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.DisponibilidadCanchaResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,5 +16,9 @@ public interface ICanchaService {
     Cancha create(Cancha cancha);
     Cancha update(Cancha cancha);
     void delete(Integer id);
+    DisponibilidadCanchaResponse getDisponibilidad(Integer id, LocalDate desde, LocalDate hasta);
+    List<DisponibilidadCanchaResponse> getDisponibilidadPorDeporte(String deporte, LocalDate desde, LocalDate hasta);
+    List<CanchaLibreResponse> buscarLibres(String deporte, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+                                           Double precioMaximo, Integer capacidadMinima, String orden);
 }
 
@@ -0,0 +1,11 @@
+package uis.edu.entorno.proyecto.inicial.service;
+
+import uis.edu.entorno.proyecto.inicial.model.dto.ReporteOcupacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IReporteService {
+    List<ReporteOcupacion> getOcupacion(String periodo, LocalDate desde, LocalDate hasta, Integer canchaId);
+    VerificacionSlotsResponse reconstruirResumen(LocalDate desde, LocalDate hasta, boolean reparar);
+}
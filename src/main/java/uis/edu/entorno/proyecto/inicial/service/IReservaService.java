@@ -1,22 +1,49 @@
 package uis.edu.entorno.proyecto.inicial.service;
 
 import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.FormatoExportacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.PageResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaLoteResultado;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaFiltro;
 import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaRequest;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface IReservaService {
-    List<Reserva> findAll();
+    List<ReservaResponse> findAll();
+    PageResponse<ReservaResponse> findPagina(ReservaFiltro filtro, String cursor, int limite);
     Optional<Reserva> findById(Integer id);
-    List<Reserva> findByUsuarioId(Integer usuarioId);
-    List<Reserva> findByCanchaId(Integer canchaId);
+    Optional<ReservaResponse> findResponseById(Integer id);
+    List<ReservaResponse> findByUsuarioId(Integer usuarioId, LocalDate desde, LocalDate hasta);
+    List<ReservaResponse> findByCanchaId(Integer canchaId);
     Reserva create(ReservaRequest reservaRequest);
+    List<ReservaLoteResultado> createLote(List<ReservaRequest> solicitudes);
+
+    SerieReservaResponse createSerie(SerieReservaRequest solicitud);
+    Optional<SerieReservaResponse> findSerie(Integer id);
+    SerieReservaResponse updateSerie(Integer id, SerieReservaRequest solicitud);
+    SerieReservaResponse cancelarSerie(Integer id);
+
     Reserva updateEstado(Integer id, String estado);
     void delete(Integer id);
     boolean isCanchaDisponible(Integer canchaId, String fecha, String horaInicio, String horaFin);
+    int ocupacionMaxima(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaIdExcluir);
 
     Reserva update(Integer id, ReservaRequest reservaRequest);
 
     boolean actualizarEstadosAutomaticamente();
+
+    VerificacionSlotsResponse verificarOcupacionSlots(LocalDate desde, boolean reparar);
+
+    long exportar(FormatoExportacion formato, LocalDate desde, LocalDate hasta, Integer canchaId, OutputStream salida);
+
+    int archivarHistorial();
 }
 
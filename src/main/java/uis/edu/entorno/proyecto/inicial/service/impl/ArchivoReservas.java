@@ -0,0 +1,120 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaHistorialRepository;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos.Recurso;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Archivado de reservas: mueve las FINALIZADAS y CANCELADAS anteriores al horizonte de reservas a
+ * reservas_historial, por lotes y cada lote en su propia transacción (INSERT ... SELECT + DELETE).
+ * Así la tabla viva solo crece con las reservas recientes y sus consultas no recorren el histórico.
+ */
+@Component
+public class ArchivoReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoReservas.class);
+
+    private static final String COLUMNAS = "id, usuario_id, cancha_id, fecha, hora_inicio, hora_fin, " +
+            "estado, estado_prioridad, serie_id, creado_en, precio_hora";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservaHistorialRepository reservaHistorialRepository;
+
+    @Autowired
+    private OcupacionIndex ocupacionIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Value("${reservas.archivo.horizonte-dias:180}")
+    private int horizonteDias;
+
+    @Value("${reservas.archivo.lote:1000}")
+    private int lote;
+
+    /**
+     * Un rango que empieza después de la última fecha archivada solo necesita la tabla viva.
+     * La fecha se lee en cada llamada (MAX sobre idx_historial_fecha, sin recorrer la tabla): el archivado
+     * puede correr en otro nodo y un valor guardado en memoria dejaría fuera lo recién archivado.
+     */
+    public boolean alcanzaHistorial(LocalDate desde) {
+        LocalDate ultima = reservaHistorialRepository.findUltimaFecha();
+        return ultima != null && (desde == null || !desde.isAfter(ultima));
+    }
+
+    @Scheduled(cron = "${reservas.archivo.cron:0 0 4 * * *}")
+    public void programado() {
+        archivar();
+    }
+
+    /**
+     * Archiva lote a lote hasta que no quede nada anterior al horizonte.
+     * Las reservas de días pasados no ocupan cupo futuro, así que el índice de ocupación
+     * solo se limpia y los resúmenes (que incluyen el historial) no cambian.
+     * @return número de reservas archivadas
+     */
+    public int archivar() {
+        LocalDate limite = LocalDate.now().minusDays(Math.max(horizonteDias, 1));
+        int total = 0;
+        List<Archivada> movidas;
+        do {
+            movidas = transactionTemplate.execute(status -> moverLote(limite));
+            for (Archivada archivada : movidas) {
+                ocupacionIndex.quitar(archivada.id(), archivada.canchaId(), archivada.fecha());
+            }
+            if (!movidas.isEmpty()) {
+                versionesDatos.cambio(Recurso.RESERVAS);
+            }
+            total += movidas.size();
+        } while (movidas.size() == lote);
+
+        if (total > 0) {
+            log.info("Reservas archivadas en reservas_historial: {} (anteriores a {})", total, limite);
+        }
+        return total;
+    }
+
+    // FOR UPDATE: un cambio de estado concurrente espera a que el lote termine de moverse
+    private List<Archivada> moverLote(LocalDate limite) {
+        List<Archivada> filas = jdbcTemplate.query(
+                "SELECT id, cancha_id, fecha FROM reservas WHERE estado_prioridad IN (2, 3) AND fecha < ? LIMIT ? FOR UPDATE",
+                (rs, i) -> new Archivada(rs.getInt("id"), rs.getInt("cancha_id"), rs.getDate("fecha").toLocalDate()),
+                Date.valueOf(limite), lote);
+        if (filas.isEmpty()) {
+            return filas;
+        }
+
+        String marcadores = String.join(", ", Collections.nCopies(filas.size(), "?"));
+        List<Object> ids = new ArrayList<>(filas.size() + 1);
+        ids.add(Timestamp.valueOf(LocalDateTime.now()));
+        filas.forEach(fila -> ids.add(fila.id()));
+        jdbcTemplate.update("INSERT INTO reservas_historial (" + COLUMNAS + ", archivado_en) SELECT " + COLUMNAS +
+                ", ? FROM reservas WHERE id IN (" + marcadores + ")", ids.toArray());
+        jdbcTemplate.update("DELETE FROM reservas WHERE id IN (" + marcadores + ")", ids.subList(1, ids.size()).toArray());
+        return filas;
+    }
+
+    private record Archivada(Integer id, Integer canchaId, LocalDate fecha) {
+    }
+}
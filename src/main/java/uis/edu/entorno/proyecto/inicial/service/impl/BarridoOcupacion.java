@@ -0,0 +1,124 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Ocupación máxima simultánea de una cancha dentro de una ventana horaria.
+ * Los tramos [inicio, fin) se recortan a la ventana y se barren ordenando inicios y fines:
+ * dos reservas que no coinciden en el tiempo no suman aunque ambas toquen la ventana.
+ */
+final class BarridoOcupacion {
+
+    private final int desde;
+    private final int hasta;
+    private int[] inicios;
+    private int[] fines;
+    private int tamaño;
+
+    BarridoOcupacion(LocalTime desde, LocalTime hasta, int capacidadInicial) {
+        this(minutos(desde), minutos(hasta), capacidadInicial);
+    }
+
+    BarridoOcupacion(int desde, int hasta, int capacidadInicial) {
+        this.desde = desde;
+        this.hasta = hasta;
+        int capacidad = Math.max(capacidadInicial, 4);
+        this.inicios = new int[capacidad];
+        this.fines = new int[capacidad];
+    }
+
+    void agregar(LocalTime inicio, LocalTime fin) {
+        agregar(minutos(inicio), minutos(fin));
+    }
+
+    // Solo se guarda la parte del tramo que cae dentro de la ventana
+    void agregar(int inicio, int fin) {
+        int recorteInicio = Math.max(inicio, desde);
+        int recorteFin = Math.min(fin, hasta);
+        if (recorteInicio >= recorteFin) {
+            return;
+        }
+        if (tamaño == inicios.length) {
+            inicios = Arrays.copyOf(inicios, tamaño * 2);
+            fines = Arrays.copyOf(fines, tamaño * 2);
+        }
+        inicios[tamaño] = recorteInicio;
+        fines[tamaño] = recorteFin;
+        tamaño++;
+    }
+
+    int pico() {
+        return picoConcurrente(inicios, fines, tamaño);
+    }
+
+    /**
+     * Pico de cada franja [limites[k], limites[k + 1]) en un solo recorrido de los tramos ordenados:
+     * el mismo valor que daría un barrido por franja, con la misma regla de empate.
+     */
+    int[] picosPorFranja(int[] limites) {
+        Arrays.sort(inicios, 0, tamaño);
+        Arrays.sort(fines, 0, tamaño);
+        int[] picos = new int[limites.length - 1];
+        int abiertos = 0;
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < picos.length; k++) {
+            int desdeFranja = limites[k];
+            int hastaFranja = limites[k + 1];
+            // Tramos abiertos justo al empezar la franja
+            while (j < tamaño && fines[j] <= desdeFranja) {
+                abiertos--;
+                j++;
+            }
+            while (i < tamaño && inicios[i] <= desdeFranja) {
+                abiertos++;
+                i++;
+            }
+            int pico = abiertos;
+            // Dentro de la franja, en orden de tiempo y cerrando antes de abrir
+            while (true) {
+                if (j < tamaño && fines[j] < hastaFranja && (i == tamaño || fines[j] <= inicios[i])) {
+                    abiertos--;
+                    j++;
+                } else if (i < tamaño && inicios[i] < hastaFranja) {
+                    abiertos++;
+                    i++;
+                    pico = Math.max(pico, abiertos);
+                } else {
+                    break;
+                }
+            }
+            picos[k] = pico;
+        }
+        return picos;
+    }
+
+    /**
+     * Máximo de tramos abiertos a la vez. Ordena in situ los primeros {@code n} elementos
+     * de ambos arreglos; con empate se cierra antes de abrir (un tramo que termina a las
+     * 18:00 no choca con otro que empieza a las 18:00).
+     */
+    static int picoConcurrente(int[] inicios, int[] fines, int n) {
+        Arrays.sort(inicios, 0, n);
+        Arrays.sort(fines, 0, n);
+        int abiertos = 0;
+        int pico = 0;
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            while (j < n && fines[j] <= inicios[i]) {
+                abiertos--;
+                j++;
+            }
+            abiertos++;
+            if (abiertos > pico) {
+                pico = abiertos;
+            }
+        }
+        return pico;
+    }
+
+    static int minutos(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+}
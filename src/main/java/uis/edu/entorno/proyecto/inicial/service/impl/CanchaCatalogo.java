@@ -0,0 +1,254 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catálogo de canchas en memoria, indexado por id y por deporte.
+ * Al cargarlo se preparan, una sola vez por cancha, las copias con estado ACTIVA e INACTIVA;
+ * cada consulta elige la copia según la hora sin clonar entidades. La vista ordenada
+ * (ACTIVAS primero) se reutiliza hasta la próxima apertura o cierre de alguna cancha.
+ */
+@Component
+public class CanchaCatalogo {
+
+    @Autowired
+    private CanchaRepository canchaRepository;
+
+    private final int maxCanchas;
+    private final long ttlNanos;
+
+    // Se incrementa en cada invalidación; descarta cargas que compitieron con una escritura
+    private final AtomicLong version = new AtomicLong();
+    private volatile Catalogo catalogo;
+
+    public CanchaCatalogo(@Value("${canchas.catalogo.max-canchas:1000}") int maxCanchas,
+                          @Value("${canchas.catalogo.ttl-ms:60000}") long ttlMs) {
+        this.maxCanchas = maxCanchas;
+        this.ttlNanos = ttlMs * 1_000_000L;
+    }
+
+    /**
+     * Vista con el estado en tiempo real de todas las canchas.
+     * @return null si el catálogo supera el máximo configurado; el llamador debe ir a la BD
+     */
+    public Vista vista() {
+        Catalogo actual = obtener();
+        return actual != null ? actual.vista(LocalDateTime.now()) : null;
+    }
+
+    /**
+     * Fin de la vigencia de la vista actual (próxima apertura o cierre). Usa el catálogo en memoria aunque
+     * haya vencido el TTL: su contenido solo cambia con escrituras, que ya invalidan el catálogo.
+     * @return null si el catálogo supera el máximo configurado
+     */
+    public LocalDateTime vigenteHasta() {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            actual = obtener();
+        }
+        return actual != null ? actual.vista(LocalDateTime.now()).hasta : null;
+    }
+
+    public void invalidar() {
+        version.incrementAndGet();
+        catalogo = null;
+    }
+
+    // Misma regla que el horario de atención: abierta entre apertura y cierre, ambos incluidos
+    public static boolean estaAbierta(Cancha cancha, LocalTime hora) {
+        return !hora.isBefore(cancha.getHoraApertura()) && !hora.isAfter(cancha.getHoraCierre());
+    }
+
+    // Normaliza como la collation de MySQL (sin distinguir mayúsculas ni tildes)
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    private Catalogo obtener() {
+        Catalogo actual = catalogo;
+        if (actual != null && System.nanoTime() - actual.cargadoEn < ttlNanos) {
+            return actual;
+        }
+
+        long versionAntes = version.get();
+        List<Cancha> canchas = canchaRepository.findAll();
+        if (canchas.size() > maxCanchas) {
+            return null;
+        }
+        Catalogo cargado = new Catalogo(canchas);
+        // Si hubo escrituras durante la carga se usa una vez pero no se guarda
+        if (version.get() == versionAntes) {
+            catalogo = cargado;
+        }
+        return cargado;
+    }
+
+    static Cancha copiar(Cancha cancha, String estado) {
+        Cancha copia = new Cancha();
+        copia.setId(cancha.getId());
+        copia.setNombre(cancha.getNombre());
+        copia.setDeporte(cancha.getDeporte());
+        copia.setUbicacion(cancha.getUbicacion());
+        copia.setPrecioHora(cancha.getPrecioHora());
+        copia.setCapacidad(cancha.getCapacidad());
+        copia.setHoraApertura(cancha.getHoraApertura());
+        copia.setHoraCierre(cancha.getHoraCierre());
+        copia.setEstado(estado);
+        copia.setCreadoEn(cancha.getCreadoEn());
+        return copia;
+    }
+
+    // Una cancha del catálogo con sus dos presentaciones precalculadas
+    private static final class Entrada {
+        private final Cancha activa;
+        private final Cancha inactiva;
+        private final String estadoGuardado;
+        private final String claveDeporte;
+        private final boolean inactivaAdministrativa;
+
+        Entrada(Cancha cancha) {
+            this.estadoGuardado = cancha.getEstado();
+            this.claveDeporte = normalizar(cancha.getDeporte());
+            // INACTIVA marcada por un administrador no depende del horario
+            this.inactivaAdministrativa = "INACTIVA".equals(cancha.getEstado());
+            this.inactiva = copiar(cancha, "INACTIVA");
+            this.activa = inactivaAdministrativa ? inactiva : copiar(cancha, "ACTIVA");
+        }
+
+        Cancha enVivo(LocalTime hora) {
+            return !inactivaAdministrativa && estaAbierta(activa, hora) ? activa : inactiva;
+        }
+    }
+
+    private static final class Catalogo {
+        private final List<Entrada> entradas;
+        private final long cargadoEn = System.nanoTime();
+        private volatile Vista vista;
+
+        Catalogo(List<Cancha> canchas) {
+            List<Entrada> lista = new ArrayList<>(canchas.size());
+            for (Cancha cancha : canchas) {
+                lista.add(new Entrada(cancha));
+            }
+            this.entradas = lista;
+        }
+
+        Vista vista(LocalDateTime ahora) {
+            Vista actual = vista;
+            if (actual != null && !ahora.isBefore(actual.desde) && ahora.isBefore(actual.hasta)) {
+                return actual;
+            }
+            Vista nueva = new Vista(entradas, ahora);
+            vista = nueva;
+            return nueva;
+        }
+    }
+
+    /**
+     * Estado en tiempo real del catálogo, válido en [desde, hasta). Las listas son inmutables
+     * y compartidas entre peticiones.
+     */
+    public static final class Vista {
+        private final LocalDateTime desde;
+        private final LocalDateTime hasta;
+        private final List<Cancha> ordenadas;
+        private final Map<Integer, Cancha> porId;
+        private final Map<String, List<Cancha>> porDeporte;
+        private final Map<String, List<Cancha>> porEstadoGuardado;
+
+        private Vista(List<Entrada> entradas, LocalDateTime ahora) {
+            LocalTime hora = ahora.toLocalTime();
+            List<Cancha> activas = new ArrayList<>();
+            List<Cancha> inactivas = new ArrayList<>();
+            Map<Integer, Cancha> ids = new HashMap<>();
+            Map<String, List<Cancha>> estados = new HashMap<>();
+            for (Entrada entrada : entradas) {
+                Cancha cancha = entrada.enVivo(hora);
+                ("ACTIVA".equals(cancha.getEstado()) ? activas : inactivas).add(cancha);
+                ids.put(cancha.getId(), cancha);
+                estados.computeIfAbsent(normalizar(entrada.estadoGuardado), k -> new ArrayList<>()).add(cancha);
+            }
+
+            // Primero ACTIVAS, luego INACTIVAS, conservando el orden de la BD dentro de cada grupo
+            List<Cancha> todas = new ArrayList<>(activas.size() + inactivas.size());
+            todas.addAll(activas);
+            todas.addAll(inactivas);
+
+            Map<Integer, String> clavesDeporte = new HashMap<>();
+            for (Entrada entrada : entradas) {
+                clavesDeporte.put(entrada.activa.getId(), entrada.claveDeporte);
+            }
+            Map<String, List<Cancha>> deportes = new LinkedHashMap<>();
+            for (Cancha cancha : todas) {
+                deportes.computeIfAbsent(clavesDeporte.get(cancha.getId()), k -> new ArrayList<>()).add(cancha);
+            }
+            deportes.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            estados.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            this.desde = ahora;
+            this.hasta = proximoCambio(entradas, ahora);
+            this.ordenadas = Collections.unmodifiableList(todas);
+            this.porId = ids;
+            this.porDeporte = deportes;
+            this.porEstadoGuardado = estados;
+        }
+
+        // Próximo instante en que alguna cancha abre o cierra (o la medianoche)
+        private static LocalDateTime proximoCambio(List<Entrada> entradas, LocalDateTime ahora) {
+            LocalDate hoy = ahora.toLocalDate();
+            LocalTime hora = ahora.toLocalTime();
+            LocalDateTime proximo = hoy.plusDays(1).atStartOfDay();
+            for (Entrada entrada : entradas) {
+                if (entrada.inactivaAdministrativa) {
+                    continue;
+                }
+                LocalTime apertura = entrada.activa.getHoraApertura();
+                LocalTime trasCierre = entrada.activa.getHoraCierre().plusNanos(1);
+                if (apertura.isAfter(hora) && hoy.atTime(apertura).isBefore(proximo)) {
+                    proximo = hoy.atTime(apertura);
+                }
+                if (trasCierre.isAfter(hora) && hoy.atTime(trasCierre).isBefore(proximo)) {
+                    proximo = hoy.atTime(trasCierre);
+                }
+            }
+            return proximo;
+        }
+
+        public List<Cancha> todas() {
+            return ordenadas;
+        }
+
+        public Cancha porId(Integer id) {
+            return porId.get(id);
+        }
+
+        public List<Cancha> porDeporte(String deporte) {
+            return porDeporte.getOrDefault(normalizar(deporte), List.of());
+        }
+
+        public List<Cancha> porEstadoGuardado(String estado) {
+            return porEstadoGuardado.getOrDefault(normalizar(estado), List.of());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bloqueos en proceso por (cancha, fecha), repartidos en franjas (lock striping).
+ * Las admisiones sobre el mismo día de cancha se serializan; las de canchas o días
+ * distintos caen, salvo colisión de franja, en bloqueos diferentes y avanzan en paralelo.
+ */
+@Component
+public class CanchaDiaLocks {
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+
+    public CanchaDiaLocks(@Value("${reservas.admision.franjas:256}") int franjas) {
+        int tamaño = Integer.highestOneBit(Math.max(franjas - 1, 1)) << 1;
+        this.franjas = new ReentrantLock[tamaño];
+        for (int i = 0; i < tamaño; i++) {
+            this.franjas[i] = new ReentrantLock();
+        }
+        this.mascara = tamaño - 1;
+    }
+
+    public <T> T ejecutar(Integer canchaId, LocalDate fecha, Supplier<T> accion) {
+        ReentrantLock lock = franjas[indice(canchaId, fecha)];
+        lock.lock();
+        try {
+            return accion.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Varios días de cancha a la vez: las franjas se toman en orden ascendente para no interbloquearse
+    public <T> T ejecutar(Collection<DiaCancha> dias, Supplier<T> accion) {
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (DiaCancha dia : dias) {
+            indices.add(indice(dia.canchaId(), dia.fecha()));
+        }
+        List<ReentrantLock> tomados = new ArrayList<>(indices.size());
+        try {
+            for (Integer i : indices) {
+                franjas[i].lock();
+                tomados.add(franjas[i]);
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados.size() - 1; i >= 0; i--) {
+                tomados.get(i).unlock();
+            }
+        }
+    }
+
+    int indice(Integer canchaId, LocalDate fecha) {
+        long h = canchaId * 0x9E3779B97F4A7C15L + fecha.toEpochDay();
+        h ^= (h >>> 32);
+        h ^= (h >>> 16);
+        return (int) h & mascara;
+    }
+
+    // Un día de una cancha; el orden natural es el que se usa para tomar las filas de bloqueo en la BD
+    public record DiaCancha(Integer canchaId, LocalDate fecha) implements Comparable<DiaCancha> {
+        private static final Comparator<DiaCancha> ORDEN =
+                Comparator.comparing(DiaCancha::canchaId).thenComparing(DiaCancha::fecha);
+
+        @Override
+        public int compareTo(DiaCancha otro) {
+            return ORDEN.compare(this, otro);
+        }
+    }
+}
@@ -3,12 +3,24 @@ package uis.edu.entorno.proyecto.inicial.service.impl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.dto.CanchaLibreResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.DisponibilidadCanchaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
 import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
 import uis.edu.entorno.proyecto.inicial.service.ICanchaService;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos.Recurso;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -18,8 +30,25 @@ public class CanchaServiceImpl implements ICanchaService {
     @Autowired
     private CanchaRepository canchaRepository;
 
+    @Autowired
+    private CanchaCatalogo canchaCatalogo;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    private static final int MINUTOS_FRANJA = 30;
+    private static final int MAXIMO_DIAS_DISPONIBILIDAD = 31;
+
     @Override
     public List<Cancha> findAll() {
+        CanchaCatalogo.Vista vista = canchaCatalogo.vista();
+        if (vista != null) {
+            return vista.todas();
+        }
+
         List<Cancha> canchas = canchaRepository.findAll();
 
         // Actualizar estado en tiempo real basado en horario de atención
@@ -46,12 +75,22 @@ public class CanchaServiceImpl implements ICanchaService {
 
     @Override
     public Optional<Cancha> findById(Integer id) {
+        CanchaCatalogo.Vista vista = canchaCatalogo.vista();
+        if (vista != null) {
+            return Optional.ofNullable(vista.porId(id));
+        }
+
         Optional<Cancha> canchaOpt = canchaRepository.findById(id);
         return canchaOpt.map(this::actualizarEstadoEnTiempoReal);
     }
 
     @Override
     public List<Cancha> findByDeporte(String deporte) {
+        CanchaCatalogo.Vista vista = canchaCatalogo.vista();
+        if (vista != null) {
+            return vista.porDeporte(deporte);
+        }
+
         List<Cancha> canchas = canchaRepository.findByDeporte(deporte);
         List<Cancha> canchasActualizadas = canchas.stream()
                 .map(this::actualizarEstadoEnTiempoReal)
@@ -74,6 +113,11 @@ public class CanchaServiceImpl implements ICanchaService {
     @Override
     public List<Cancha> findByEstado(String estado) {
         // Para búsquedas por estado, también aplicamos la lógica de tiempo real
+        CanchaCatalogo.Vista vista = canchaCatalogo.vista();
+        if (vista != null) {
+            return vista.porEstadoGuardado(estado);
+        }
+
         List<Cancha> canchas = canchaRepository.findByEstado(estado);
         return canchas.stream()
                 .map(this::actualizarEstadoEnTiempoReal)
@@ -117,7 +161,10 @@ public class CanchaServiceImpl implements ICanchaService {
 
             // Establecer estado inicial basado en horario
             cancha.setEstado(determinarEstadoCancha(cancha));
-            return canchaRepository.save(cancha);
+            Cancha guardada = canchaRepository.save(cancha);
+            canchaCatalogo.invalidar();
+            versionesDatos.cambio(Recurso.CANCHAS);
+            return guardada;
         } catch (RuntimeException e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -133,44 +180,171 @@ public class CanchaServiceImpl implements ICanchaService {
 
         // Actualizar estado basado en horario
         cancha.setEstado(determinarEstadoCancha(cancha));
-        return canchaRepository.save(cancha);
+        Cancha actualizada = canchaRepository.save(cancha);
+        canchaCatalogo.invalidar();
+        versionesDatos.cambio(Recurso.CANCHAS);
+        return actualizada;
     }
 
     @Override
     public void delete(Integer id) {
         canchaRepository.deleteById(id);
+        canchaCatalogo.invalidar();
+        versionesDatos.cambio(Recurso.CANCHAS);
     }
 
+    @Override
+    public DisponibilidadCanchaResponse getDisponibilidad(Integer id, LocalDate desde, LocalDate hasta) {
+        Cancha cancha = findById(id).orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
+        return calcularDisponibilidad(List.of(cancha), desde, hasta).get(0);
+    }
+
+    @Override
+    public List<DisponibilidadCanchaResponse> getDisponibilidadPorDeporte(String deporte, LocalDate desde, LocalDate hasta) {
+        return calcularDisponibilidad(findByDeporte(deporte), desde, hasta);
+    }
+
+    @Override
+    public List<CanchaLibreResponse> buscarLibres(String deporte, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+                                                  Double precioMaximo, Integer capacidadMinima, String orden) {
+        if (!horaInicio.isBefore(horaFin)) {
+            throw new RuntimeException("❌ La hora de inicio debe ser anterior a la hora de fin.");
+        }
+
+        // Filtro en memoria sobre el catálogo: horario que cubra la franja, precio y capacidad
+        Map<Integer, Cancha> candidatas = new LinkedHashMap<>();
+        for (Cancha cancha : findByDeporte(deporte)) {
+            boolean cubreFranja = !horaInicio.isBefore(cancha.getHoraApertura()) && !horaFin.isAfter(cancha.getHoraCierre());
+            boolean dentroDePrecio = precioMaximo == null || cancha.getPrecioHora() <= precioMaximo;
+            boolean capacidadSuficiente = capacidadMinima == null || cancha.getCapacidad() >= capacidadMinima;
+            if (cubreFranja && dentroDePrecio && capacidadSuficiente) {
+                candidatas.put(cancha.getId(), cancha);
+            }
+        }
+        if (candidatas.isEmpty()) {
+            return List.of();
+        }
+
+        // Una sola consulta con los tramos de todas las candidatas; el pico simultáneo se barre por cancha,
+        // como en la admisión: dos reservas de la franja que no coinciden en el tiempo no suman
+        Map<Integer, BarridoOcupacion> ocupacion = new HashMap<>();
+        for (TramoReserva tramo : reservaRepository.findTramosOcupadosEnFranja(candidatas.keySet(), fecha, horaInicio, horaFin)) {
+            ocupacion.computeIfAbsent(tramo.getCanchaId(), id -> new BarridoOcupacion(horaInicio, horaFin, 4))
+                    .agregar(tramo.getHoraInicio(), tramo.getHoraFin());
+        }
+
+        List<CanchaLibreResponse> libres = new ArrayList<>();
+        for (Cancha cancha : candidatas.values()) {
+            BarridoOcupacion barrido = ocupacion.get(cancha.getId());
+            int reservas = barrido != null ? barrido.pico() : 0;
+            int cupos = cancha.getCapacidad() - reservas;
+            if (cupos > 0) {
+                libres.add(new CanchaLibreResponse(cancha.getId(), cancha.getNombre(), cancha.getDeporte(),
+                        cancha.getUbicacion(), cancha.getPrecioHora(), cancha.getCapacidad(), reservas, cupos));
+            }
+        }
+
+        Comparator<CanchaLibreResponse> porCupos = Comparator.comparingInt(CanchaLibreResponse::getCuposDisponibles).reversed();
+        Comparator<CanchaLibreResponse> porPrecio = Comparator.comparing(CanchaLibreResponse::getPrecioHora);
+        Comparator<CanchaLibreResponse> criterio = "precio".equalsIgnoreCase(orden)
+                ? porPrecio.thenComparing(porCupos)
+                : porCupos.thenComparing(porPrecio);
+        libres.sort(criterio.thenComparing(CanchaLibreResponse::getCanchaId));
+        return libres;
+    }
+
+    /**
+     * Rejilla de cupos por franja de 30 minutos desde la apertura hasta el cierre de cada cancha.
+     * Las reservas de todas las canchas y días se leen en una sola consulta y cada día se barre una vez:
+     * la ocupación de una franja es el máximo de reservas simultáneas dentro de ella, como en la admisión,
+     * la búsqueda y los eventos (18:00–18:15 y 18:15–18:30 ocupan un cupo de la franja de las 18:00, no dos).
+     */
+    private List<DisponibilidadCanchaResponse> calcularDisponibilidad(List<Cancha> canchas, LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new RuntimeException("❌ La fecha final no puede ser anterior a la inicial.");
+        }
+        int numeroDias = (int) ChronoUnit.DAYS.between(desde, hasta) + 1;
+        if (numeroDias > MAXIMO_DIAS_DISPONIBILIDAD) {
+            throw new RuntimeException("❌ El rango máximo de disponibilidad es de " + MAXIMO_DIAS_DISPONIBILIDAD + " días.");
+        }
+        if (canchas.isEmpty()) {
+            return List.of();
+        }
+
+        // Barrido por (cancha, día) sobre el horario de atención; null si el día no tiene reservas
+        Map<Integer, Cancha> porId = new HashMap<>();
+        Map<Integer, BarridoOcupacion[]> barridos = new HashMap<>();
+        for (Cancha cancha : canchas) {
+            porId.put(cancha.getId(), cancha);
+            barridos.put(cancha.getId(), new BarridoOcupacion[numeroDias]);
+        }
+
+        for (TramoReserva tramo : reservaRepository.findTramosOcupadosEnRango(porId.keySet(), desde, hasta)) {
+            Cancha cancha = porId.get(tramo.getCanchaId());
+            BarridoOcupacion[] dias = barridos.get(cancha.getId());
+            int d = (int) ChronoUnit.DAYS.between(desde, tramo.getFecha());
+            if (dias[d] == null) {
+                dias[d] = new BarridoOcupacion(cancha.getHoraApertura(), cancha.getHoraCierre(), 4);
+            }
+            dias[d].agregar(tramo.getHoraInicio(), tramo.getHoraFin());
+        }
+
+        List<DisponibilidadCanchaResponse> resultado = new ArrayList<>(canchas.size());
+        for (Cancha cancha : canchas) {
+            DisponibilidadCanchaResponse disponibilidad =
+                    new DisponibilidadCanchaResponse(cancha.getId(), cancha.getNombre(), cancha.getCapacidad());
+            BarridoOcupacion[] dias = barridos.get(cancha.getId());
+            int franjas = numeroFranjas(cancha);
+            int[] limites = new int[franjas + 1];
+            for (int i = 0; i < franjas; i++) {
+                limites[i] = minutos(cancha.getHoraApertura()) + i * MINUTOS_FRANJA;
+            }
+            limites[franjas] = minutos(cancha.getHoraCierre());
+            int[] sinReservas = new int[franjas];
+            for (int d = 0; d < numeroDias; d++) {
+                DisponibilidadCanchaResponse.Dia dia = new DisponibilidadCanchaResponse.Dia(desde.plusDays(d));
+                int[] picos = dias[d] != null ? dias[d].picosPorFranja(limites) : sinReservas;
+                for (int i = 0; i < franjas; i++) {
+                    int ocupadas = picos[i];
+                    LocalTime inicio = cancha.getHoraApertura().plusMinutes((long) i * MINUTOS_FRANJA);
+                    LocalTime fin = i == franjas - 1 ? cancha.getHoraCierre() : inicio.plusMinutes(MINUTOS_FRANJA);
+                    dia.getFranjas().add(new DisponibilidadCanchaResponse.Franja(inicio, fin, ocupadas,
+                            Math.max(0, cancha.getCapacidad() - ocupadas)));
+                }
+                disponibilidad.getDias().add(dia);
+            }
+            resultado.add(disponibilidad);
+        }
+        return resultado;
+    }
+
+    // Franjas entre apertura y cierre; la última puede ser más corta si el cierre no cae en múltiplo de 30
+    private static int numeroFranjas(Cancha cancha) {
+        int duracion = minutos(cancha.getHoraCierre()) - minutos(cancha.getHoraApertura());
+        return Math.max(0, (duracion + MINUTOS_FRANJA - 1) / MINUTOS_FRANJA);
+    }
+
+    private static int minutos(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    // Solo para catálogos que exceden el límite de CanchaCatalogo
     private Cancha actualizarEstadoEnTiempoReal(Cancha cancha) {
+        return actualizarEstadoEnTiempoReal(cancha, LocalTime.now());
+    }
+
+    // Copia con el estado según la hora, para no modificar la entidad persistida
+    static Cancha actualizarEstadoEnTiempoReal(Cancha cancha, LocalTime hora) {
         // Si la cancha está marcada como INACTIVA administrativamente, mantener ese estado
         if ("INACTIVA".equals(cancha.getEstado())) {
             return cancha;
         }
-
-        // Determinar estado basado en horario actual
-        String estadoReal = determinarEstadoCancha(cancha);
-
-        // Crear una copia para no modificar la entidad persistida
-        Cancha canchaConEstadoReal = new Cancha();
-        canchaConEstadoReal.setId(cancha.getId());
-        canchaConEstadoReal.setNombre(cancha.getNombre());
-        canchaConEstadoReal.setDeporte(cancha.getDeporte());
-        canchaConEstadoReal.setUbicacion(cancha.getUbicacion());
-        canchaConEstadoReal.setPrecioHora(cancha.getPrecioHora());
-        canchaConEstadoReal.setCapacidad(cancha.getCapacidad());
-        canchaConEstadoReal.setHoraApertura(cancha.getHoraApertura());
-        canchaConEstadoReal.setHoraCierre(cancha.getHoraCierre());
-        canchaConEstadoReal.setEstado(estadoReal); // Estado en tiempo real
-        canchaConEstadoReal.setCreadoEn(cancha.getCreadoEn());
-
-        return canchaConEstadoReal;
+        return CanchaCatalogo.copiar(cancha, CanchaCatalogo.estaAbierta(cancha, hora) ? "ACTIVA" : "INACTIVA");
     }
 
     private String determinarEstadoCancha(Cancha cancha) {
-        LocalTime ahora = LocalTime.now();
-
         // Verificar si está en horario de atención
-        if (!ahora.isBefore(cancha.getHoraApertura()) && !ahora.isAfter(cancha.getHoraCierre())) {
+        if (CanchaCatalogo.estaAbierta(cancha, LocalTime.now())) {
             return "ACTIVA";
         } else {
             return "INACTIVA";
@@ -0,0 +1,360 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.dto.DisponibilidadCanchaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.service.impl.CanchaDiaLocks.DiaCancha;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eventos SSE con los cupos libres de una cancha cuando cambian sus reservas.
+ * Las conexiones quedan en modo asíncrono del servlet, sin hilo propio: un único hilo despachador
+ * toma los cambios confirmados de una cola, los agrupa por (cancha, fecha), calcula los cupos de las
+ * franjas afectadas con el índice de ocupación y deja el evento en el búfer de cada suscriptor de esa
+ * cancha. Un pool pequeño de hilos escritores vacía los búferes, así un cliente lento no frena al
+ * despachador ni a los demás: si su búfer se llena o una escritura tarda más que timeout-escritura-ms
+ * se le cierra la conexión (EventSource se reconecta y recibe los cupos nuevos).
+ * Cuando no hay cambios, el despachador encola un latido periódico para que proxies y navegadores
+ * no cierren la conexión por inactividad.
+ */
+@Component
+public class EventosDisponibilidad {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosDisponibilidad.class);
+
+    public static final String EVENTO = "disponibilidad";
+    private static final int MINUTOS_FRANJA = 30;
+
+    @Autowired
+    private OcupacionIndex ocupacionIndex;
+
+    @Autowired
+    private CanchaCatalogo canchaCatalogo;
+
+    @Autowired
+    private CanchaRepository canchaRepository;
+
+    private final long timeoutMs;
+    private final long latidoNanos;
+    private final int maxSuscriptores;
+    private final int eventosEnBufer;
+    private final int hilosEscritura;
+    private final long timeoutEscrituraNanos;
+
+    private final Map<Integer, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final AtomicInteger totalSuscriptores = new AtomicInteger();
+    private final LinkedBlockingQueue<Cambio> cambios = new LinkedBlockingQueue<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private Thread despachador;
+    private ExecutorService escritores;
+
+    record Cambio(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {}
+
+    /**
+     * Conexión abierta con su búfer de eventos pendientes. escribiendo marca que un hilo escritor
+     * la está vaciando (como mucho uno a la vez, para conservar el orden).
+     */
+    private static final class Suscriptor {
+        final Integer canchaId;
+        final SseEmitter emisor;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> pendientes;
+        final AtomicBoolean escribiendo = new AtomicBoolean();
+        volatile boolean descartado;
+        // System.nanoTime() al empezar la escritura en curso; 0 sin escritura
+        volatile long escribiendoDesde;
+
+        Suscriptor(Integer canchaId, SseEmitter emisor, int eventosEnBufer) {
+            this.canchaId = canchaId;
+            this.emisor = emisor;
+            this.pendientes = new ArrayBlockingQueue<>(eventosEnBufer);
+        }
+    }
+
+    public EventosDisponibilidad(@Value("${reservas.eventos.timeout-ms:1800000}") long timeoutMs,
+                                 @Value("${reservas.eventos.latido-ms:25000}") long latidoMs,
+                                 @Value("${reservas.eventos.max-suscriptores:5000}") int maxSuscriptores,
+                                 @Value("${reservas.eventos.eventos-en-bufer:16}") int eventosEnBufer,
+                                 @Value("${reservas.eventos.hilos-escritura:4}") int hilosEscritura,
+                                 @Value("${reservas.eventos.timeout-escritura-ms:10000}") long timeoutEscrituraMs) {
+        this.timeoutMs = timeoutMs;
+        this.latidoNanos = TimeUnit.MILLISECONDS.toNanos(latidoMs);
+        this.maxSuscriptores = maxSuscriptores;
+        this.eventosEnBufer = eventosEnBufer;
+        this.hilosEscritura = hilosEscritura;
+        this.timeoutEscrituraNanos = TimeUnit.MILLISECONDS.toNanos(timeoutEscrituraMs);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger numero = new AtomicInteger();
+        escritores = Executors.newFixedThreadPool(hilosEscritura, tarea -> {
+            Thread hilo = new Thread(tarea, "eventos-escritura-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        despachador = new Thread(this::despachar, "eventos-disponibilidad");
+        despachador.setDaemon(true);
+        despachador.start();
+    }
+
+    @PreDestroy
+    void detener() {
+        despachador.interrupt();
+        escritores.shutdownNow();
+        suscriptores.values().forEach(actuales -> actuales.forEach(suscriptor -> suscriptor.emisor.complete()));
+        suscriptores.clear();
+    }
+
+    /**
+     * Abre una suscripción a los cambios de una cancha. Al vencer el timeout el navegador
+     * (EventSource) se reconecta solo.
+     * @return null si se alcanzó el máximo de conexiones abiertas; si el primer envío falla,
+     * el emisor vuelve ya completado con el error y sin registrar
+     */
+    public SseEmitter suscribir(Integer canchaId) {
+        if (totalSuscriptores.incrementAndGet() > maxSuscriptores) {
+            totalSuscriptores.decrementAndGet();
+            return null;
+        }
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        try {
+            // Envía las cabeceras de inmediato; el cliente sabe que la conexión quedó abierta
+            emisor.send(SseEmitter.event().comment("suscrito a la cancha " + canchaId));
+        } catch (IOException e) {
+            totalSuscriptores.decrementAndGet();
+            emisor.completeWithError(e);
+            return emisor;
+        }
+        Suscriptor suscriptor = new Suscriptor(canchaId, emisor, eventosEnBufer);
+        // Altas y bajas dentro del compute del mapa: una baja que vacía el conjunto no pierde un alta simultánea
+        suscriptores.compute(canchaId, (id, actuales) -> {
+            Set<Suscriptor> conjunto = actuales != null ? actuales : ConcurrentHashMap.newKeySet();
+            conjunto.add(suscriptor);
+            return conjunto;
+        });
+        emisor.onCompletion(() -> quitar(suscriptor));
+        emisor.onTimeout(() -> quitar(suscriptor));
+        emisor.onError(e -> quitar(suscriptor));
+        return emisor;
+    }
+
+    public int getSuscriptores() {
+        return totalSuscriptores.get();
+    }
+
+    /**
+     * Avisa que cambió la ocupación de un tramo. Sin suscriptores de la cancha no hace nada;
+     * dentro de una transacción se encola después del commit.
+     */
+    public void publicar(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        if (!suscriptores.containsKey(canchaId)) {
+            return;
+        }
+        Cambio cambio = new Cambio(canchaId, fecha, horaInicio, horaFin);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambios.add(cambio);
+                }
+            });
+        } else {
+            cambios.add(cambio);
+        }
+    }
+
+    public void publicar(TramoReserva tramo) {
+        publicar(tramo.getCanchaId(), tramo.getFecha(), tramo.getHoraInicio(), tramo.getHoraFin());
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        suscriptores.computeIfPresent(suscriptor.canchaId, (id, actuales) -> {
+            if (actuales.remove(suscriptor)) {
+                totalSuscriptores.decrementAndGet();
+            }
+            return actuales.isEmpty() ? null : actuales;
+        });
+    }
+
+    private void despachar() {
+        long proximoLatido = System.nanoTime() + latidoNanos;
+        List<Cambio> lote = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Cambio primero = cambios.poll(Math.max(0, proximoLatido - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (primero != null) {
+                    lote.add(primero);
+                    cambios.drainTo(lote);
+                    notificar(lote);
+                    lote.clear();
+                }
+                if (System.nanoTime() - proximoLatido >= 0) {
+                    latido();
+                    proximoLatido = System.nanoTime() + latidoNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                lote.clear();
+                log.warn("Error al despachar eventos de disponibilidad", e);
+            }
+        }
+    }
+
+    // Una ráfaga de cambios del mismo día de una cancha produce un solo evento con el rango que los cubre
+    void notificar(List<Cambio> lote) {
+        Map<DiaCancha, LocalTime[]> rangos = new LinkedHashMap<>();
+        for (Cambio cambio : lote) {
+            rangos.merge(new DiaCancha(cambio.canchaId(), cambio.fecha()),
+                    new LocalTime[]{cambio.horaInicio(), cambio.horaFin()},
+                    (actual, nuevo) -> new LocalTime[]{
+                            nuevo[0].isBefore(actual[0]) ? nuevo[0] : actual[0],
+                            nuevo[1].isAfter(actual[1]) ? nuevo[1] : actual[1]});
+        }
+        rangos.forEach((dia, rango) -> {
+            Set<Suscriptor> conjunto = suscriptores.get(dia.canchaId());
+            if (conjunto == null || conjunto.isEmpty()) {
+                return;
+            }
+            Cancha cancha = buscarCancha(dia.canchaId());
+            if (cancha == null) {
+                return;
+            }
+            DisponibilidadCanchaResponse disponibilidad = cuposLibres(cancha, dia.fecha(), rango[0], rango[1]);
+            SseEmitter.SseEventBuilder evento = SseEmitter.event()
+                    .id(Long.toString(secuencia.incrementAndGet()))
+                    .name(EVENTO)
+                    .data(disponibilidad, MediaType.APPLICATION_JSON);
+            enviar(conjunto, evento);
+        });
+    }
+
+    private void latido() {
+        suscriptores.values().forEach(conjunto -> enviar(conjunto, SseEmitter.event().comment("latido")));
+    }
+
+    // El evento se arma una vez: build() agrega el fin de evento en cada llamada y no es seguro entre hilos
+    private void enviar(Set<Suscriptor> conjunto, SseEmitter.SseEventBuilder evento) {
+        Set<DataWithMediaType> datos = evento.build();
+        for (Suscriptor suscriptor : conjunto) {
+            encolar(suscriptor, datos);
+        }
+    }
+
+    // Sin lugar en el búfer, o con una escritura colgada, el cliente no está leyendo al ritmo de los cambios
+    private void encolar(Suscriptor suscriptor, Set<DataWithMediaType> datos) {
+        long desde = suscriptor.escribiendoDesde;
+        if ((desde != 0 && System.nanoTime() - desde > timeoutEscrituraNanos) || !suscriptor.pendientes.offer(datos)) {
+            descartar(suscriptor);
+            return;
+        }
+        if (suscriptor.escribiendo.compareAndSet(false, true)) {
+            escritores.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    /**
+     * Escribe los pendientes de un suscriptor en orden. Al quedar vacío suelta la marca y la vuelve a tomar
+     * si entró un evento o un descarte entre el último poll y la liberación, para no dejarlo sin escritor.
+     */
+    private void vaciar(Suscriptor suscriptor) {
+        do {
+            Set<DataWithMediaType> datos;
+            while (!suscriptor.descartado && (datos = suscriptor.pendientes.poll()) != null) {
+                suscriptor.escribiendoDesde = System.nanoTime();
+                try {
+                    suscriptor.emisor.send(datos);
+                } catch (IOException | IllegalStateException e) {
+                    // Un fallo de escritura es un cliente desconectado: se descarta sin afectar al resto
+                    suscriptor.descartado = true;
+                    quitar(suscriptor);
+                } finally {
+                    suscriptor.escribiendoDesde = 0;
+                }
+            }
+            if (suscriptor.descartado) {
+                // Descartado durante la escritura: el cierre se hace aquí, ya sin envío en curso
+                suscriptor.emisor.complete();
+                return;
+            }
+            suscriptor.escribiendo.set(false);
+        } while ((suscriptor.descartado || !suscriptor.pendientes.isEmpty())
+                && suscriptor.escribiendo.compareAndSet(false, true));
+    }
+
+    /**
+     * Cierra la conexión de un suscriptor rezagado. complete() espera a que termine el envío en curso,
+     * así que con un escritor activo el cierre queda a cargo de ese escritor cuando el envío vuelva.
+     */
+    private void descartar(Suscriptor suscriptor) {
+        suscriptor.descartado = true;
+        quitar(suscriptor);
+        suscriptor.pendientes.clear();
+        if (suscriptor.escribiendo.compareAndSet(false, true)) {
+            suscriptor.emisor.complete();
+        }
+    }
+
+    private Cancha buscarCancha(Integer canchaId) {
+        CanchaCatalogo.Vista vista = canchaCatalogo.vista();
+        if (vista != null) {
+            return vista.porId(canchaId);
+        }
+        return canchaRepository.findById(canchaId).orElse(null);
+    }
+
+    /**
+     * Franjas de 30 minutos desde la apertura (como en la disponibilidad de canchas) que tocan
+     * [horaInicio, horaFin), con las reservas simultáneas máximas de cada una según el índice.
+     */
+    private DisponibilidadCanchaResponse cuposLibres(Cancha cancha, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        DisponibilidadCanchaResponse disponibilidad =
+                new DisponibilidadCanchaResponse(cancha.getId(), cancha.getNombre(), cancha.getCapacidad());
+        DisponibilidadCanchaResponse.Dia dia = new DisponibilidadCanchaResponse.Dia(fecha);
+        LocalTime cierre = cancha.getHoraCierre();
+        LocalTime inicio = cancha.getHoraApertura();
+        while (inicio.isBefore(cierre) && inicio.isBefore(horaFin)) {
+            LocalTime siguiente = inicio.plusMinutes(MINUTOS_FRANJA);
+            // La última franja termina en el cierre aunque no caiga en múltiplo de 30
+            LocalTime fin = siguiente.isAfter(cierre) || siguiente.isBefore(inicio) ? cierre : siguiente;
+            if (fin.isAfter(horaInicio)) {
+                int ocupadas = ocupacionIndex.picoConcurrente(cancha.getId(), fecha, inicio, fin, null);
+                dia.getFranjas().add(new DisponibilidadCanchaResponse.Franja(inicio, fin, ocupadas,
+                        Math.max(0, cancha.getCapacidad() - ocupadas)));
+            }
+            inicio = fin;
+        }
+        disponibilidad.getDias().add(dia);
+        return disponibilidad;
+    }
+}
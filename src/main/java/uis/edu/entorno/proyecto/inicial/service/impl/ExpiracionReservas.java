@@ -0,0 +1,92 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.model.dto.VencimientoReserva;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos.Recurso;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Programador de expiración de reservas.
+ * Mantiene ordenados los vencimientos (fecha + hora de fin) de las reservas activas
+ * y solo ejecuta el UPDATE masivo ACTIVA -> FINALIZADA cuando el más próximo ya pasó.
+ */
+@Component
+public class ExpiracionReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiracionReservas.class);
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    private final ConcurrentSkipListSet<LocalDateTime> vencimientos = new ConcurrentSkipListSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        ponerAlDia();
+    }
+
+    // Registra el vencimiento de una reserva activa creada o modificada
+    public void programar(LocalDate fecha, LocalTime horaFin) {
+        vencimientos.add(fecha.atTime(horaFin));
+    }
+
+    @Scheduled(fixedDelayString = "${reservas.expiracion.intervalo-ms:15000}")
+    public void procesarVencimientos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime proximo = vencimientos.isEmpty() ? null : vencimientos.first();
+        if (proximo == null || !proximo.isBefore(ahora)) {
+            return;
+        }
+
+        int finalizadas = reservaRepository.finalizarVencidas(ahora.toLocalDate(), ahora.toLocalTime());
+        vencimientos.headSet(ahora).clear();
+        if (finalizadas > 0) {
+            versionesDatos.cambio(Recurso.RESERVAS);
+            log.debug("Reservas finalizadas automáticamente: {}", finalizadas);
+        }
+    }
+
+    // Otros nodos pueden haber creado reservas que este no conoce: se resiembra periódicamente
+    @Scheduled(fixedDelayString = "${reservas.expiracion.resincronizar-ms:3600000}",
+            initialDelayString = "${reservas.expiracion.resincronizar-ms:3600000}")
+    public void resincronizar() {
+        sembrar();
+    }
+
+    /**
+     * Puesta al día forzada: corrige en bloque los estados según la hora actual
+     * y vuelve a sembrar los vencimientos desde la BD.
+     * @return número de reservas cuyo estado cambió
+     */
+    public int ponerAlDia() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int cambios = reservaRepository.finalizarVencidas(ahora.toLocalDate(), ahora.toLocalTime());
+        cambios += reservaRepository.reactivarNoVencidas(ahora.toLocalDate(), ahora.toLocalTime());
+        if (cambios > 0) {
+            versionesDatos.cambio(Recurso.RESERVAS);
+        }
+        sembrar();
+        return cambios;
+    }
+
+    private void sembrar() {
+        vencimientos.clear();
+        for (VencimientoReserva vencimiento : reservaRepository.findVencimientosActivos()) {
+            programar(vencimiento.getFecha(), vencimiento.getHoraFin());
+        }
+    }
+}
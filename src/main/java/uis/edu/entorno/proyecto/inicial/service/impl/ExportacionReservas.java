@@ -0,0 +1,223 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.model.dto.FormatoExportacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaExportacion;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaHistorialRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Escribe reservas en CSV o NDJSON directo sobre la salida de la respuesta, fila por fila,
+ * desde un Stream del repositorio. La memoria no depende del número de filas:
+ * solo vive la fila que trae el driver y el búfer de escritura.
+ */
+@Component
+public class ExportacionReservas {
+
+    private static final String ENCABEZADO_CSV = "id,usuario_id,nombre_usuario,cancha_id,nombre_cancha,precio_hora," +
+            "fecha,hora_inicio,hora_fin,estado,serie_id,creado_en";
+    // Mismos formatos que el NDJSON (@JsonFormat de ReservaExportacion)
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    // Orden de ambas consultas (ORDER BY r.fecha, r.horaInicio, r.id)
+    private static final Comparator<ReservaExportacion> ORDEN = Comparator
+            .comparing(ReservaExportacion::getFecha)
+            .thenComparing(ReservaExportacion::getHoraInicio)
+            .thenComparing(ReservaExportacion::getId);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ArchivoReservas archivoReservas;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Integer.MIN_VALUE (por defecto): MySQL Connector/J entrega el resultado fila por fila en vez de cargarlo
+    // entero. Otros drivers (H2 en las pruebas) rechazan valores negativos y necesitan un lote positivo
+    @Value("${reservas.exportacion.fetch-size:#{T(java.lang.Integer).MIN_VALUE}}")
+    private int fetchSize;
+
+    private final TransactionTemplate lectura;
+    // El historial se lee en su propia transacción: otra conexión, porque cada una admite un solo flujo abierto
+    private final TransactionTemplate lecturaAparte;
+
+    public ExportacionReservas(PlatformTransactionManager transactionManager) {
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lecturaAparte = new TransactionTemplate(transactionManager);
+        this.lecturaAparte.setReadOnly(true);
+        this.lecturaAparte.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Los Stream del repositorio necesitan la transacción abierta mientras se recorren. Si el rango llega
+    // al historial se intercalan las dos consultas ya ordenadas, sin juntar filas en memoria
+    public long escribir(FormatoExportacion formato, LocalDate desde, LocalDate hasta, Integer canchaId, OutputStream salida) {
+        boolean conHistorial = archivoReservas.alcanzaHistorial(desde);
+        Long filas = lectura.execute(status -> {
+            try (Stream<ReservaExportacion> reservas = flujo(ReservaRepository.SELECT_EXPORTACION, desde, hasta, canchaId)) {
+                if (!conHistorial) {
+                    return escribir(formato, reservas.iterator(), salida);
+                }
+                return lecturaAparte.execute(aparte -> {
+                    try (Stream<ReservaExportacion> archivadas =
+                                 flujo(ReservaHistorialRepository.SELECT_EXPORTACION, desde, hasta, canchaId)) {
+                        return escribir(formato, new Intercalado(archivadas.iterator(), reservas.iterator()), salida);
+                    }
+                });
+            }
+        });
+        return filas != null ? filas : 0;
+    }
+
+    // Mientras el flujo esté abierto su conexión no admite otra consulta
+    private Stream<ReservaExportacion> flujo(String select, LocalDate desde, LocalDate hasta, Integer canchaId) {
+        return entityManager.createQuery(select + ReservaRepository.FILTRO_EXPORTACION, ReservaExportacion.class)
+                .setParameter(1, desde)
+                .setParameter(2, hasta)
+                .setParameter(3, canchaId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private long escribir(FormatoExportacion formato, Iterator<ReservaExportacion> reservas, OutputStream salida) {
+        try {
+            return formato == FormatoExportacion.CSV ? escribirCsv(reservas, salida) : escribirNdjson(reservas, salida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long escribirCsv(Iterator<ReservaExportacion> reservas, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(ENCABEZADO_CSV);
+        writer.write('\n');
+        long filas = 0;
+        StringBuilder linea = new StringBuilder(160);
+        while (reservas.hasNext()) {
+            ReservaExportacion r = reservas.next();
+            linea.setLength(0);
+            linea.append(r.getId()).append(',')
+                    .append(r.getUsuarioId()).append(',');
+            campoCsv(linea, r.getNombreUsuario()).append(',')
+                    .append(r.getCanchaId()).append(',');
+            campoCsv(linea, r.getNombreCancha()).append(',')
+                    .append(valor(r.getPrecioHora())).append(',')
+                    .append(r.getFecha()).append(',')
+                    .append(HORA.format(r.getHoraInicio())).append(',')
+                    .append(HORA.format(r.getHoraFin())).append(',')
+                    .append(r.getEstado()).append(',')
+                    .append(valor(r.getSerieId())).append(',')
+                    .append(r.getCreadoEn() != null ? FECHA_HORA.format(r.getCreadoEn()) : "").append('\n');
+            writer.append(linea);
+            filas++;
+        }
+        writer.flush();
+        return filas;
+    }
+
+    private long escribirNdjson(Iterator<ReservaExportacion> reservas, OutputStream salida) throws IOException {
+        // Sin flush por fila: el generador y el contenedor ya trabajan con búfer
+        ObjectWriter fila = objectMapper.writerFor(ReservaExportacion.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long filas = 0;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            // La salida es de la respuesta: la cierra el contenedor, no el generador
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (reservas.hasNext()) {
+                fila.writeValue(generador, reservas.next());
+                generador.writeRaw('\n');
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    // Comillas solo cuando hacen falta (coma, comillas o salto de línea), duplicando las comillas internas
+    private static StringBuilder campoCsv(StringBuilder linea, String texto) {
+        if (texto == null) {
+            return linea;
+        }
+        boolean comillas = texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        if (!comillas) {
+            return linea.append(texto);
+        }
+        linea.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                linea.append('"');
+            }
+            linea.append(c);
+        }
+        return linea.append('"');
+    }
+
+    private static String valor(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    // Mezcla de dos iteradores ordenados por ORDEN, adelantando una fila de cada uno
+    static final class Intercalado implements Iterator<ReservaExportacion> {
+        private final Iterator<ReservaExportacion> a;
+        private final Iterator<ReservaExportacion> b;
+        private ReservaExportacion siguienteA;
+        private ReservaExportacion siguienteB;
+
+        Intercalado(Iterator<ReservaExportacion> a, Iterator<ReservaExportacion> b) {
+            this.a = a;
+            this.b = b;
+            this.siguienteA = a.hasNext() ? a.next() : null;
+            this.siguienteB = b.hasNext() ? b.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguienteA != null || siguienteB != null;
+        }
+
+        @Override
+        public ReservaExportacion next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ReservaExportacion fila;
+            if (siguienteB == null || (siguienteA != null && ORDEN.compare(siguienteA, siguienteB) <= 0)) {
+                fila = siguienteA;
+                siguienteA = a.hasNext() ? a.next() : null;
+            } else {
+                fila = siguienteB;
+                siguienteB = b.hasNext() ? b.next() : null;
+            }
+            return fila;
+        }
+    }
+}
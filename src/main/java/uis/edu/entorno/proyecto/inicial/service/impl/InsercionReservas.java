@@ -0,0 +1,62 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * INSERT de varias reservas en un único batch JDBC (con rewriteBatchedStatements el driver de
+ * MySQL lo envía como un solo INSERT multi-fila). Se ejecuta dentro de la transacción en curso
+ * y asigna a cada Reserva el id generado.
+ */
+@Component
+public class InsercionReservas {
+
+    private static final String INSERT = "INSERT INTO reservas " +
+            "(usuario_id, cancha_id, fecha, hora_inicio, hora_fin, estado, estado_prioridad, serie_id, creado_en, precio_hora) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertar(List<Reserva> reservas) {
+        if (reservas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            try (PreparedStatement insert = conexion.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Reserva reserva : reservas) {
+                    insert.setInt(1, reserva.getUsuario().getId());
+                    insert.setInt(2, reserva.getCancha().getId());
+                    insert.setObject(3, reserva.getFecha());
+                    insert.setObject(4, reserva.getHoraInicio());
+                    insert.setObject(5, reserva.getHoraFin());
+                    insert.setString(6, reserva.getEstado());
+                    insert.setInt(7, Reserva.prioridadDeEstado(reserva.getEstado()));
+                    insert.setObject(8, reserva.getSerieId(), Types.INTEGER);
+                    insert.setObject(9, reserva.getCreadoEn());
+                    insert.setObject(10, reserva.getPrecioHora(), Types.DOUBLE);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet claves = insert.getGeneratedKeys()) {
+                    for (Reserva reserva : reservas) {
+                        if (!claves.next()) {
+                            throw new IllegalStateException("El driver no devolvió todos los ids generados");
+                        }
+                        reserva.setId(claves.getInt(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contador de solicitudes de reserva por origen (individual, lote, serie) y resultado:
+ * creada, el motivo de rechazo de negocio (fuera_de_horario, limite_horas, sin_cupo)
+ * o validacion para el resto (datos inválidos, usuario o cancha inexistente).
+ */
+@Component
+public class MetricasReservas {
+
+    static final String ORIGEN_INDIVIDUAL = "individual";
+    static final String ORIGEN_LOTE = "lote";
+    static final String ORIGEN_SERIE = "serie";
+
+    private static final String CREADA = "creada";
+    private static final String VALIDACION = "validacion";
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> contadores = new ConcurrentHashMap<>();
+
+    public MetricasReservas(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void creadas(String origen, int cantidad) {
+        if (cantidad > 0) {
+            contador(origen, CREADA).increment(cantidad);
+        }
+    }
+
+    public void rechazada(String origen, RuntimeException causa) {
+        String resultado = causa instanceof ReservaRechazadaException rechazo
+                ? rechazo.getMotivo().getEtiqueta()
+                : VALIDACION;
+        contador(origen, resultado).increment();
+    }
+
+    private Counter contador(String origen, String resultado) {
+        return contadores.computeIfAbsent(origen + '|' + resultado, clave -> Counter.builder("reservas.solicitudes")
+                .description("Solicitudes de reserva por origen y resultado")
+                .tag("origen", origen)
+                .tag("resultado", resultado)
+                .register(registry));
+    }
+}
@@ -0,0 +1,167 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.IntervaloReserva;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de la ocupación de cada cancha por día.
+ * Cada (canchaId, fecha) se guarda como arreglos primitivos de minutos del día,
+ * se carga de forma perezosa desde la BD y se mantiene al día con cada escritura.
+ */
+@Component
+public class OcupacionIndex {
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private final Map<Long, DiaOcupacion> dias;
+
+    // Se incrementa en cada modificación; permite descartar cargas que compitieron con una escritura
+    private final AtomicLong version = new AtomicLong();
+
+    public OcupacionIndex(@Value("${reservas.ocupacion.max-dias:2048}") int maxDias) {
+        this.dias = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DiaOcupacion> eldest) {
+                return size() > maxDias;
+            }
+        };
+    }
+
+    // Máximo de reservas simultáneas dentro de [horaInicio, horaFin)
+    public int picoConcurrente(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaIdExcluir) {
+        DiaOcupacion dia = obtenerDia(canchaId, fecha);
+        int excluir = reservaIdExcluir != null ? reservaIdExcluir : -1;
+        return dia.picoConcurrente(aMinutos(horaInicio), aMinutos(horaFin), excluir);
+    }
+
+    // Agrega o reemplaza la reserva en su día; las canceladas se retiran del índice
+    public void registrar(Reserva reserva) {
+        version.incrementAndGet();
+        DiaOcupacion dia = diaEnCache(reserva.getCancha().getId(), reserva.getFecha());
+        if (dia == null) {
+            return;
+        }
+        dia.quitar(reserva.getId());
+        if (!"CANCELADA".equals(reserva.getEstado())) {
+            dia.agregar(reserva.getId(), aMinutos(reserva.getHoraInicio()), aMinutos(reserva.getHoraFin()));
+        }
+    }
+
+    public void quitar(Integer reservaId, Integer canchaId, LocalDate fecha) {
+        version.incrementAndGet();
+        DiaOcupacion dia = diaEnCache(canchaId, fecha);
+        if (dia != null) {
+            dia.quitar(reservaId);
+        }
+    }
+
+    public void invalidar(Integer canchaId, LocalDate fecha) {
+        version.incrementAndGet();
+        synchronized (dias) {
+            dias.remove(clave(canchaId, fecha));
+        }
+    }
+
+    private DiaOcupacion obtenerDia(Integer canchaId, LocalDate fecha) {
+        DiaOcupacion dia = diaEnCache(canchaId, fecha);
+        if (dia != null) {
+            return dia;
+        }
+
+        long versionAntes = version.get();
+        List<IntervaloReserva> intervalos = reservaRepository
+                .findIntervalosByCanchaIdAndFechaAndEstadoNot(canchaId, fecha, "CANCELADA");
+        DiaOcupacion cargado = new DiaOcupacion(intervalos.size());
+        for (IntervaloReserva intervalo : intervalos) {
+            cargado.agregar(intervalo.getId(), aMinutos(intervalo.getHoraInicio()), aMinutos(intervalo.getHoraFin()));
+        }
+
+        synchronized (dias) {
+            // Si hubo escrituras durante la carga no se guarda: la próxima consulta recarga
+            if (version.get() == versionAntes) {
+                DiaOcupacion existente = dias.putIfAbsent(clave(canchaId, fecha), cargado);
+                if (existente != null) {
+                    return existente;
+                }
+            }
+        }
+        return cargado;
+    }
+
+    private DiaOcupacion diaEnCache(Integer canchaId, LocalDate fecha) {
+        synchronized (dias) {
+            return dias.get(clave(canchaId, fecha));
+        }
+    }
+
+    private static long clave(Integer canchaId, LocalDate fecha) {
+        return ((long) canchaId << 32) | (fecha.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private static int aMinutos(LocalTime hora) {
+        return BarridoOcupacion.minutos(hora);
+    }
+
+    // Reservas no canceladas de un día: id, inicio y fin en minutos del día
+    static final class DiaOcupacion {
+        private int[] ids;
+        private int[] inicios;
+        private int[] fines;
+        private int tamaño;
+
+        DiaOcupacion(int capacidadInicial) {
+            int capacidad = Math.max(capacidadInicial, 4);
+            this.ids = new int[capacidad];
+            this.inicios = new int[capacidad];
+            this.fines = new int[capacidad];
+        }
+
+        synchronized int picoConcurrente(int inicio, int fin, int excluirId) {
+            BarridoOcupacion barrido = new BarridoOcupacion(inicio, fin, tamaño);
+            for (int i = 0; i < tamaño; i++) {
+                if (ids[i] != excluirId) {
+                    barrido.agregar(inicios[i], fines[i]);
+                }
+            }
+            return barrido.pico();
+        }
+
+        synchronized void agregar(int id, int inicio, int fin) {
+            if (tamaño == ids.length) {
+                int capacidad = tamaño * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                inicios = Arrays.copyOf(inicios, capacidad);
+                fines = Arrays.copyOf(fines, capacidad);
+            }
+            ids[tamaño] = id;
+            inicios[tamaño] = inicio;
+            fines[tamaño] = fin;
+            tamaño++;
+        }
+
+        synchronized void quitar(int id) {
+            for (int i = 0; i < tamaño; i++) {
+                if (ids[i] == id) {
+                    tamaño--;
+                    ids[i] = ids[tamaño];
+                    inicios[i] = inicios[tamaño];
+                    fines[i] = fines[tamaño];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.ResumenCanchaDia;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReporteOcupacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import uis.edu.entorno.proyecto.inicial.repository.ResumenCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.service.IReporteService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reportes de ocupación e ingresos. Solo lee resumen_cancha_dia (mantenido por ResumenOcupacion)
+ * y el catálogo de canchas en memoria; nunca consulta la tabla reservas.
+ */
+@Service
+public class ReporteServiceImpl implements IReporteService {
+
+    // Un año y algo: suficiente para comparar meses sin devolver miles de filas por cancha
+    private static final int MAXIMO_DIAS = 400;
+
+    @Autowired
+    private ResumenCanchaDiaRepository resumenCanchaDiaRepository;
+
+    @Autowired
+    private CanchaCatalogo canchaCatalogo;
+
+    @Autowired
+    private ResumenOcupacion resumenOcupacion;
+
+    @Override
+    public List<ReporteOcupacion> getOcupacion(String periodo, LocalDate desde, LocalDate hasta, Integer canchaId) {
+        if (!"dia".equals(periodo) && !"semana".equals(periodo) && !"mes".equals(periodo)) {
+            throw new RuntimeException("📊 El periodo debe ser dia, semana o mes");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new RuntimeException("📅 La fecha final no puede ser anterior a la inicial");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAXIMO_DIAS) {
+            throw new RuntimeException("📅 El rango del reporte no puede superar " + MAXIMO_DIAS + " días");
+        }
+
+        List<Cancha> canchas;
+        if (canchaId != null) {
+            Cancha cancha = canchaCatalogo.vista().porId(canchaId);
+            if (cancha == null) {
+                throw new RuntimeException("Cancha no encontrada");
+            }
+            canchas = List.of(cancha);
+        } else {
+            canchas = canchaCatalogo.vista().todas();
+        }
+
+        // Todas las canchas y todos los periodos aparecen, aunque no tengan reservas (0 %)
+        Map<Integer, TreeMap<LocalDate, ReporteOcupacion>> porCancha = new HashMap<>();
+        for (Cancha cancha : canchas) {
+            TreeMap<LocalDate, ReporteOcupacion> periodos = new TreeMap<>();
+            for (LocalDate inicio = desde; !inicio.isAfter(hasta); inicio = finPeriodo(periodo, inicio, hasta).plusDays(1)) {
+                LocalDate fin = finPeriodo(periodo, inicio, hasta);
+                ReporteOcupacion reporte = new ReporteOcupacion(cancha.getId(), cancha.getNombre(),
+                        etiqueta(periodo, inicio), inicio, fin);
+                long dias = ChronoUnit.DAYS.between(inicio, fin) + 1;
+                reporte.setMinutosDisponibles(minutosDeAtencion(cancha) * capacidad(cancha) * dias);
+                periodos.put(inicio, reporte);
+            }
+            porCancha.put(cancha.getId(), periodos);
+        }
+
+        for (ResumenCanchaDia resumen : resumenCanchaDiaRepository.findEnRango(canchaId, desde, hasta)) {
+            TreeMap<LocalDate, ReporteOcupacion> periodos = porCancha.get(resumen.getCanchaId());
+            if (periodos == null) {
+                continue;
+            }
+            ReporteOcupacion reporte = periodos.floorEntry(resumen.getFecha()).getValue();
+            reporte.setReservas(reporte.getReservas() + resumen.getReservas());
+            reporte.setMinutosReservados(reporte.getMinutosReservados() + resumen.getMinutosReservados());
+            reporte.setIngresos(reporte.getIngresos() + resumen.getIngresos());
+        }
+
+        List<ReporteOcupacion> reportes = new ArrayList<>();
+        for (Cancha cancha : canchas) {
+            for (ReporteOcupacion reporte : porCancha.get(cancha.getId()).values()) {
+                if (reporte.getMinutosDisponibles() > 0) {
+                    reporte.setOcupacionPorcentaje(redondear(100.0 * reporte.getMinutosReservados() / reporte.getMinutosDisponibles()));
+                }
+                reporte.setIngresos(redondear(reporte.getIngresos()));
+                reportes.add(reporte);
+            }
+        }
+        return reportes;
+    }
+
+    @Override
+    public VerificacionSlotsResponse reconstruirResumen(LocalDate desde, LocalDate hasta, boolean reparar) {
+        return resumenOcupacion.verificar(desde, hasta, reparar);
+    }
+
+    // Las semanas empiezan en lunes (ISO) y los periodos se recortan al rango pedido
+    private static LocalDate finPeriodo(String periodo, LocalDate inicio, LocalDate hasta) {
+        LocalDate fin = switch (periodo) {
+            case "semana" -> inicio.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case "mes" -> inicio.with(TemporalAdjusters.lastDayOfMonth());
+            default -> inicio;
+        };
+        return fin.isAfter(hasta) ? hasta : fin;
+    }
+
+    private static String etiqueta(String periodo, LocalDate inicio) {
+        return switch (periodo) {
+            case "semana" -> String.format("%d-W%02d", inicio.get(IsoFields.WEEK_BASED_YEAR),
+                    inicio.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case "mes" -> String.format("%d-%02d", inicio.getYear(), inicio.getMonthValue());
+            default -> inicio.toString();
+        };
+    }
+
+    private static long minutosDeAtencion(Cancha cancha) {
+        return Math.max(0, BarridoOcupacion.minutos(cancha.getHoraCierre()) - BarridoOcupacion.minutos(cancha.getHoraApertura()));
+    }
+
+    private static long capacidad(Cancha cancha) {
+        return cancha.getCapacidad() != null ? cancha.getCapacidad() : 1;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,85 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException.Motivo;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reglas de negocio de las reservas que no tocan la BD ni el reloj.
+ * ReservaServiceImpl las aplica y los benchmarks de src/jmh las miden por separado.
+ */
+final class ReservaReglas {
+
+    // Máximo de minutos reservados por usuario en la misma cancha y día
+    static final long MAXIMO_MINUTOS_USUARIO_DIA = 120;
+
+    // Orden de los listados: ACTIVA > FINALIZADA > CANCELADA, fecha, hora de inicio (igual que ORDEN_LISTADO en la BD)
+    static final Comparator<ReservaResponse> ORDEN_LISTADO = Comparator
+            .comparingInt((ReservaResponse r) -> Reserva.prioridadDeEstado(r.getEstado()))
+            .thenComparing(ReservaResponse::getFecha)
+            .thenComparing(ReservaResponse::getHoraInicio)
+            .thenComparing(ReservaResponse::getId);
+
+    private ReservaReglas() {
+    }
+
+    static String determinarEstadoReserva(LocalDate fecha, LocalTime horaFin, LocalDate hoy, LocalTime ahora) {
+        if (fecha.isBefore(hoy) || (fecha.isEqual(hoy) && horaFin.isBefore(ahora))) {
+            return "FINALIZADA";
+        } else {
+            return "ACTIVA";
+        }
+    }
+
+    static boolean estaEnHorarioAtencion(Cancha cancha, LocalTime horaInicio, LocalTime horaFin) {
+        return !horaInicio.isBefore(cancha.getHoraApertura()) &&
+                !horaFin.isAfter(cancha.getHoraCierre()) &&
+                horaInicio.isBefore(horaFin);
+    }
+
+    // Minutos del usuario en el día (sin la reserva que se edita) más los de la nueva reserva
+    static long minutosUsuario(List<Reserva> reservasUsuario, Integer reservaIdExcluir,
+                               LocalTime horaInicio, LocalTime horaFin) {
+        long totalMinutos = 0;
+        for (Reserva reserva : reservasUsuario) {
+            if (reservaIdExcluir != null && reserva.getId().equals(reservaIdExcluir)) {
+                continue;
+            }
+            totalMinutos += Duration.between(reserva.getHoraInicio(), reserva.getHoraFin()).toMinutes();
+        }
+        return totalMinutos + Duration.between(horaInicio, horaFin).toMinutes();
+    }
+
+    static void validarTotalMinutosUsuario(long totalMinutos) {
+        // Convertir a horas (120 minutos = 2 horas)
+        if (totalMinutos > MAXIMO_MINUTOS_USUARIO_DIA) {
+            long horasActuales = totalMinutos / 60;
+            long minutosActuales = totalMinutos % 60;
+            throw new ReservaRechazadaException(Motivo.LIMITE_HORAS, "⏰ Límite excedido: Máximo 2 horas de reserva por usuario en la misma cancha por día. " +
+                    "Tiempo total reservado: " + horasActuales + "h " + minutosActuales + "m");
+        }
+    }
+
+    // Formatea horas para mostrar en mensajes (6:00 a.m.); sin String.format, que domina el costo
+    static String formatTimeForDisplay(LocalTime time) {
+        int hour = time.getHour();
+        int minute = time.getMinute();
+        String amPm = hour >= 12 ? "p.m." : "a.m.";
+        int displayHour = hour % 12;
+        if (displayHour == 0) displayHour = 12;
+
+        StringBuilder texto = new StringBuilder(10).append(displayHour).append(':');
+        if (minute < 10) {
+            texto.append('0');
+        }
+        return texto.append(minute).append(' ').append(amPm).toString();
+    }
+}
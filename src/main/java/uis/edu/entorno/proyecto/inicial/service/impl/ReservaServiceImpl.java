@@ -1,21 +1,63 @@
 package uis.edu.entorno.proyecto.inicial.service.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException.Motivo;
 import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.SerieReserva;
 import uis.edu.entorno.proyecto.inicial.model.Cancha;
 import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.FormatoExportacion;
+import uis.edu.entorno.proyecto.inicial.model.dto.PageResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaLoteResultado;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaFiltro;
 import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaRequest;
+import uis.edu.entorno.proyecto.inicial.model.dto.SerieReservaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import uis.edu.entorno.proyecto.inicial.repository.BloqueoCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaHistorialRepository;
 import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.SerieReservaRepository;
 import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
 import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+import uis.edu.entorno.proyecto.inicial.service.ICanchaService;
 import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+import uis.edu.entorno.proyecto.inicial.service.impl.CanchaDiaLocks.DiaCancha;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos.Recurso;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 @Service
 public class ReservaServiceImpl implements IReservaService {
@@ -23,52 +65,156 @@ public class ReservaServiceImpl implements IReservaService {
     @Autowired
     private ReservaRepository reservaRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
     private CanchaRepository canchaRepository;
 
-    @Override
-    public List<Reserva> findAll() {
-        List<Reserva> reservas = reservaRepository.findAllByOrderByIdAsc();
-        boolean seActualizoAlguna = actualizarEstadosAutomaticamente();
+    @Autowired
+    private ICanchaService canchaService;
 
-        if (seActualizoAlguna) {
-            reservas = reservaRepository.findAllByOrderByIdAsc();
-        }
+    @Autowired
+    private OcupacionIndex ocupacionIndex;
+
+    @Autowired
+    private ExpiracionReservas expiracionReservas;
+
+    @Autowired
+    private CanchaDiaLocks canchaDiaLocks;
+
+    @Autowired
+    private BloqueoCanchaDiaRepository bloqueoCanchaDiaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SlotInventario slotInventario;
+
+    @Autowired
+    private ResumenOcupacion resumenOcupacion;
+
+    @Autowired
+    private InsercionReservas insercionReservas;
+
+    @Autowired
+    private SerieReservaRepository serieReservaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MetricasReservas metricasReservas;
+
+    @Autowired
+    private ExportacionReservas exportacionReservas;
+
+    @Autowired
+    private ArchivoReservas archivoReservas;
 
-        return reservas;
+    @Autowired
+    private ReservaHistorialRepository reservaHistorialRepository;
+
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Autowired
+    private EventosDisponibilidad eventosDisponibilidad;
+
+    // Recarga el día desde la BD en cada admisión; sin ella solo se recarga antes de rechazar por cupo
+    @Value("${reservas.admision.recargar-ocupacion:false}")
+    private boolean recargarOcupacion;
+
+    private static final int LIMITE_MAXIMO_PAGINA = 200;
+    private static final int LIMITE_MAXIMO_LOTE = 200;
+    private static final int LIMITE_MAXIMO_OCURRENCIAS = 104;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarEstadoPrioridad() {
+        reservaRepository.completarEstadoPrioridad();
     }
 
     @Override
-    public boolean actualizarEstadosAutomaticamente() {
-        List<Reserva> reservas = reservaRepository.findAll();
-        boolean seActualizo = false;
-        LocalDate hoy = LocalDate.now();
-        LocalTime ahora = LocalTime.now();
+    public List<ReservaResponse> findAll() {
+        // Solo lectura: los estados los mantiene al día ExpiracionReservas en segundo plano
+        return reservaRepository.findAllResponses();
+    }
 
-        for (Reserva reserva : reservas) {
-            // Solo procesar reservas que no estén canceladas
-            if (!reserva.getEstado().equals("CANCELADA")) {
-                String nuevoEstado = determinarEstadoReserva(reserva.getFecha(), reserva.getHoraFin(), hoy, ahora);
-                if (!reserva.getEstado().equals(nuevoEstado)) {
-                    reserva.setEstado(nuevoEstado);
-                    reservaRepository.save(reserva);
-                    seActualizo = true;
-                }
+    @Override
+    public PageResponse<ReservaResponse> findPagina(ReservaFiltro filtro, String cursor, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new RuntimeException("El límite de la página debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+
+        // Sin cursor se parte de una posición anterior a cualquier fila (prioridad 0)
+        Integer prioridad = 0;
+        LocalDate fecha = LocalDate.EPOCH;
+        LocalTime horaInicio = LocalTime.MIN;
+        Integer id = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                prioridad = Integer.valueOf(partes[0]);
+                fecha = LocalDate.parse(partes[1]);
+                horaInicio = LocalTime.parse(partes[2]);
+                id = Integer.valueOf(partes[3]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor de paginación inválido");
             }
         }
-        return seActualizo;
-    }
 
-    // Sobrecarga del método para usar fechas específicas (útil para testing)
-    private String determinarEstadoReserva(LocalDate fecha, LocalTime horaFin, LocalDate hoy, LocalTime ahora) {
-        if (fecha.isBefore(hoy) || (fecha.isEqual(hoy) && horaFin.isBefore(ahora))) {
-            return "FINALIZADA";
-        } else {
-            return "ACTIVA";
+        // Solo los filtros presentes entran en el WHERE: sin predicados "(? IS NULL OR ...)" el optimizador
+        // puede buscar en idx_reservas_usuario_orden o idx_reservas_cancha_orden desde la posición del cursor
+        StringBuilder jpql = new StringBuilder(ReservaRepository.SELECT_PAGINA).append("WHERE ");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (filtro.getUsuarioId() != null) {
+            jpql.append("r.usuario.id = :usuarioId AND ");
+            parametros.put("usuarioId", filtro.getUsuarioId());
+        }
+        if (filtro.getCanchaId() != null) {
+            jpql.append("r.cancha.id = :canchaId AND ");
+            parametros.put("canchaId", filtro.getCanchaId());
+        }
+        if (filtro.getEstado() != null) {
+            jpql.append("r.estado = :estado AND ");
+            parametros.put("estado", filtro.getEstado());
+        }
+        if (filtro.getDesde() != null) {
+            jpql.append("r.fecha >= :desde AND ");
+            parametros.put("desde", filtro.getDesde());
+        }
+        if (filtro.getHasta() != null) {
+            jpql.append("r.fecha <= :hasta AND ");
+            parametros.put("hasta", filtro.getHasta());
         }
+        jpql.append(ReservaRepository.POSTERIOR_AL_CURSOR).append(ReservaRepository.ORDEN_LISTADO);
+        parametros.put("prioridad", prioridad);
+        parametros.put("fecha", fecha);
+        parametros.put("horaInicio", horaInicio);
+        parametros.put("id", id);
+
+        TypedQuery<ReservaResponse> consulta = entityManager.createQuery(jpql.toString(), ReservaResponse.class);
+        parametros.forEach(consulta::setParameter);
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<ReservaResponse> reservas = consulta.setMaxResults(limite + 1).getResultList();
+
+        String siguienteCursor = null;
+        if (reservas.size() > limite) {
+            reservas = reservas.subList(0, limite);
+            ReservaResponse ultima = reservas.get(limite - 1);
+            String clave = Reserva.prioridadDeEstado(ultima.getEstado()) + "|" + ultima.getFecha() + "|" + ultima.getHoraInicio() + "|" + ultima.getId();
+            siguienteCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(clave.getBytes(StandardCharsets.UTF_8));
+        }
+        return new PageResponse<>(reservas, siguienteCursor);
+    }
+
+    @Override
+    public boolean actualizarEstadosAutomaticamente() {
+        return expiracionReservas.ponerAlDia() > 0;
     }
 
     @Override
@@ -77,13 +223,31 @@ public class ReservaServiceImpl implements IReservaService {
     }
 
     @Override
-    public List<Reserva> findByUsuarioId(Integer usuarioId) {
-        return reservaRepository.findByUsuarioId(usuarioId);
+    public Optional<ReservaResponse> findResponseById(Integer id) {
+        return reservaRepository.findResponseById(id);
     }
 
     @Override
-    public List<Reserva> findByCanchaId(Integer canchaId) {
-        return reservaRepository.findByCanchaId(canchaId);
+    public List<ReservaResponse> findByUsuarioId(Integer usuarioId, LocalDate desde, LocalDate hasta) {
+        List<ReservaResponse> reservas = reservaRepository.findResponsesByUsuarioId(usuarioId, desde, hasta);
+        // El historial solo se consulta si el rango llega a fechas ya archivadas
+        if (!archivoReservas.alcanzaHistorial(desde)) {
+            return reservas;
+        }
+        List<ReservaResponse> archivadas = reservaHistorialRepository.findResponsesByUsuarioId(usuarioId, desde, hasta);
+        if (archivadas.isEmpty()) {
+            return reservas;
+        }
+        List<ReservaResponse> todas = new ArrayList<>(reservas.size() + archivadas.size());
+        todas.addAll(reservas);
+        todas.addAll(archivadas);
+        todas.sort(ReservaReglas.ORDEN_LISTADO);
+        return todas;
+    }
+
+    @Override
+    public List<ReservaResponse> findByCanchaId(Integer canchaId) {
+        return reservaRepository.findResponsesByCanchaId(canchaId);
     }
 
     @Override
@@ -97,131 +261,385 @@ public class ReservaServiceImpl implements IReservaService {
             Cancha cancha = canchaRepository.findById(reservaRequest.getCanchaId())
                     .orElseThrow(() -> new RuntimeException("❌ Cancha no encontrada. Verifique el ID de la cancha."));
 
-            LocalDate hoy = LocalDate.now();
-            LocalTime ahora = LocalTime.now();
+            validarNuevaReserva(cancha, reservaRequest, LocalDate.now(), LocalTime.now());
 
-            // Validar que la fecha no sea en el pasado
-            if (reservaRequest.getFecha().isBefore(hoy)) {
-                throw new RuntimeException("❌ No se pueden crear reservas en fechas pasadas.");
-            }
+            // Las validaciones que dependen de otras reservas y el INSERT se hacen bajo el bloqueo del día
+            Reserva creada = admitir(cancha.getId(), reservaRequest.getFecha(), () -> {
+                // Validar límite de 2 horas por usuario por cancha por día
+                validarLimiteHorasUsuario(usuario.getId(), cancha.getId(), reservaRequest.getFecha(),
+                        reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), null);
+
+                // Validar disponibilidad
+                if (!hayCupoBajoBloqueo(cancha, reservaRequest.getFecha(),
+                        reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), null)) {
+                    throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha no está disponible en el horario seleccionado. " +
+                            "Ya existe una reserva activa en ese horario.");
+                }
+                ocuparSlots(cancha, reservaRequest.getFecha(), reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), null);
+
+                Reserva reserva = new Reserva();
+                reserva.setUsuario(usuario);
+                reserva.setCancha(cancha);
+                reserva.setPrecioHora(cancha.getPrecioHora());
+                reserva.setFecha(reservaRequest.getFecha());
+                reserva.setHoraInicio(reservaRequest.getHoraInicio());
+                reserva.setHoraFin(reservaRequest.getHoraFin());
+
+                // Determinar estado inicial basado en fecha y hora
+                reserva.setEstado(determinarEstadoReserva(reservaRequest.getFecha(), reservaRequest.getHoraFin()));
+                resumenOcupacion.sumar(reserva);
+
+                return reservaRepository.save(reserva);
+            });
+            metricasReservas.creadas(MetricasReservas.ORIGEN_INDIVIDUAL, 1);
+            return creada;
+        } catch (RuntimeException e) {
+            metricasReservas.rechazada(MetricasReservas.ORIGEN_INDIVIDUAL, e);
+            // Relanzar la excepción con el mensaje específico
+            throw new RuntimeException(e.getMessage());
+        }
+    }
 
-            // Validar que si es para hoy, la hora de inicio sea al menos 30 minutos en el futuro
-            if (reservaRequest.getFecha().isEqual(hoy)) {
-                LocalTime horaMinima = ahora.plusMinutes(30); // Mínimo 30 minutos de anticipación
+    @Override
+    public List<ReservaLoteResultado> createLote(List<ReservaRequest> solicitudes) {
+        if (solicitudes == null || solicitudes.isEmpty()) {
+            throw new RuntimeException("❌ El lote no contiene reservas.");
+        }
+        if (solicitudes.size() > LIMITE_MAXIMO_LOTE) {
+            throw new RuntimeException("❌ Un lote admite como máximo " + LIMITE_MAXIMO_LOTE + " reservas.");
+        }
 
-                if (reservaRequest.getHoraInicio().isBefore(horaMinima)) {
-                    throw new RuntimeException("⏰ Para reservas del día actual, la hora de inicio debe ser al menos 30 minutos después de la hora actual (" +
-                            horaMinima + "). Por favor, seleccione una hora futura o cambie la fecha.");
+        // Usuarios y canchas involucrados en una consulta cada uno
+        Set<Integer> usuarioIds = new HashSet<>();
+        Set<Integer> canchaIds = new HashSet<>();
+        for (ReservaRequest solicitud : solicitudes) {
+            if (solicitud.getUsuarioId() != null) usuarioIds.add(solicitud.getUsuarioId());
+            if (solicitud.getCanchaId() != null) canchaIds.add(solicitud.getCanchaId());
+        }
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        usuarioRepository.findAllById(usuarioIds).forEach(u -> usuarios.put(u.getId(), u));
+        Map<Integer, Cancha> canchas = new HashMap<>();
+        canchaRepository.findAllById(canchaIds).forEach(c -> canchas.put(c.getId(), c));
+
+        // Reglas individuales; las que pasan se validan después contra la BD y contra el resto del lote
+        ReservaLoteResultado[] resultados = new ReservaLoteResultado[solicitudes.size()];
+        List<Integer> candidatas = new ArrayList<>();
+        TreeSet<DiaCancha> dias = new TreeSet<>();
+        LocalDate hoy = LocalDate.now();
+        LocalTime ahora = LocalTime.now();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            ReservaRequest solicitud = solicitudes.get(i);
+            try {
+                if (!usuarios.containsKey(solicitud.getUsuarioId())) {
+                    throw new RuntimeException("❌ Usuario no encontrado. Verifique el ID del usuario.");
+                }
+                Cancha cancha = canchas.get(solicitud.getCanchaId());
+                if (cancha == null) {
+                    throw new RuntimeException("❌ Cancha no encontrada. Verifique el ID de la cancha.");
                 }
+                validarNuevaReserva(cancha, solicitud, hoy, ahora);
+                candidatas.add(i);
+                dias.add(new DiaCancha(cancha.getId(), solicitud.getFecha()));
+            } catch (RuntimeException e) {
+                metricasReservas.rechazada(MetricasReservas.ORIGEN_LOTE, e);
+                resultados[i] = ReservaLoteResultado.rechazada(i, e.getMessage());
             }
+        }
 
-            // Validar horario de atención de la cancha
-            if (!estaEnHorarioAtencion(cancha, reservaRequest.getHoraInicio(), reservaRequest.getHoraFin())) {
-                throw new RuntimeException("🚫 La reserva está fuera del horario de atención de la cancha. " +
-                        "Horario de atención: " + formatTimeForDisplay(cancha.getHoraApertura()) + " - " + formatTimeForDisplay(cancha.getHoraCierre()));
-            }
+        if (!candidatas.isEmpty()) {
+            Map<Integer, Reserva> creadas = canchaDiaLocks.ejecutar(dias, () -> {
+                Map<Integer, Reserva> guardadas = transactionTemplate.execute(status ->
+                        admitirLote(solicitudes, candidatas, dias, usuarios, canchas, resultados));
+                guardadas.values().forEach(this::registrarCambio);
+                return guardadas;
+            });
+            metricasReservas.creadas(MetricasReservas.ORIGEN_LOTE, creadas.size());
+            creadas.forEach((indice, reserva) -> resultados[indice] = ReservaLoteResultado.creada(indice,
+                    new ReservaResponse(reserva.getId(), reserva.getUsuario().getId(), reserva.getUsuario().getNombre(),
+                            reserva.getCancha().getId(), reserva.getCancha().getNombre(),
+                            reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(), reserva.getEstado())));
+        }
+        return Arrays.asList(resultados);
+    }
 
-            // Validar que la hora de inicio sea antes de la hora de fin
-            if (!reservaRequest.getHoraInicio().isBefore(reservaRequest.getHoraFin())) {
-                throw new RuntimeException("❌ La hora de inicio debe ser anterior a la hora de fin.");
-            }
+    @Override
+    public SerieReservaResponse createSerie(SerieReservaRequest solicitud) {
+        try {
+            SerieReservaResponse serie = crearSerie(solicitud);
+            metricasReservas.creadas(MetricasReservas.ORIGEN_SERIE, serie.getOcurrencias().size());
+            return serie;
+        } catch (RuntimeException e) {
+            metricasReservas.rechazada(MetricasReservas.ORIGEN_SERIE, e);
+            throw e;
+        }
+    }
 
-            // Validar duración máxima de 2 horas por reserva
-            Duration duracion = Duration.between(reservaRequest.getHoraInicio(), reservaRequest.getHoraFin());
-            if (duracion.toMinutes() > 120) {
-                throw new RuntimeException("⏰ La reserva no puede exceder las 2 horas de duración.");
-            }
+    private SerieReservaResponse crearSerie(SerieReservaRequest solicitud) {
+        if (solicitud.getUsuarioId() == null || solicitud.getCanchaId() == null) {
+            throw new RuntimeException("❌ El usuario y la cancha de la serie son obligatorios.");
+        }
+        Usuario usuario = usuarioRepository.findById(solicitud.getUsuarioId())
+                .orElseThrow(() -> new RuntimeException("❌ Usuario no encontrado. Verifique el ID del usuario."));
+        Cancha cancha = canchaRepository.findById(solicitud.getCanchaId())
+                .orElseThrow(() -> new RuntimeException("❌ Cancha no encontrada. Verifique el ID de la cancha."));
 
-            // Validar duración mínima de 30 minutos
-            if (duracion.toMinutes() < 30) {
-                throw new RuntimeException("⏰ La reserva debe tener una duración mínima de 30 minutos.");
-            }
+        int cadaSemanas = solicitud.getCadaSemanas() != null ? solicitud.getCadaSemanas() : 1;
+        List<LocalDate> fechas = expandirOcurrencias(solicitud.getFechaInicio(), solicitud.getFechaFin(), cadaSemanas);
+        validarOcurrencias(cancha, usuario.getId(), fechas, solicitud.getHoraInicio(), solicitud.getHoraFin());
+
+        TreeSet<DiaCancha> dias = new TreeSet<>();
+        fechas.forEach(fecha -> dias.add(new DiaCancha(cancha.getId(), fecha)));
+
+        // La serie y todas sus ocurrencias se guardan en una sola transacción o no se guarda nada
+        Integer serieId = canchaDiaLocks.ejecutar(dias, () -> {
+            List<Reserva> ocurrencias = new ArrayList<>();
+            SerieReserva serie = transactionTemplate.execute(status -> {
+                bloquearDias(cancha.getId(), fechas);
+                verificarConflictosSerie(cancha, usuario.getId(), fechas,
+                        solicitud.getHoraInicio(), solicitud.getHoraFin(), Set.of());
+
+                SerieReserva nueva = new SerieReserva();
+                nueva.setUsuario(usuario);
+                nueva.setCancha(cancha);
+                nueva.setFechaInicio(solicitud.getFechaInicio());
+                nueva.setFechaFin(solicitud.getFechaFin());
+                nueva.setCadaSemanas(cadaSemanas);
+                nueva.setHoraInicio(solicitud.getHoraInicio());
+                nueva.setHoraFin(solicitud.getHoraFin());
+                serieReservaRepository.save(nueva);
+
+                for (LocalDate fecha : fechas) {
+                    Reserva reserva = new Reserva(usuario, cancha, fecha, solicitud.getHoraInicio(), solicitud.getHoraFin());
+                    reserva.setEstado(determinarEstadoReserva(fecha, solicitud.getHoraFin()));
+                    reserva.setSerieId(nueva.getId());
+                    ocurrencias.add(reserva);
+                }
+                insercionReservas.insertar(ocurrencias);
+                slotInventario.sumar(ocurrencias);
+                resumenOcupacion.sumar(ocurrencias);
+                return nueva;
+            });
+            ocurrencias.forEach(this::registrarCambio);
+            return serie.getId();
+        });
+        return findSerie(serieId).orElseThrow();
+    }
 
-            // Validar límite de 2 horas por usuario por cancha por día
-            validarLimiteHorasUsuario(usuario.getId(), cancha.getId(), reservaRequest.getFecha(),
-                    reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), null);
-
-            // Validar disponibilidad
-            if (!isCanchaDisponible(reservaRequest.getCanchaId(),
-                    reservaRequest.getFecha().toString(),
-                    reservaRequest.getHoraInicio().toString(),
-                    reservaRequest.getHoraFin().toString(), null)) {
-                throw new RuntimeException("🔒 La cancha no está disponible en el horario seleccionado. " +
-                        "Ya existe una reserva activa en ese horario.");
-            }
+    @Override
+    public Optional<SerieReservaResponse> findSerie(Integer id) {
+        return serieReservaRepository.findById(id).map(serie -> new SerieReservaResponse(serie.getId(),
+                serie.getUsuario().getId(), serie.getCancha().getId(), serie.getFechaInicio(), serie.getFechaFin(),
+                serie.getCadaSemanas(), serie.getHoraInicio(), serie.getHoraFin(), serie.getEstado(),
+                reservaRepository.findResponsesBySerieId(serie.getId())));
+    }
 
-            Reserva reserva = new Reserva();
-            reserva.setUsuario(usuario);
-            reserva.setCancha(cancha);
-            reserva.setFecha(reservaRequest.getFecha());
-            reserva.setHoraInicio(reservaRequest.getHoraInicio());
-            reserva.setHoraFin(reservaRequest.getHoraFin());
+    @Override
+    public SerieReservaResponse updateSerie(Integer id, SerieReservaRequest solicitud) {
+        SerieReserva serie = serieReservaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Serie no encontrada"));
+        if ("CANCELADA".equals(serie.getEstado())) {
+            throw new RuntimeException("❌ La serie está cancelada y no se puede modificar.");
+        }
 
-            // Determinar estado inicial basado en fecha y hora
-            reserva.setEstado(determinarEstadoReserva(reservaRequest.getFecha(), reservaRequest.getHoraFin()));
+        // Se pueden cambiar la cancha y el horario; lo omitido en la solicitud se conserva
+        Integer canchaAnteriorId = serie.getCancha().getId();
+        Cancha cancha = canchaRepository.findById(solicitud.getCanchaId() != null ? solicitud.getCanchaId() : canchaAnteriorId)
+                .orElseThrow(() -> new RuntimeException("❌ Cancha no encontrada. Verifique el ID de la cancha."));
+        LocalTime horaInicio = solicitud.getHoraInicio() != null ? solicitud.getHoraInicio() : serie.getHoraInicio();
+        LocalTime horaFin = solicitud.getHoraFin() != null ? solicitud.getHoraFin() : serie.getHoraFin();
+        Integer usuarioId = serie.getUsuario().getId();
+
+        // Solo se reprograman las ocurrencias a partir de mañana; las de hoy y anteriores quedan como están
+        LocalDate desde = LocalDate.now().plusDays(1);
+        List<LocalDate> fechas = expandirOcurrencias(serie.getFechaInicio(), serie.getFechaFin(), serie.getCadaSemanas())
+                .stream().filter(fecha -> !fecha.isBefore(desde)).toList();
+        if (fechas.isEmpty()) {
+            throw new RuntimeException("❌ La serie no tiene ocurrencias futuras para modificar.");
+        }
+        validarOcurrencias(cancha, usuarioId, fechas, horaInicio, horaFin);
 
-            return reservaRepository.save(reserva);
-        } catch (RuntimeException e) {
-            // Relanzar la excepción con el mensaje específico
-            throw new RuntimeException(e.getMessage());
+        TreeSet<DiaCancha> dias = new TreeSet<>();
+        for (LocalDate fecha : fechas) {
+            dias.add(new DiaCancha(canchaAnteriorId, fecha));
+            dias.add(new DiaCancha(cancha.getId(), fecha));
         }
-    }
 
-    // Método auxiliar para formatear horas para mostrar en mensajes
-    private String formatTimeForDisplay(LocalTime time) {
-        int hour = time.getHour();
-        int minute = time.getMinute();
-        String amPm = hour >= 12 ? "p.m." : "a.m.";
-        int displayHour = hour % 12;
-        if (displayHour == 0) displayHour = 12;
+        canchaDiaLocks.ejecutar(dias, () -> {
+            List<TramoReserva> anteriores = new ArrayList<>();
+            List<Reserva> reprogramadas = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Integer canchaId : new TreeSet<>(List.of(canchaAnteriorId, cancha.getId()))) {
+                    bloquearDias(canchaId, fechas);
+                }
 
-        return String.format("%d:%02d %s", displayHour, minute, amPm);
+                // Ocurrencias vigentes (las canceladas una a una no se reactivan)
+                anteriores.addAll(reservaRepository.findTramosDeSerie(id, desde, "ACTIVA"));
+                if (anteriores.isEmpty()) {
+                    return;
+                }
+                Set<Integer> propias = new HashSet<>();
+                List<LocalDate> fechasVigentes = new ArrayList<>();
+                for (TramoReserva tramo : anteriores) {
+                    propias.add(tramo.getId());
+                    fechasVigentes.add(tramo.getFecha());
+                }
+                verificarConflictosSerie(cancha, usuarioId, fechasVigentes, horaInicio, horaFin, propias);
+
+                reservaRepository.reprogramarSerieDesde(id, cancha, horaInicio, horaFin, desde, cancha.getPrecioHora());
+                slotInventario.restar(anteriores);
+                resumenOcupacion.restar(anteriores);
+                for (TramoReserva tramo : anteriores) {
+                    Reserva reserva = new Reserva(serie.getUsuario(), cancha, tramo.getFecha(), horaInicio, horaFin);
+                    reserva.setId(tramo.getId());
+                    reserva.setSerieId(id);
+                    reprogramadas.add(reserva);
+                }
+                slotInventario.sumar(reprogramadas);
+                resumenOcupacion.sumar(reprogramadas);
+
+                serie.setCancha(cancha);
+                serie.setHoraInicio(horaInicio);
+                serie.setHoraFin(horaFin);
+                serieReservaRepository.save(serie);
+            });
+            anteriores.forEach(tramo -> ocupacionIndex.quitar(tramo.getId(), tramo.getCanchaId(), tramo.getFecha()));
+            anteriores.forEach(eventosDisponibilidad::publicar);
+            reprogramadas.forEach(this::registrarCambio);
+            return null;
+        });
+        return findSerie(id).orElseThrow();
+    }
+
+    @Override
+    public SerieReservaResponse cancelarSerie(Integer id) {
+        SerieReserva serie = serieReservaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Serie no encontrada"));
+        Integer canchaId = serie.getCancha().getId();
+        LocalDate hoy = LocalDate.now();
+        List<LocalDate> fechas = expandirOcurrencias(serie.getFechaInicio(), serie.getFechaFin(), serie.getCadaSemanas())
+                .stream().filter(fecha -> !fecha.isBefore(hoy)).toList();
+
+        // Mismos bloqueos que una cancelación individual, para no devolver dos veces el mismo cupo
+        TreeSet<DiaCancha> dias = new TreeSet<>();
+        fechas.forEach(fecha -> dias.add(new DiaCancha(canchaId, fecha)));
+        canchaDiaLocks.ejecutar(dias, () -> {
+            List<TramoReserva> canceladas = transactionTemplate.execute(status -> {
+                if (!fechas.isEmpty()) {
+                    bloquearDias(canchaId, fechas);
+                }
+                List<TramoReserva> activas = reservaRepository.findTramosDeSerie(id, hoy, "ACTIVA");
+                reservaRepository.cancelarSerieDesde(id, hoy);
+                slotInventario.restar(activas);
+                resumenOcupacion.restar(activas);
+                serie.setEstado("CANCELADA");
+                serieReservaRepository.save(serie);
+                return activas;
+            });
+            canceladas.forEach(tramo -> ocupacionIndex.quitar(tramo.getId(), tramo.getCanchaId(), tramo.getFecha()));
+            canceladas.forEach(eventosDisponibilidad::publicar);
+            versionesDatos.cambio(Recurso.RESERVAS);
+            return null;
+        });
+        return findSerie(id).orElseThrow();
     }
 
     @Override
     public Reserva updateEstado(Integer id, String estado) {
-        Reserva reserva = reservaRepository.findById(id)
+        Reserva reserva = reservaRepository.findConUsuarioYCanchaById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
-        reserva.setEstado(estado);
-        return reservaRepository.save(reserva);
+        Cancha cancha = reserva.getCancha();
+
+        return admitir(cancha.getId(), reserva.getFecha(), () -> {
+            boolean estabaCancelada = "CANCELADA".equals(reserva.getEstado());
+            boolean quedaCancelada = "CANCELADA".equals(estado);
+            // Reactivar una reserva cancelada vuelve a ocupar cupo
+            if (estabaCancelada && !quedaCancelada) {
+                if (!hayCupoBajoBloqueo(cancha, reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(), id)
+                        || !slotInventario.reservar(cancha.getId(), reserva.getFecha(), reserva.getHoraInicio(),
+                        reserva.getHoraFin(), cancha.getCapacidad(), id)) {
+                    throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha no está disponible en el horario de la reserva.");
+                }
+                resumenOcupacion.sumar(reserva);
+            } else if (!estabaCancelada && quedaCancelada) {
+                slotInventario.liberar(cancha.getId(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin());
+                resumenOcupacion.restar(reserva);
+            }
+            reserva.setEstado(estado);
+            return reservaRepository.save(reserva);
+        });
     }
 
     @Override
     public void delete(Integer id) {
-        reservaRepository.deleteById(id);
+        // Una edición concurrente puede mover la reserva a otro día: se reintenta con el día leído bajo el bloqueo
+        Optional<TramoReserva> pendiente = reservaRepository.findTramoById(id);
+        while (pendiente.isPresent()) {
+            pendiente = eliminar(id, pendiente.get());
+        }
     }
 
     @Override
-    public boolean isCanchaDisponible(Integer canchaId, String fecha, String horaInicio, String horaFin) {
-        return isCanchaDisponible(canchaId, fecha, horaInicio, horaFin, null);
+    public VerificacionSlotsResponse verificarOcupacionSlots(LocalDate desde, boolean reparar) {
+        return slotInventario.verificar(desde, reparar);
     }
 
-    private boolean isCanchaDisponible(Integer canchaId, String fecha, String horaInicio, String horaFin, Integer reservaId) {
-        LocalDate fechaLocal = LocalDate.parse(fecha);
-        LocalTime horaInicioLocal = LocalTime.parse(horaInicio);
-        LocalTime horaFinLocal = LocalTime.parse(horaFin);
+    @Override
+    public long exportar(FormatoExportacion formato, LocalDate desde, LocalDate hasta, Integer canchaId, OutputStream salida) {
+        return exportacionReservas.escribir(formato, desde, hasta, canchaId, salida);
+    }
 
-        List<Reserva> reservasSolapadas;
-        if (reservaId != null) {
-            reservasSolapadas = reservaRepository
-                    .findByCanchaIdAndFechaAndHoraInicioLessThanAndHoraFinGreaterThanAndEstadoNotAndIdNot(
-                            canchaId, fechaLocal, horaFinLocal, horaInicioLocal, "CANCELADA", reservaId);
-        } else {
-            reservasSolapadas = reservaRepository
-                    .findByCanchaIdAndFechaAndHoraInicioLessThanAndHoraFinGreaterThanAndEstadoNot(
-                            canchaId, fechaLocal, horaFinLocal, horaInicioLocal, "CANCELADA");
-        }
+    @Override
+    public int archivarHistorial() {
+        return archivoReservas.archivar();
+    }
 
-        Cancha cancha = canchaRepository.findById(canchaId)
+    @Override
+    public boolean isCanchaDisponible(Integer canchaId, String fecha, String horaInicio, String horaFin) {
+        // Consulta de solo lectura: la capacidad sale del catálogo en memoria, la ocupación del índice
+        Cancha cancha = canchaService.findById(canchaId)
                 .orElseThrow(() -> new RuntimeException("Cancha no encontrada"));
+        return isCanchaDisponible(cancha, LocalDate.parse(fecha), LocalTime.parse(horaInicio), LocalTime.parse(horaFin), null);
+    }
+
+    @Override
+    public int ocupacionMaxima(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaIdExcluir) {
+        return ocupacionIndex.picoConcurrente(canchaId, fecha, horaInicio, horaFin, reservaIdExcluir);
+    }
 
-        return reservasSolapadas.size() < cancha.getCapacidad();
+    // La ocupación se resuelve en el índice en memoria; solo va a la BD la primera vez que se consulta el día.
+    // Cuenta el máximo de reservas simultáneas en la ventana, no todas las que la tocan
+    private boolean isCanchaDisponible(Cancha cancha, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaId) {
+        int pico = ocupacionIndex.picoConcurrente(cancha.getId(), fecha, horaInicio, horaFin, reservaId);
+        return pico < cancha.getCapacidad();
+    }
+
+    /**
+     * Cupo dentro de la admisión, con el bloqueo del día tomado. El índice del nodo puede no conocer
+     * cambios de otros nodos: si cuenta de menos, ocupacion_slots rechaza después en la BD; si cuenta de
+     * más (otro nodo canceló o eliminó), se recarga el día antes de rechazar.
+     */
+    private boolean hayCupoBajoBloqueo(Cancha cancha, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaId) {
+        if (isCanchaDisponible(cancha, fecha, horaInicio, horaFin, reservaId)) {
+            return true;
+        }
+        if (recargarOcupacion) {
+            return false;
+        }
+        ocupacionIndex.invalidar(cancha.getId(), fecha);
+        return isCanchaDisponible(cancha, fecha, horaInicio, horaFin, reservaId);
     }
 
     @Override
     public Reserva update(Integer id, ReservaRequest reservaRequest) {
-        Reserva reservaExistente = reservaRepository.findById(id)
+        // Si la edición conserva usuario y cancha, los findById siguientes salen del contexto de persistencia
+        Reserva reservaExistente = reservaRepository.findConUsuarioYCanchaById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
+        Integer canchaIdAnterior = reservaExistente.getCancha().getId();
+        LocalDate fechaAnterior = reservaExistente.getFecha();
+        LocalTime horaInicioAnterior = reservaExistente.getHoraInicio();
+        LocalTime horaFinAnterior = reservaExistente.getHoraFin();
+        Double precioAnterior = reservaExistente.getPrecioHora();
+        boolean estabaCancelada = "CANCELADA".equals(reservaExistente.getEstado());
 
         // Validar que el usuario existe
         Usuario usuario = usuarioRepository.findById(reservaRequest.getUsuarioId())
@@ -249,66 +667,354 @@ public class ReservaServiceImpl implements IReservaService {
             }
         }
 
-        reservaExistente.setUsuario(usuario);
-        reservaExistente.setCancha(cancha);
-        reservaExistente.setFecha(reservaRequest.getFecha());
-        reservaExistente.setHoraInicio(reservaRequest.getHoraInicio());
-        reservaExistente.setHoraFin(reservaRequest.getHoraFin());
-
-        // Actualizar estado basado en nueva fecha y hora
-        reservaExistente.setEstado(determinarEstadoReserva(reservaRequest.getFecha(), reservaRequest.getHoraFin()));
+        // Se bloquean el día anterior y el nuevo: los contadores de ambos cambian en la misma transacción
+        TreeSet<DiaCancha> dias = new TreeSet<>(List.of(new DiaCancha(canchaIdAnterior, fechaAnterior),
+                new DiaCancha(cancha.getId(), reservaRequest.getFecha())));
+        Reserva actualizada = admitir(dias, () -> {
+            // Mismas reglas de cupo y límite de horas que al crear, excluyendo la propia reserva
+            validarLimiteHorasUsuario(usuario.getId(), cancha.getId(), reservaRequest.getFecha(),
+                    reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), id);
+            if (!hayCupoBajoBloqueo(cancha, reservaRequest.getFecha(),
+                    reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), id)) {
+                throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha no está disponible en el horario seleccionado. " +
+                        "Ya existe una reserva activa en ese horario.");
+            }
+            // Se devuelven primero las franjas anteriores para que un cambio de hora no cuente dos veces la reserva
+            if (!estabaCancelada) {
+                slotInventario.liberar(canchaIdAnterior, fechaAnterior, horaInicioAnterior, horaFinAnterior);
+                resumenOcupacion.restar(canchaIdAnterior, fechaAnterior, horaInicioAnterior, horaFinAnterior, precioAnterior);
+            }
+            ocuparSlots(cancha, reservaRequest.getFecha(), reservaRequest.getHoraInicio(), reservaRequest.getHoraFin(), id);
+
+            reservaExistente.setUsuario(usuario);
+            reservaExistente.setCancha(cancha);
+            reservaExistente.setFecha(reservaRequest.getFecha());
+            reservaExistente.setHoraInicio(reservaRequest.getHoraInicio());
+            reservaExistente.setHoraFin(reservaRequest.getHoraFin());
+            // La reserva editada se vuelve a cobrar con el precio vigente de su cancha
+            reservaExistente.setPrecioHora(cancha.getPrecioHora());
+
+            // Actualizar estado basado en nueva fecha y hora
+            reservaExistente.setEstado(determinarEstadoReserva(reservaRequest.getFecha(), reservaRequest.getHoraFin()));
+            resumenOcupacion.sumar(reservaExistente);
+
+            Reserva guardada = reservaRepository.save(reservaExistente);
+            // Si cambió de día o de cancha, el índice del día anterior se corrige al confirmar, aún con su bloqueo
+            if (!canchaIdAnterior.equals(cancha.getId()) || !fechaAnterior.equals(reservaRequest.getFecha())) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        ocupacionIndex.quitar(id, canchaIdAnterior, fechaAnterior);
+                    }
+                });
+            }
+            return guardada;
+        });
 
-        return reservaRepository.save(reservaExistente);
+        // El tramo anterior libera cupo (el nuevo ya se publicó al registrar el cambio)
+        if (!estabaCancelada) {
+            eventosDisponibilidad.publicar(canchaIdAnterior, fechaAnterior, horaInicioAnterior, horaFinAnterior);
+        }
+        return actualizada;
     }
 
     // MÉTODOS PRIVADOS AUXILIARES - SIN DUPLICACIONES
 
-    private String determinarEstadoReserva(LocalDate fecha, LocalTime horaFin) {
+    /**
+     * Ejecuta una escritura de reservas serializada por (cancha, fecha): primero el bloqueo en proceso
+     * de la franja y, dentro de una transacción, la fila de bloqueos_cancha_dia con SELECT ... FOR UPDATE
+     * para que otros nodos también esperen. Los cambios se propagan al índice antes de soltar el bloqueo.
+     */
+    private Reserva admitir(Integer canchaId, LocalDate fecha, Supplier<Reserva> escritura) {
+        return admitir(new TreeSet<>(List.of(new DiaCancha(canchaId, fecha))), escritura);
+    }
+
+    // Varios días (una edición que cambia de día o de cancha): filas de bloqueo en el orden de DiaCancha
+    private Reserva admitir(TreeSet<DiaCancha> dias, Supplier<Reserva> escritura) {
+        return canchaDiaLocks.ejecutar(dias, () -> {
+            Reserva guardada = transactionTemplate.execute(status -> {
+                for (DiaCancha dia : dias) {
+                    bloqueoCanchaDiaRepository.asegurar(dia.canchaId(), dia.fecha());
+                    bloqueoCanchaDiaRepository.bloquear(dia.canchaId(), dia.fecha());
+                    if (recargarOcupacion) {
+                        ocupacionIndex.invalidar(dia.canchaId(), dia.fecha());
+                    }
+                }
+                return escritura.get();
+            });
+            registrarCambio(guardada);
+            return guardada;
+        });
+    }
+
+    /**
+     * Elimina la reserva con el bloqueo del día en que se leyó, igual que las demás escrituras: los contadores
+     * de franjas y el resumen del día no cambian mientras otra admisión o una reconstrucción trabaja sobre él.
+     * @return el tramo vigente si entre tanto la reserva pasó a otro día (hay que reintentar), o vacío al terminar
+     */
+    private Optional<TramoReserva> eliminar(Integer id, TramoReserva leido) {
+        Integer canchaId = leido.getCanchaId();
+        LocalDate fecha = leido.getFecha();
+        return canchaDiaLocks.ejecutar(canchaId, fecha, () -> {
+            Optional<TramoReserva> actual = transactionTemplate.execute(status -> {
+                bloqueoCanchaDiaRepository.asegurar(canchaId, fecha);
+                bloqueoCanchaDiaRepository.bloquear(canchaId, fecha);
+                Optional<TramoReserva> tramo = reservaRepository.findTramoById(id);
+                if (tramo.isPresent() && mismoDia(tramo.get(), canchaId, fecha)) {
+                    reservaRepository.deleteById(id);
+                    TramoReserva t = tramo.get();
+                    if (!"CANCELADA".equals(t.getEstado())) {
+                        slotInventario.liberar(canchaId, fecha, t.getHoraInicio(), t.getHoraFin());
+                        resumenOcupacion.restar(canchaId, fecha, t.getHoraInicio(), t.getHoraFin(), t.getPrecioHora());
+                    }
+                }
+                return tramo;
+            });
+            if (actual.isEmpty() || !mismoDia(actual.get(), canchaId, fecha)) {
+                return actual;
+            }
+            ocupacionIndex.quitar(id, canchaId, fecha);
+            eventosDisponibilidad.publicar(actual.get());
+            versionesDatos.cambio(Recurso.RESERVAS);
+            return Optional.empty();
+        });
+    }
+
+    private static boolean mismoDia(TramoReserva tramo, Integer canchaId, LocalDate fecha) {
+        return canchaId.equals(tramo.getCanchaId()) && fecha.equals(tramo.getFecha());
+    }
+
+    // Garantía de capacidad en la BD: falla si otro nodo ya llenó el tramo
+    private void ocuparSlots(Cancha cancha, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Integer reservaId) {
+        if (!slotInventario.reservar(cancha.getId(), fecha, horaInicio, horaFin, cancha.getCapacidad(), reservaId)) {
+            throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha no está disponible en el horario seleccionado. " +
+                    "Ya existe una reserva activa en ese horario.");
+        }
+    }
+
+    /**
+     * Parte transaccional de createLote: toma las filas de bloqueo de todos los días del lote en orden,
+     * lee su ocupación en una sola consulta y valida cupo y límite de horas en memoria, contando también
+     * las reservas del lote ya aceptadas. Las aceptadas se insertan en un batch JDBC.
+     * @return reservas creadas por índice de la solicitud
+     */
+    private Map<Integer, Reserva> admitirLote(List<ReservaRequest> solicitudes, List<Integer> candidatas,
+                                              TreeSet<DiaCancha> dias, Map<Integer, Usuario> usuarios,
+                                              Map<Integer, Cancha> canchas, ReservaLoteResultado[] resultados) {
+        Set<Integer> canchaIds = new HashSet<>();
+        Set<LocalDate> fechas = new HashSet<>();
+        for (DiaCancha dia : dias) {
+            bloqueoCanchaDiaRepository.asegurar(dia.canchaId(), dia.fecha());
+            bloqueoCanchaDiaRepository.bloquear(dia.canchaId(), dia.fecha());
+            canchaIds.add(dia.canchaId());
+            fechas.add(dia.fecha());
+        }
+
+        Map<DiaCancha, List<Tramo>> ocupacion = new HashMap<>();
+        for (TramoReserva tramo : reservaRepository.findTramosOcupados(canchaIds, fechas)) {
+            DiaCancha dia = new DiaCancha(tramo.getCanchaId(), tramo.getFecha());
+            if (dias.contains(dia)) {
+                ocupacion.computeIfAbsent(dia, k -> new ArrayList<>())
+                        .add(new Tramo(tramo.getUsuarioId(), tramo.getHoraInicio(), tramo.getHoraFin()));
+            }
+        }
+
+        Map<Integer, Reserva> aceptadas = new LinkedHashMap<>();
+        for (Integer indice : candidatas) {
+            ReservaRequest solicitud = solicitudes.get(indice);
+            Cancha cancha = canchas.get(solicitud.getCanchaId());
+            List<Tramo> delDia = ocupacion.computeIfAbsent(new DiaCancha(cancha.getId(), solicitud.getFecha()), k -> new ArrayList<>());
+
+            long minutosUsuario = Duration.between(solicitud.getHoraInicio(), solicitud.getHoraFin()).toMinutes();
+            BarridoOcupacion barrido = new BarridoOcupacion(solicitud.getHoraInicio(), solicitud.getHoraFin(), delDia.size());
+            for (Tramo tramo : delDia) {
+                if (tramo.usuarioId().equals(solicitud.getUsuarioId())) {
+                    minutosUsuario += Duration.between(tramo.horaInicio(), tramo.horaFin()).toMinutes();
+                }
+                barrido.agregar(tramo.horaInicio(), tramo.horaFin());
+            }
+            try {
+                ReservaReglas.validarTotalMinutosUsuario(minutosUsuario);
+                if (barrido.pico() >= cancha.getCapacidad()) {
+                    throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha no está disponible en el horario seleccionado. " +
+                            "Ya existe una reserva activa en ese horario.");
+                }
+            } catch (RuntimeException e) {
+                metricasReservas.rechazada(MetricasReservas.ORIGEN_LOTE, e);
+                resultados[indice] = ReservaLoteResultado.rechazada(indice, e.getMessage());
+                continue;
+            }
+
+            Reserva reserva = new Reserva(usuarios.get(solicitud.getUsuarioId()), cancha, solicitud.getFecha(),
+                    solicitud.getHoraInicio(), solicitud.getHoraFin());
+            reserva.setEstado(determinarEstadoReserva(solicitud.getFecha(), solicitud.getHoraFin()));
+            aceptadas.put(indice, reserva);
+            delDia.add(new Tramo(solicitud.getUsuarioId(), solicitud.getHoraInicio(), solicitud.getHoraFin()));
+        }
+
+        List<Reserva> nuevas = new ArrayList<>(aceptadas.values());
+        insercionReservas.insertar(nuevas);
+        slotInventario.sumar(nuevas);
+        resumenOcupacion.sumar(nuevas);
+        return aceptadas;
+    }
+
+    // Fechas de la serie: una cada "cadaSemanas" semanas desde fechaInicio hasta fechaFin
+    private List<LocalDate> expandirOcurrencias(LocalDate fechaInicio, LocalDate fechaFin, int cadaSemanas) {
+        if (fechaInicio == null || fechaFin == null) {
+            throw new RuntimeException("❌ La fecha de inicio y la fecha de fin de la serie son obligatorias.");
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new RuntimeException("❌ La fecha de fin de la serie no puede ser anterior a la de inicio.");
+        }
+        if (cadaSemanas < 1) {
+            throw new RuntimeException("❌ La serie debe repetirse al menos cada semana.");
+        }
+        List<LocalDate> fechas = new ArrayList<>();
+        for (LocalDate fecha = fechaInicio; !fecha.isAfter(fechaFin); fecha = fecha.plusWeeks(cadaSemanas)) {
+            if (fechas.size() == LIMITE_MAXIMO_OCURRENCIAS) {
+                throw new RuntimeException("❌ Una serie admite como máximo " + LIMITE_MAXIMO_OCURRENCIAS + " ocurrencias.");
+            }
+            fechas.add(fecha);
+        }
+        return fechas;
+    }
+
+    // Reglas individuales de reserva aplicadas a cada ocurrencia
+    private void validarOcurrencias(Cancha cancha, Integer usuarioId, List<LocalDate> fechas, LocalTime horaInicio, LocalTime horaFin) {
         LocalDate hoy = LocalDate.now();
         LocalTime ahora = LocalTime.now();
+        for (LocalDate fecha : fechas) {
+            try {
+                validarNuevaReserva(cancha, new ReservaRequest(usuarioId, cancha.getId(), fecha, horaInicio, horaFin, null), hoy, ahora);
+            } catch (ReservaRechazadaException e) {
+                throw new ReservaRechazadaException(e.getMotivo(), "Ocurrencia del " + fecha + ": " + e.getMessage());
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Ocurrencia del " + fecha + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cruza todas las ocurrencias con la ocupación de la cancha leída en una sola consulta por rango
+     * de fechas, agrupada por día en memoria. Lanza una excepción con las fechas en conflicto.
+     * @param excluirIds reservas que se están reprogramando y no cuentan como ocupación
+     */
+    private void verificarConflictosSerie(Cancha cancha, Integer usuarioId, List<LocalDate> fechas,
+                                          LocalTime horaInicio, LocalTime horaFin, Set<Integer> excluirIds) {
+        LocalDate primera = Collections.min(fechas);
+        LocalDate ultima = Collections.max(fechas);
+        Map<LocalDate, List<TramoReserva>> porDia = new HashMap<>();
+        for (TramoReserva tramo : reservaRepository.findTramosOcupadosEnRango(cancha.getId(), primera, ultima)) {
+            if (!excluirIds.contains(tramo.getId())) {
+                porDia.computeIfAbsent(tramo.getFecha(), k -> new ArrayList<>()).add(tramo);
+            }
+        }
 
-        if (fecha.isBefore(hoy) || (fecha.isEqual(hoy) && horaFin.isBefore(ahora))) {
-            return "FINALIZADA";
-        } else {
-            return "ACTIVA";
+        long minutosOcurrencia = Duration.between(horaInicio, horaFin).toMinutes();
+        List<String> conflictos = new ArrayList<>();
+        boolean sinCupo = false;
+        for (LocalDate fecha : fechas) {
+            List<TramoReserva> delDia = porDia.getOrDefault(fecha, List.of());
+            BarridoOcupacion barrido = new BarridoOcupacion(horaInicio, horaFin, delDia.size());
+            long minutosUsuario = minutosOcurrencia;
+            for (TramoReserva tramo : delDia) {
+                barrido.agregar(tramo.getHoraInicio(), tramo.getHoraFin());
+                if (tramo.getUsuarioId().equals(usuarioId)) {
+                    minutosUsuario += Duration.between(tramo.getHoraInicio(), tramo.getHoraFin()).toMinutes();
+                }
+            }
+            if (barrido.pico() >= cancha.getCapacidad()) {
+                conflictos.add(fecha + " (sin cupo)");
+                sinCupo = true;
+            } else if (minutosUsuario > ReservaReglas.MAXIMO_MINUTOS_USUARIO_DIA) {
+                conflictos.add(fecha + " (límite de 2 horas del usuario)");
+            }
+        }
+        if (!conflictos.isEmpty()) {
+            throw new ReservaRechazadaException(sinCupo ? Motivo.SIN_CUPO : Motivo.LIMITE_HORAS,
+                    "🔒 La serie no se puede reservar por conflictos en: " + String.join(", ", conflictos));
         }
     }
 
-    private boolean estaEnHorarioAtencion(Cancha cancha, LocalTime horaInicio, LocalTime horaFin) {
-        return !horaInicio.isBefore(cancha.getHoraApertura()) &&
-                !horaFin.isAfter(cancha.getHoraCierre()) &&
-                horaInicio.isBefore(horaFin);
+    // Filas de bloqueo de varios días de una cancha: un INSERT IGNORE en batch y un único SELECT ... FOR UPDATE
+    private void bloquearDias(Integer canchaId, Collection<LocalDate> fechas) {
+        List<Object[]> filas = new ArrayList<>(fechas.size());
+        fechas.forEach(fecha -> filas.add(new Object[]{canchaId, fecha}));
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO bloqueos_cancha_dia (cancha_id, fecha) VALUES (?, ?)", filas);
+        bloqueoCanchaDiaRepository.bloquearVarios(canchaId, fechas);
     }
 
-    private void validarLimiteHorasUsuario(Integer usuarioId, Integer canchaId, LocalDate fecha,
-                                           LocalTime horaInicio, LocalTime horaFin, Integer reservaIdExcluir) {
-        // Obtener todas las reservas del usuario para esta cancha en esta fecha (excluyendo CANCELADAS)
-        List<Reserva> reservasUsuario = reservaRepository.findByUsuarioIdAndCanchaIdAndFechaAndEstadoNot(
-                usuarioId, canchaId, fecha, "CANCELADA");
+    // Propaga una reserva guardada al índice de ocupación, al programador de expiración, a los ETag
+    // y a los suscriptores de eventos de la cancha
+    private void registrarCambio(Reserva reserva) {
+        ocupacionIndex.registrar(reserva);
+        versionesDatos.cambio(Recurso.RESERVAS);
+        eventosDisponibilidad.publicar(reserva.getCancha().getId(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin());
+        if ("ACTIVA".equals(reserva.getEstado())) {
+            expiracionReservas.programar(reserva.getFecha(), reserva.getHoraFin());
+        }
+    }
+
+    private String determinarEstadoReserva(LocalDate fecha, LocalTime horaFin) {
+        return ReservaReglas.determinarEstadoReserva(fecha, horaFin, LocalDate.now(), LocalTime.now());
+    }
 
-        // Calcular el total de horas reservadas
-        long totalMinutos = 0;
+    // Reglas de una reserva nueva que no dependen de otras reservas (compartidas por create y createLote)
+    private void validarNuevaReserva(Cancha cancha, ReservaRequest reservaRequest, LocalDate hoy, LocalTime ahora) {
+        if (reservaRequest.getFecha() == null || reservaRequest.getHoraInicio() == null || reservaRequest.getHoraFin() == null) {
+            throw new RuntimeException("❌ La fecha, la hora de inicio y la hora de fin son obligatorias.");
+        }
 
-        for (Reserva reserva : reservasUsuario) {
-            // Excluir la reserva actual si estamos en modo edición
-            if (reservaIdExcluir != null && reserva.getId().equals(reservaIdExcluir)) {
-                continue;
+        // Validar que la fecha no sea en el pasado
+        if (reservaRequest.getFecha().isBefore(hoy)) {
+            throw new RuntimeException("❌ No se pueden crear reservas en fechas pasadas.");
+        }
+
+        // Validar que si es para hoy, la hora de inicio sea al menos 30 minutos en el futuro
+        if (reservaRequest.getFecha().isEqual(hoy)) {
+            LocalTime horaMinima = ahora.plusMinutes(30); // Mínimo 30 minutos de anticipación
+
+            if (reservaRequest.getHoraInicio().isBefore(horaMinima)) {
+                throw new RuntimeException("⏰ Para reservas del día actual, la hora de inicio debe ser al menos 30 minutos después de la hora actual (" +
+                        horaMinima + "). Por favor, seleccione una hora futura o cambie la fecha.");
             }
+        }
 
-            Duration duracion = Duration.between(reserva.getHoraInicio(), reserva.getHoraFin());
-            totalMinutos += duracion.toMinutes();
+        // Validar horario de atención de la cancha
+        if (!ReservaReglas.estaEnHorarioAtencion(cancha, reservaRequest.getHoraInicio(), reservaRequest.getHoraFin())) {
+            throw new ReservaRechazadaException(Motivo.FUERA_DE_HORARIO, "🚫 La reserva está fuera del horario de atención de la cancha. " +
+                    "Horario de atención: " + ReservaReglas.formatTimeForDisplay(cancha.getHoraApertura()) + " - " + ReservaReglas.formatTimeForDisplay(cancha.getHoraCierre()));
         }
 
-        // Agregar la duración de la nueva reserva
-        Duration duracionNueva = Duration.between(horaInicio, horaFin);
-        totalMinutos += duracionNueva.toMinutes();
+        // Validar que la hora de inicio sea antes de la hora de fin
+        if (!reservaRequest.getHoraInicio().isBefore(reservaRequest.getHoraFin())) {
+            throw new RuntimeException("❌ La hora de inicio debe ser anterior a la hora de fin.");
+        }
 
-        // Convertir a horas (120 minutos = 2 horas)
-        if (totalMinutos > 120) {
-            long horasActuales = totalMinutos / 60;
-            long minutosActuales = totalMinutos % 60;
-            throw new RuntimeException("⏰ Límite excedido: Máximo 2 horas de reserva por usuario en la misma cancha por día. " +
-                    "Tiempo total reservado: " + horasActuales + "h " + minutosActuales + "m");
+        // Validar duración máxima de 2 horas por reserva
+        Duration duracion = Duration.between(reservaRequest.getHoraInicio(), reservaRequest.getHoraFin());
+        if (duracion.toMinutes() > 120) {
+            throw new RuntimeException("⏰ La reserva no puede exceder las 2 horas de duración.");
         }
+
+        // Validar duración mínima de 30 minutos
+        if (duracion.toMinutes() < 30) {
+            throw new RuntimeException("⏰ La reserva debe tener una duración mínima de 30 minutos.");
+        }
+    }
+
+    private void validarLimiteHorasUsuario(Integer usuarioId, Integer canchaId, LocalDate fecha,
+                                           LocalTime horaInicio, LocalTime horaFin, Integer reservaIdExcluir) {
+        // Obtener todas las reservas del usuario para esta cancha en esta fecha (excluyendo CANCELADAS)
+        List<Reserva> reservasUsuario = reservaRepository.findByUsuarioIdAndCanchaIdAndFechaAndEstadoNot(
+                usuarioId, canchaId, fecha, "CANCELADA");
+
+        // Total de minutos del usuario en el día incluyendo la nueva reserva
+        long totalMinutos = ReservaReglas.minutosUsuario(reservasUsuario, reservaIdExcluir, horaInicio, horaFin);
+        ReservaReglas.validarTotalMinutosUsuario(totalMinutos);
     }
-}
\ No newline at end of file
+
+    // Reserva ya admitida de un día de cancha, para las validaciones en memoria del lote
+    private record Tramo(Integer usuarioId, LocalTime horaInicio, LocalTime horaFin) {}
+}
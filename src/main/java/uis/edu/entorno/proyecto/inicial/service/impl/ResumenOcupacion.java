@@ -0,0 +1,261 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.ResumenCanchaDia;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import uis.edu.entorno.proyecto.inicial.repository.BloqueoCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaHistorialRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ResumenCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.service.impl.CanchaDiaLocks.DiaCancha;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resumen diario por cancha (tabla resumen_cancha_dia): reservas, minutos reservados e ingresos
+ * de las reservas no canceladas. Se actualiza en la misma transacción y en los mismos puntos que el
+ * inventario de franjas, así los reportes leen estos agregados y nunca recorren la tabla reservas.
+ * Los ingresos usan el precio por hora guardado en cada reserva (el de la cancha al reservar): sumar, restar
+ * y reconstruir dan lo mismo aunque la cancha cambie de precio entre medias.
+ */
+@Component
+public class ResumenOcupacion {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenOcupacion.class);
+
+    private static final int MAXIMO_DIFERENCIAS = 100;
+    // La verificación lee las reservas por ventanas de días, no todo el histórico de una vez
+    private static final int DIAS_POR_VENTANA = 31;
+    private static final double TOLERANCIA_INGRESOS = 0.005;
+
+    private static final String UPSERT = "INSERT INTO resumen_cancha_dia " +
+            "(cancha_id, fecha, reservas, minutos_reservados, ingresos) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE reservas = reservas + ?, minutos_reservados = minutos_reservados + ?, " +
+            "ingresos = ingresos + ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResumenCanchaDiaRepository resumenCanchaDiaRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaHistorialRepository reservaHistorialRepository;
+
+    @Autowired
+    private BloqueoCanchaDiaRepository bloqueoCanchaDiaRepository;
+
+    @Autowired
+    private CanchaDiaLocks canchaDiaLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public void sumar(Reserva reserva) {
+        Map<DiaCancha, Acumulado> cambios = new HashMap<>();
+        acumular(cambios, reserva.getCancha().getId(), reserva.getFecha(), reserva.getHoraInicio(),
+                reserva.getHoraFin(), reserva.getPrecioHora(), 1);
+        aplicar(cambios);
+    }
+
+    public void restar(Reserva reserva) {
+        restar(reserva.getCancha().getId(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(),
+                reserva.getPrecioHora());
+    }
+
+    // Tramo anterior de una reserva que se está editando, con el precio con que se había sumado
+    public void restar(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, Double precioHora) {
+        Map<DiaCancha, Acumulado> cambios = new HashMap<>();
+        acumular(cambios, canchaId, fecha, horaInicio, horaFin, precioHora, -1);
+        aplicar(cambios);
+    }
+
+    // Un upsert por día de cancha distinto, enviado como un único batch JDBC
+    public void sumar(List<Reserva> reservas) {
+        Map<DiaCancha, Acumulado> cambios = new LinkedHashMap<>();
+        for (Reserva reserva : reservas) {
+            acumular(cambios, reserva.getCancha().getId(), reserva.getFecha(), reserva.getHoraInicio(),
+                    reserva.getHoraFin(), reserva.getPrecioHora(), 1);
+        }
+        aplicar(cambios);
+    }
+
+    public void restar(List<TramoReserva> tramos) {
+        Map<DiaCancha, Acumulado> cambios = new LinkedHashMap<>();
+        for (TramoReserva tramo : tramos) {
+            acumular(cambios, tramo.getCanchaId(), tramo.getFecha(), tramo.getHoraInicio(), tramo.getHoraFin(),
+                    tramo.getPrecioHora(), -1);
+        }
+        aplicar(cambios);
+    }
+
+    // Primer arranque con la tabla vacía: se calcula todo el histórico una vez
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        // Reservas guardadas antes de existir precio_hora: se les fija una vez el precio actual de su cancha
+        int sinPrecio = completarPrecios("reservas") + completarPrecios("reservas_historial");
+        if (sinPrecio > 0) {
+            log.info("Precio por hora asignado a {} reservas anteriores", sinPrecio);
+        }
+        if (resumenCanchaDiaRepository.count() == 0) {
+            VerificacionSlotsResponse resultado = verificar(null, null, true);
+            if (resultado.getDiasReconstruidos() > 0) {
+                log.info("Resumen de ocupación calculado para {} días de cancha", resultado.getDiasReconstruidos());
+            }
+        }
+    }
+
+    /**
+     * Recalcula desde cero los resúmenes del rango (null = sin límite) a partir de las reservas y los compara
+     * con los guardados, ventana por ventana. Como en el inventario de franjas, la lectura no es atómica frente
+     * a escrituras en curso; la reconstrucción de cada día sí se hace bajo el bloqueo de admisión.
+     */
+    public VerificacionSlotsResponse verificar(LocalDate desde, LocalDate hasta, boolean reparar) {
+        VerificacionSlotsResponse resultado = new VerificacionSlotsResponse();
+        LocalDate inicio = desde != null ? desde : extremo(false, reservaRepository.findPrimeraFecha(),
+                reservaHistorialRepository.findPrimeraFecha(), resumenCanchaDiaRepository.findPrimeraFecha());
+        LocalDate fin = hasta != null ? hasta : extremo(true, reservaRepository.findUltimaFecha(),
+                reservaHistorialRepository.findUltimaFecha(), resumenCanchaDiaRepository.findUltimaFecha());
+        if (inicio == null || fin == null) {
+            return resultado;
+        }
+        for (LocalDate ventana = inicio; !ventana.isAfter(fin); ventana = ventana.plusDays(DIAS_POR_VENTANA)) {
+            LocalDate finVentana = ventana.plusDays(DIAS_POR_VENTANA - 1);
+            verificarVentana(ventana, finVentana.isAfter(fin) ? fin : finVentana, reparar, resultado);
+        }
+        return resultado;
+    }
+
+    private void verificarVentana(LocalDate desde, LocalDate hasta, boolean reparar, VerificacionSlotsResponse resultado) {
+        // Las reservas archivadas siguen contando: se recalcula con ambas tablas
+        Map<DiaCancha, Acumulado> esperados = new HashMap<>();
+        for (TramoReserva tramo : reservaRepository.findTramosOcupadosEntre(desde, hasta)) {
+            acumular(esperados, tramo.getCanchaId(), tramo.getFecha(), tramo.getHoraInicio(), tramo.getHoraFin(),
+                    tramo.getPrecioHora(), 1);
+        }
+        for (TramoReserva tramo : reservaHistorialRepository.findTramosOcupadosEntre(desde, hasta)) {
+            acumular(esperados, tramo.getCanchaId(), tramo.getFecha(), tramo.getHoraInicio(), tramo.getHoraFin(),
+                    tramo.getPrecioHora(), 1);
+        }
+
+        Map<DiaCancha, Acumulado> registrados = new HashMap<>();
+        for (ResumenCanchaDia resumen : resumenCanchaDiaRepository.findEnRango(null, desde, hasta)) {
+            Acumulado acumulado = new Acumulado();
+            acumulado.reservas = resumen.getReservas();
+            acumulado.minutos = resumen.getMinutosReservados();
+            acumulado.ingresos = resumen.getIngresos();
+            registrados.put(new DiaCancha(resumen.getCanchaId(), resumen.getFecha()), acumulado);
+        }
+
+        Set<DiaCancha> dias = new HashSet<>(esperados.keySet());
+        dias.addAll(registrados.keySet());
+
+        resultado.setDiasRevisados(resultado.getDiasRevisados() + dias.size());
+        Acumulado vacio = new Acumulado();
+        for (DiaCancha dia : dias) {
+            Acumulado esperado = esperados.getOrDefault(dia, vacio);
+            Acumulado registrado = registrados.getOrDefault(dia, vacio);
+            if (esperado.igual(registrado)) {
+                continue;
+            }
+            resultado.setDiasConDiferencias(resultado.getDiasConDiferencias() + 1);
+            if (resultado.getDiferencias().size() < MAXIMO_DIFERENCIAS) {
+                resultado.getDiferencias().add("Cancha " + dia.canchaId() + " " + dia.fecha() +
+                        ": esperado " + esperado + ", registrado " + registrado);
+            }
+            if (reparar) {
+                reconstruirDia(dia.canchaId(), dia.fecha());
+                resultado.setDiasReconstruidos(resultado.getDiasReconstruidos() + 1);
+            }
+        }
+    }
+
+    // Recalcula el resumen de un día de cancha desde sus reservas, con el mismo bloqueo que la admisión
+    public void reconstruirDia(Integer canchaId, LocalDate fecha) {
+        canchaDiaLocks.ejecutar(canchaId, fecha, () -> transactionTemplate.execute(status -> {
+            bloqueoCanchaDiaRepository.asegurar(canchaId, fecha);
+            bloqueoCanchaDiaRepository.bloquear(canchaId, fecha);
+
+            List<TramoReserva> tramos = new ArrayList<>(reservaRepository.findTramosOcupadosDelDia(canchaId, fecha));
+            tramos.addAll(reservaHistorialRepository.findTramosOcupadosDelDia(canchaId, fecha));
+            Map<DiaCancha, Acumulado> cambios = new HashMap<>();
+            for (TramoReserva tramo : tramos) {
+                acumular(cambios, canchaId, fecha, tramo.getHoraInicio(), tramo.getHoraFin(), tramo.getPrecioHora(), 1);
+            }
+            resumenCanchaDiaRepository.deleteByCanchaIdAndFecha(canchaId, fecha);
+            aplicar(cambios);
+            return null;
+        }));
+    }
+
+    private int completarPrecios(String tabla) {
+        return jdbcTemplate.update("UPDATE " + tabla + " r SET precio_hora = " +
+                "(SELECT c.precio_hora FROM canchas c WHERE c.id = r.cancha_id) WHERE r.precio_hora IS NULL");
+    }
+
+    // Menor (o mayor) de las fechas no nulas; null si ninguna tabla tiene filas
+    private static LocalDate extremo(boolean mayor, LocalDate... fechas) {
+        LocalDate extremo = null;
+        for (LocalDate fecha : fechas) {
+            if (fecha != null && (extremo == null || (mayor ? fecha.isAfter(extremo) : fecha.isBefore(extremo)))) {
+                extremo = fecha;
+            }
+        }
+        return extremo;
+    }
+
+    private void aplicar(Map<DiaCancha, Acumulado> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        List<Object[]> filas = new ArrayList<>(cambios.size());
+        cambios.forEach((dia, cambio) -> filas.add(new Object[]{dia.canchaId(), dia.fecha(),
+                cambio.reservas, cambio.minutos, cambio.ingresos, cambio.reservas, cambio.minutos, cambio.ingresos}));
+        jdbcTemplate.batchUpdate(UPSERT, filas);
+    }
+
+    private static void acumular(Map<DiaCancha, Acumulado> cambios, Integer canchaId, LocalDate fecha,
+                                 LocalTime horaInicio, LocalTime horaFin, Double precioHora, int signo) {
+        int minutos = BarridoOcupacion.minutos(horaFin) - BarridoOcupacion.minutos(horaInicio);
+        Acumulado acumulado = cambios.computeIfAbsent(new DiaCancha(canchaId, fecha), k -> new Acumulado());
+        acumulado.reservas += signo;
+        acumulado.minutos += signo * minutos;
+        acumulado.ingresos += signo * (precioHora != null ? precioHora : 0.0) * minutos / 60.0;
+    }
+
+    private static final class Acumulado {
+        private int reservas;
+        private int minutos;
+        private double ingresos;
+
+        boolean igual(Acumulado otro) {
+            return reservas == otro.reservas && minutos == otro.minutos
+                    && Math.abs(ingresos - otro.ingresos) < TOLERANCIA_INGRESOS;
+        }
+
+        @Override
+        public String toString() {
+            return reservas + " reservas, " + minutos + " min, $" + String.format("%.2f", ingresos);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.SesionUsuario;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sesiones abiertas en memoria, por token.
+ * Cada token guarda la proyección del usuario (id, rol, nombre), así que resolverlo no consulta
+ * la tabla usuarios. Una sesión vence tras ttl-ms sin uso; al superar max-sesiones se descarta
+ * la usada hace más tiempo. Es memoria de este nodo: al reiniciar hay que volver a iniciar sesión.
+ */
+@Component
+public class SesionesActivas {
+
+    private final Map<String, Entrada> sesiones;
+    private final long ttlNanos;
+
+    public SesionesActivas(@Value("${reservas.sesiones.max-sesiones:10000}") int maxSesiones,
+                           @Value("${reservas.sesiones.ttl-ms:1800000}") long ttlMs) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.sesiones = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > maxSesiones;
+            }
+        };
+    }
+
+    public String abrir(Usuario usuario) {
+        String token = generarToken();
+        Entrada entrada = new Entrada(new SesionUsuario(usuario.getId(), usuario.getRol(), usuario.getNombre()));
+        entrada.usadaEn = System.nanoTime();
+        synchronized (sesiones) {
+            sesiones.put(token, entrada);
+        }
+        return token;
+    }
+
+    /**
+     * @return la sesión del token, o null si no existe o ya venció; cada uso renueva el plazo
+     */
+    public SesionUsuario resolver(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long ahora = System.nanoTime();
+        synchronized (sesiones) {
+            Entrada entrada = sesiones.get(token);
+            if (entrada == null) {
+                return null;
+            }
+            if (ahora - entrada.usadaEn >= ttlNanos) {
+                sesiones.remove(token);
+                return null;
+            }
+            entrada.usadaEn = ahora;
+            return entrada.sesion;
+        }
+    }
+
+    public void cerrar(String token) {
+        if (token == null) {
+            return;
+        }
+        synchronized (sesiones) {
+            sesiones.remove(token);
+        }
+    }
+
+    // Al editar o eliminar un usuario sus sesiones guardan datos viejos (rol, nombre): se cierran todas
+    public void cerrarDeUsuario(Integer usuarioId) {
+        synchronized (sesiones) {
+            sesiones.values().removeIf(entrada -> entrada.sesion.getId().equals(usuarioId));
+        }
+    }
+
+    public int getSesionesAbiertas() {
+        synchronized (sesiones) {
+            return sesiones.size();
+        }
+    }
+
+    private String generarToken() {
+        // UUID aleatorio (SecureRandom): no se puede adivinar a partir de otros tokens
+        return "token-" + UUID.randomUUID();
+    }
+
+    private static final class Entrada {
+        private final SesionUsuario sesion;
+        private long usadaEn;
+
+        Entrada(SesionUsuario sesion) {
+            this.sesion = sesion;
+        }
+    }
+}
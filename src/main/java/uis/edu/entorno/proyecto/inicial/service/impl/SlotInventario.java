@@ -0,0 +1,344 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException.Motivo;
+import uis.edu.entorno.proyecto.inicial.model.OcupacionSlot;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.IntervaloReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.TramoReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.VerificacionSlotsResponse;
+import uis.edu.entorno.proyecto.inicial.repository.BloqueoCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.OcupacionSlotRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+import uis.edu.entorno.proyecto.inicial.service.impl.CanchaDiaLocks.DiaCancha;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inventario de cupos por franja de 30 minutos (tabla ocupacion_slots): cada contador es el número
+ * de reservas que tocan la franja, una cota superior de su ocupación simultánea.
+ * La admisión es un UPDATE condicional sobre las franjas cubiertas: si todas tienen menos reservas
+ * que cupos, el tramo cabe seguro. Si alguna está al límite, dos reservas que la tocan pueden no
+ * coincidir (18:00–18:15 y 18:15–18:45), así que decide el barrido exacto sobre las reservas del día
+ * leídas de la BD bajo el bloqueo de admisión, el mismo modelo que el índice en memoria. En ambos
+ * casos la BD garantiza la capacidad aunque el índice de un nodo esté desactualizado.
+ */
+@Component
+public class SlotInventario {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotInventario.class);
+
+    static final int MINUTOS_SLOT = 30;
+    private static final int SLOTS_POR_DIA = 24 * 60 / MINUTOS_SLOT;
+    private static final int MAXIMO_DIFERENCIAS = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private OcupacionSlotRepository ocupacionSlotRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private BloqueoCanchaDiaRepository bloqueoCanchaDiaRepository;
+
+    @Autowired
+    private CanchaDiaLocks canchaDiaLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ocupa un cupo en cada franja del tramo. Debe llamarse dentro de la transacción de admisión, con el
+     * bloqueo del día tomado: si devuelve false el llamador lanza la excepción y se revierten los cambios.
+     * @param reservaIdExcluir reserva que se está modificando (su fila aún tiene el tramo anterior), o null
+     */
+    public boolean reservar(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, int capacidad,
+                            Integer reservaIdExcluir) {
+        List<LocalTime> slots = slotsCubiertos(horaInicio, horaFin);
+        asegurarSlots(canchaId, fecha, slots);
+        int ocupados = ocupacionSlotRepository.incrementar(canchaId, fecha, slots.get(0), horaFin, capacidad);
+        if (ocupados == slots.size()) {
+            return true;
+        }
+        Tramo tramo = new Tramo(horaInicio, horaFin);
+        return admitirConBarrido(canchaId, fecha, capacidad, reservaIdExcluir, List.of(tramo), List.of(tramo));
+    }
+
+    /**
+     * Suma en bloque las franjas de reservas ya insertadas bajo los bloqueos de sus días (lote, serie):
+     * crea las filas que falten y aplica por franja el mismo UPDATE condicional que la admisión individual,
+     * ambos como batches JDBC. Los días con alguna franja al límite se deciden con el barrido exacto;
+     * si alguno no cabe se lanza la excepción y se revierte la transacción del lote.
+     */
+    public void sumar(List<Reserva> reservas) {
+        Map<OcupacionSlot.Clave, Integer> incrementos = new LinkedHashMap<>();
+        Map<DiaCancha, List<Tramo>> tramosPorDia = new HashMap<>();
+        Map<Integer, Integer> capacidades = new HashMap<>();
+        for (Reserva reserva : reservas) {
+            Integer canchaId = reserva.getCancha().getId();
+            acumular(incrementos, canchaId, reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin());
+            tramosPorDia.computeIfAbsent(new DiaCancha(canchaId, reserva.getFecha()), k -> new ArrayList<>())
+                    .add(new Tramo(reserva.getHoraInicio(), reserva.getHoraFin()));
+            capacidades.put(canchaId, reserva.getCancha().getCapacidad());
+        }
+        if (incrementos.isEmpty()) {
+            return;
+        }
+
+        List<OcupacionSlot.Clave> claves = new ArrayList<>(incrementos.keySet());
+        List<Object[]> nuevas = new ArrayList<>(claves.size());
+        List<Object[]> condicionales = new ArrayList<>(claves.size());
+        for (OcupacionSlot.Clave clave : claves) {
+            int cantidad = incrementos.get(clave);
+            nuevas.add(new Object[]{clave.getCanchaId(), clave.getFecha(), clave.getSlotInicio()});
+            condicionales.add(new Object[]{cantidad, clave.getCanchaId(), clave.getFecha(), clave.getSlotInicio(),
+                    cantidad, capacidades.get(clave.getCanchaId())});
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO ocupacion_slots (cancha_id, fecha, slot_inicio, reservados) VALUES (?, ?, ?, 0)", nuevas);
+        int[] filas = jdbcTemplate.batchUpdate("UPDATE ocupacion_slots SET reservados = reservados + ? " +
+                "WHERE cancha_id = ? AND fecha = ? AND slot_inicio = ? AND reservados + ? <= ?", condicionales);
+
+        // Un conteo distinto de 1 (franja al límite o sin información del driver) obliga a revisar el día
+        Set<DiaCancha> alLimite = new LinkedHashSet<>();
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] != 1) {
+                alLimite.add(new DiaCancha(claves.get(i).getCanchaId(), claves.get(i).getFecha()));
+            }
+        }
+        for (DiaCancha dia : alLimite) {
+            if (!admitirConBarrido(dia.canchaId(), dia.fecha(), capacidades.get(dia.canchaId()), null,
+                    List.of(), tramosPorDia.get(dia))) {
+                throw new ReservaRechazadaException(Motivo.SIN_CUPO, "🔒 La cancha " + dia.canchaId() +
+                        " ya no tiene cupo el " + dia.fecha() + " para todas las reservas del lote.");
+            }
+        }
+    }
+
+    // Inverso de sumar: devuelve en un batch JDBC los cupos de reservas que dejan de ocupar
+    public void restar(List<TramoReserva> tramos) {
+        Map<OcupacionSlot.Clave, Integer> decrementos = new LinkedHashMap<>();
+        for (TramoReserva tramo : tramos) {
+            acumular(decrementos, tramo.getCanchaId(), tramo.getFecha(), tramo.getHoraInicio(), tramo.getHoraFin());
+        }
+        List<Object[]> filas = new ArrayList<>(decrementos.size());
+        decrementos.forEach((clave, cantidad) ->
+                filas.add(new Object[]{cantidad, clave.getCanchaId(), clave.getFecha(), clave.getSlotInicio()}));
+        jdbcTemplate.batchUpdate("UPDATE ocupacion_slots SET reservados = GREATEST(reservados - ?, 0) " +
+                "WHERE cancha_id = ? AND fecha = ? AND slot_inicio = ?", filas);
+    }
+
+    public void liberar(Integer canchaId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        ocupacionSlotRepository.decrementar(canchaId, fecha, inicioDeSlot(horaInicio), horaFin);
+    }
+
+    // Al arrancar se completa el inventario (p. ej. reservas anteriores a la tabla de franjas)
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        reconciliar();
+    }
+
+    @Scheduled(cron = "${reservas.slots.reconciliar-cron:0 30 3 * * *}")
+    public void reconciliar() {
+        VerificacionSlotsResponse resultado = verificar(LocalDate.now(), true);
+        if (resultado.getDiasReconstruidos() > 0) {
+            log.warn("Inventario de franjas corregido en {} días de cancha", resultado.getDiasReconstruidos());
+        }
+    }
+
+    /**
+     * Compara los contadores con las reservas no canceladas desde la fecha dada.
+     * Las dos lecturas no son atómicas frente a reservas en curso, por lo que una diferencia puede ser
+     * transitoria; la reconstrucción de cada día sí se hace bajo el bloqueo de admisión.
+     */
+    public VerificacionSlotsResponse verificar(LocalDate desde, boolean reparar) {
+        Map<DiaCancha, int[]> esperados = new HashMap<>();
+        for (TramoReserva tramo : reservaRepository.findTramosOcupadosDesde(desde)) {
+            int[] conteos = esperados.computeIfAbsent(new DiaCancha(tramo.getCanchaId(), tramo.getFecha()),
+                    k -> new int[SLOTS_POR_DIA]);
+            sumarTramo(conteos, tramo.getHoraInicio(), tramo.getHoraFin());
+        }
+
+        Map<DiaCancha, int[]> registrados = new HashMap<>();
+        for (OcupacionSlot slot : ocupacionSlotRepository.findByFechaGreaterThanEqual(desde)) {
+            int[] conteos = registrados.computeIfAbsent(new DiaCancha(slot.getCanchaId(), slot.getFecha()),
+                    k -> new int[SLOTS_POR_DIA]);
+            conteos[indiceSlot(slot.getSlotInicio())] = slot.getReservados();
+        }
+
+        Set<DiaCancha> dias = new HashSet<>(esperados.keySet());
+        dias.addAll(registrados.keySet());
+
+        VerificacionSlotsResponse resultado = new VerificacionSlotsResponse();
+        resultado.setDiasRevisados(dias.size());
+        int[] vacio = new int[SLOTS_POR_DIA];
+        for (DiaCancha dia : dias) {
+            int[] esperado = esperados.getOrDefault(dia, vacio);
+            int[] registrado = registrados.getOrDefault(dia, vacio);
+            boolean difiere = false;
+            for (int i = 0; i < SLOTS_POR_DIA; i++) {
+                if (esperado[i] != registrado[i]) {
+                    difiere = true;
+                    if (resultado.getDiferencias().size() < MAXIMO_DIFERENCIAS) {
+                        resultado.getDiferencias().add("Cancha " + dia.canchaId() + " " + dia.fecha() + " " +
+                                LocalTime.MIN.plusMinutes((long) i * MINUTOS_SLOT) +
+                                ": esperado " + esperado[i] + ", registrado " + registrado[i]);
+                    }
+                }
+            }
+            if (difiere) {
+                resultado.setDiasConDiferencias(resultado.getDiasConDiferencias() + 1);
+                if (reparar) {
+                    reconstruirDia(dia.canchaId(), dia.fecha());
+                    resultado.setDiasReconstruidos(resultado.getDiasReconstruidos() + 1);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Recalcula las franjas de un día de cancha desde las reservas, con el mismo bloqueo que la admisión
+    public void reconstruirDia(Integer canchaId, LocalDate fecha) {
+        canchaDiaLocks.ejecutar(canchaId, fecha, () -> transactionTemplate.execute(status -> {
+            bloqueoCanchaDiaRepository.asegurar(canchaId, fecha);
+            bloqueoCanchaDiaRepository.bloquear(canchaId, fecha);
+            escribirDia(canchaId, fecha, tramosDelDia(canchaId, fecha, null));
+            return null;
+        }));
+    }
+
+    /**
+     * Decisión exacta cuando algún contador está al límite: cada tramo a comprobar cabe si el máximo
+     * de reservas simultáneas dentro de él no supera la capacidad. Se cuentan las reservas del día en
+     * la BD (leídas bajo el bloqueo) más las pendientes de insertar; si todo cabe, las franjas del día
+     * se reescriben con los conteos exactos.
+     */
+    private boolean admitirConBarrido(Integer canchaId, LocalDate fecha, int capacidad, Integer reservaIdExcluir,
+                                      List<Tramo> pendientes, List<Tramo> comprobar) {
+        List<Tramo> delDia = tramosDelDia(canchaId, fecha, reservaIdExcluir);
+        delDia.addAll(pendientes);
+        for (Tramo tramo : comprobar) {
+            BarridoOcupacion barrido = new BarridoOcupacion(tramo.horaInicio(), tramo.horaFin(), delDia.size());
+            for (Tramo otro : delDia) {
+                barrido.agregar(otro.horaInicio(), otro.horaFin());
+            }
+            if (barrido.pico() > capacidad) {
+                return false;
+            }
+        }
+        escribirDia(canchaId, fecha, delDia);
+        return true;
+    }
+
+    private List<Tramo> tramosDelDia(Integer canchaId, LocalDate fecha, Integer reservaIdExcluir) {
+        List<Tramo> tramos = new ArrayList<>();
+        for (IntervaloReserva intervalo : reservaRepository
+                .findIntervalosByCanchaIdAndFechaAndEstadoNot(canchaId, fecha, "CANCELADA")) {
+            if (!intervalo.getId().equals(reservaIdExcluir)) {
+                tramos.add(new Tramo(intervalo.getHoraInicio(), intervalo.getHoraFin()));
+            }
+        }
+        return tramos;
+    }
+
+    // Reemplaza las franjas de un día por los conteos de sus tramos: un DELETE y un INSERT en batch
+    private void escribirDia(Integer canchaId, LocalDate fecha, List<Tramo> tramos) {
+        int[] conteos = new int[SLOTS_POR_DIA];
+        for (Tramo tramo : tramos) {
+            sumarTramo(conteos, tramo.horaInicio(), tramo.horaFin());
+        }
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < SLOTS_POR_DIA; i++) {
+            if (conteos[i] > 0) {
+                filas.add(new Object[]{canchaId, fecha, LocalTime.MIN.plusMinutes((long) i * MINUTOS_SLOT), conteos[i]});
+            }
+        }
+        jdbcTemplate.update("DELETE FROM ocupacion_slots WHERE cancha_id = ? AND fecha = ?", canchaId, fecha);
+        jdbcTemplate.batchUpdate("INSERT INTO ocupacion_slots (cancha_id, fecha, slot_inicio, reservados) VALUES (?, ?, ?, ?)", filas);
+    }
+
+    // Crea en una sola sentencia las filas que falten para las franjas del tramo
+    private void asegurarSlots(Integer canchaId, LocalDate fecha, List<LocalTime> slots) {
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO ocupacion_slots (cancha_id, fecha, slot_inicio, reservados) VALUES ");
+        for (int i = 0; i < slots.size(); i++) {
+            int p = i * 3;
+            sql.append(i > 0 ? ", " : "").append("(?").append(p + 1).append(", ?").append(p + 2)
+                    .append(", ?").append(p + 3).append(", 0)");
+        }
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < slots.size(); i++) {
+            int p = i * 3;
+            insert.setParameter(p + 1, canchaId);
+            insert.setParameter(p + 2, fecha);
+            insert.setParameter(p + 3, slots.get(i));
+        }
+        insert.executeUpdate();
+    }
+
+    // Franjas cuyo inicio cae en [inicio redondeado a la franja, horaFin); mismos índices que sumarTramo
+    static List<LocalTime> slotsCubiertos(LocalTime horaInicio, LocalTime horaFin) {
+        int desde = indiceSlot(horaInicio);
+        int hasta = ultimoSlot(horaFin);
+        List<LocalTime> slots = new ArrayList<>(Math.max(hasta - desde + 1, 0));
+        for (int i = desde; i <= hasta; i++) {
+            slots.add(LocalTime.MIN.plusMinutes((long) i * MINUTOS_SLOT));
+        }
+        return slots;
+    }
+
+    private static void acumular(Map<OcupacionSlot.Clave, Integer> cantidades, Integer canchaId, LocalDate fecha,
+                                 LocalTime horaInicio, LocalTime horaFin) {
+        for (LocalTime slot : slotsCubiertos(horaInicio, horaFin)) {
+            cantidades.merge(new OcupacionSlot.Clave(canchaId, fecha, slot), 1, Integer::sum);
+        }
+    }
+
+    private static void sumarTramo(int[] conteos, LocalTime horaInicio, LocalTime horaFin) {
+        int desde = indiceSlot(horaInicio);
+        int hasta = ultimoSlot(horaFin);
+        for (int i = desde; i <= hasta; i++) {
+            conteos[i]++;
+        }
+    }
+
+    // Franja que contiene el último minuto del tramo (el fin es exclusivo)
+    private static int ultimoSlot(LocalTime horaFin) {
+        return (horaFin.toSecondOfDay() / 60 - 1) / MINUTOS_SLOT;
+    }
+
+    private static LocalTime inicioDeSlot(LocalTime hora) {
+        return LocalTime.MIN.plusMinutes((long) indiceSlot(hora) * MINUTOS_SLOT);
+    }
+
+    private static int indiceSlot(LocalTime hora) {
+        return (hora.getHour() * 60 + hora.getMinute()) / MINUTOS_SLOT;
+    }
+
+    private record Tramo(LocalTime horaInicio, LocalTime horaFin) {}
+}
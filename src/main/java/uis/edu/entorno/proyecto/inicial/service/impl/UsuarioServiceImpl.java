@@ -1,12 +1,19 @@
 package uis.edu.entorno.proyecto.inicial.service.impl;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.exception.UsuarioDuplicadoException;
+import uis.edu.entorno.proyecto.inicial.exception.UsuarioDuplicadoException.Campo;
 import uis.edu.entorno.proyecto.inicial.model.Usuario;
 import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
 import uis.edu.entorno.proyecto.inicial.service.IUsuarioService;
+import uis.edu.entorno.proyecto.inicial.service.impl.VersionesDatos.Recurso;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -15,6 +22,12 @@ public class UsuarioServiceImpl implements IUsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private VersionesDatos versionesDatos;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Override
     public List<Usuario> findAll() {
         return usuarioRepository.findAll();
@@ -40,19 +53,25 @@ public class UsuarioServiceImpl implements IUsuarioService {
         return usuarioRepository.findByUsuario(usuario);
     }
 
+    // Sin consultas previas de duplicados: el INSERT choca con las restricciones únicas y se traduce el error
     @Override
     public Usuario create(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        Usuario creado = guardar(usuario);
+        versionesDatos.cambio(Recurso.USUARIOS);
+        return creado;
     }
 
     @Override
     public Usuario update(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        Usuario actualizado = guardar(usuario);
+        versionesDatos.cambio(Recurso.USUARIOS);
+        return actualizado;
     }
 
     @Override
     public void delete(Integer id) {
         usuarioRepository.deleteById(id);
+        versionesDatos.cambio(Recurso.USUARIOS);
     }
 
     @Override
@@ -69,4 +88,51 @@ public class UsuarioServiceImpl implements IUsuarioService {
     public boolean existsByUsuario(String usuario) {
         return usuarioRepository.existsByUsuario(usuario);
     }
-}
\ No newline at end of file
+
+    // Cada guardado en su propia transacción: si falla, el rollback limpia la sesión abierta de la petición
+    // (open-in-view) y las consultas siguientes, o el resto de un lote, no arrastran la entidad rechazada
+    private Usuario guardar(Usuario usuario) {
+        try {
+            return transactionTemplate.execute(status -> usuarioRepository.saveAndFlush(usuario));
+        } catch (DataIntegrityViolationException e) {
+            Campo campo = campoDuplicado(e, usuario);
+            if (campo == null) {
+                throw e;
+            }
+            throw new UsuarioDuplicadoException(campo);
+        }
+    }
+
+    /**
+     * Campo que provocó la violación. Primero por el nombre de la restricción (uk_usuarios_*, declarados
+     * en Usuario; H2 le agrega un sufijo de índice). Las tablas creadas antes de fijar esos nombres
+     * conservan los UK... generados por Hibernate, y entonces se pregunta a la BD cuál choca.
+     * Las consultas extra solo ocurren en el camino de error.
+     */
+    private Campo campoDuplicado(DataIntegrityViolationException e, Usuario usuario) {
+        if (e.getCause() instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null) {
+            String nombre = violacion.getConstraintName().toLowerCase(Locale.ROOT);
+            String indice = nombre.substring(nombre.lastIndexOf('.') + 1);
+            for (Campo campo : Campo.values()) {
+                if (indice.startsWith(campo.getRestriccion())) {
+                    return campo;
+                }
+            }
+        }
+        if (chocaCon(usuarioRepository.findByCedula(usuario.getCedula()), usuario)) {
+            return Campo.CEDULA;
+        }
+        if (chocaCon(usuarioRepository.findByEmail(usuario.getEmail()), usuario)) {
+            return Campo.EMAIL;
+        }
+        if (chocaCon(usuarioRepository.findByUsuario(usuario.getUsuario()), usuario)) {
+            return Campo.USUARIO;
+        }
+        return null;
+    }
+
+    // En una edición el propio registro no cuenta como duplicado
+    private static boolean chocaCon(Optional<Usuario> existente, Usuario usuario) {
+        return existente.isPresent() && !existente.get().getId().equals(usuario.getId());
+    }
+}
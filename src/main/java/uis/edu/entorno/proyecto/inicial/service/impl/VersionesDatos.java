@@ -0,0 +1,84 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de versión de canchas, reservas y usuarios para los ETag de los GET de la API.
+ * Cada escritura de los servicios (y de los procesos programados que cambian reservas) incrementa
+ * el contador después del commit; con el ETag de la petición igual al actual se responde 304
+ * sin consultar la BD. Los contadores son del nodo: un cambio hecho en otro nodo no los mueve,
+ * así que cada ETag lleva además el periodo de api.etag.ttl-ms en curso y caduca al terminar
+ * (como el catálogo de canchas con su TTL): lo escrito en otro nodo se ve a más tardar un TTL después.
+ */
+@Component
+public class VersionesDatos {
+
+    public enum Recurso { CANCHAS, RESERVAS, USUARIOS }
+
+    // Los contadores vuelven a cero al reiniciar: el arranque evita repetir ETags de la ejecución anterior
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray versiones = new AtomicLongArray(Recurso.values().length);
+
+    @Autowired
+    private CanchaCatalogo canchaCatalogo;
+
+    @Value("${api.etag.ttl-ms:60000}")
+    private long ttlMs;
+
+    // Dentro de una transacción se espera al commit: antes, un lector podría etiquetar datos viejos con la versión nueva
+    public void cambio(Recurso recurso) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versiones.incrementAndGet(recurso.ordinal());
+                }
+            });
+        } else {
+            versiones.incrementAndGet(recurso.ordinal());
+        }
+    }
+
+    public long version(Recurso recurso) {
+        return versiones.get(recurso.ordinal());
+    }
+
+    // Periodo del reloj de pared, no del arranque: todos los nodos cambian de periodo a la vez
+    private String periodo() {
+        return Long.toString(System.currentTimeMillis() / ttlMs, 36);
+    }
+
+    /**
+     * El estado de las canchas depende de la hora (abierta o cerrada), así que el ETag incluye
+     * el fin de la vigencia de la vista del catálogo: cambia en la próxima apertura o cierre.
+     * @return null si el catálogo no cabe en memoria (sin ETag)
+     */
+    public String etagCanchas() {
+        long version = version(Recurso.CANCHAS);
+        LocalDateTime vigenteHasta = canchaCatalogo.vigenteHasta();
+        return vigenteHasta != null ? "c-" + arranque + "-" + periodo() + "-" + version + "-"
+                + vigenteHasta.toLocalTime().toSecondOfDay() + "-" + vigenteHasta.toLocalDate().toEpochDay() : null;
+    }
+
+    // Las respuestas de reservas incluyen nombres de usuario y de cancha
+    public String etagReservas() {
+        return "r-" + arranque + "-" + periodo() + "-" + version(Recurso.RESERVAS) + "-" + version(Recurso.USUARIOS) + "-" + version(Recurso.CANCHAS);
+    }
+
+    public String etagUsuarios() {
+        return "u-" + arranque + "-" + periodo() + "-" + version(Recurso.USUARIOS);
+    }
+
+    // 304 si If-None-Match coincide con la versión actual; sin ETag (catálogo fuera de memoria) siempre se responde
+    public static boolean sinCambios(WebRequest request, String etag) {
+        return etag != null && request.checkNotModified(etag);
+    }
+}
@@ -0,0 +1,36 @@
+package uis.edu.entorno.proyecto.inicial.config;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Aserciones sobre el número exacto de sentencias SQL.
+ * Con MockMvc se lee la cabecera X-SQL-Statements (requiere reservas.sql.cabecera=true);
+ * fuera de una petición se mide el bloque directamente.
+ */
+public final class SentenciasSqlAssert {
+
+	private SentenciasSqlAssert() {
+	}
+
+	public static ResultMatcher sentenciasSql(int esperadas) {
+		return resultado -> {
+			String cabecera = resultado.getResponse().getHeader(FiltroSentenciasSql.CABECERA);
+			assertNotNull(cabecera, "La respuesta no trae " + FiltroSentenciasSql.CABECERA);
+			assertEquals(esperadas, Integer.parseInt(cabecera), "Sentencias SQL de "
+					+ resultado.getRequest().getMethod() + " " + resultado.getRequest().getRequestURI());
+		};
+	}
+
+	public static <T> T assertSentenciasSql(int esperadas, Supplier<T> bloque) {
+		try (SentenciasSql.Medicion medicion = SentenciasSql.iniciar()) {
+			T valor = bloque.get();
+			assertEquals(esperadas, medicion.getSentencias(), "Sentencias SQL del bloque");
+			return valor;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package uis.edu.entorno.proyecto.inicial.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static uis.edu.entorno.proyecto.inicial.config.SentenciasSqlAssert.sentenciasSql;
+
+/**
+ * Número exacto de sentencias SQL por endpoint contra H2.
+ * Si un cambio agrega una consulta (N+1, findById repetido, carga perezosa) esta prueba falla.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sentencias;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000",
+		"reservas.sql.cabecera=true"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class SentenciasSqlPorEndpointTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final String fecha = LocalDate.now().plusDays(1).toString();
+	private int usuarioId;
+	private int canchaId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		usuarioId = crear("/api/usuarios", "{\"cedula\":\"1\",\"nombre\":\"Ana\",\"email\":\"ana@x.co\","
+				+ "\"usuario\":\"ana\",\"contraseña\":\"1\",\"rol\":\"USER\"}");
+		canchaId = crear("/api/canchas", "{\"nombre\":\"C1\",\"deporte\":\"Fútbol\",\"ubicacion\":\"Norte\","
+				+ "\"precioHora\":40000,\"capacidad\":2,\"horaApertura\":\"06:00:00\",\"horaCierre\":\"22:00:00\"}");
+	}
+
+	@Test
+	void crearReserva() throws Exception {
+		mvc.perform(post("/api/reservas").contentType(MediaType.APPLICATION_JSON).content(reserva("18:00", "19:00")))
+				.andExpect(status().isOk())
+				.andExpect(sentenciasSql(10));
+
+		// Con el día ya en el índice no se vuelve a leer la ocupación: ocupacion_slots garantiza el cupo en la BD
+		mvc.perform(post("/api/reservas").contentType(MediaType.APPLICATION_JSON).content(reserva("19:00", "20:00")))
+				.andExpect(status().isOk())
+				.andExpect(sentenciasSql(9));
+	}
+
+	@Test
+	void listarReservas() throws Exception {
+		crear("/api/reservas", reserva("18:00", "19:00"));
+		crear("/api/reservas", reserva("19:00", "20:00"));
+
+		mvc.perform(get("/api/reservas")).andExpect(status().isOk()).andExpect(sentenciasSql(1));
+		// El corte del historial se lee en cada listado (otro nodo pudo archivar): MAX(fecha) + las reservas vivas
+		mvc.perform(get("/api/reservas/usuario/" + usuarioId)).andExpect(status().isOk()).andExpect(sentenciasSql(2));
+	}
+
+	@Test
+	void editarReserva() throws Exception {
+		int id = crear("/api/reservas", reserva("18:00", "19:00"));
+
+		// La reserva sale con su usuario y su cancha en un SELECT; la respuesta no dispara cargas perezosas
+		mvc.perform(put("/api/reservas/" + id).contentType(MediaType.APPLICATION_JSON).content(reserva("19:00", "20:00")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.nombreUsuario").value("Ana"))
+				.andExpect(jsonPath("$.data.nombreCancha").value("C1"))
+				.andExpect(sentenciasSql(10));
+
+		mvc.perform(put("/api/reservas/" + id + "/estado").contentType(MediaType.TEXT_PLAIN).content("CANCELADA"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.nombreUsuario").value("Ana"))
+				.andExpect(jsonPath("$.data.estado").value("CANCELADA"))
+				.andExpect(sentenciasSql(6));
+	}
+
+	@Test
+	void paginarPorCursor() throws Exception {
+		int primera = crear("/api/reservas", reserva("18:00", "19:00"));
+		int segunda = crear("/api/reservas", reserva("19:00", "20:00"));
+
+		// Una sola consulta por página, con solo los filtros pedidos y la posición del cursor
+		String url = "/api/reservas?limite=1&usuarioId=" + usuarioId + "&canchaId=" + canchaId + "&desde=" + fecha;
+		String respuesta = mvc.perform(get(url)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.items.length()").value(1))
+				.andExpect(jsonPath("$.data.items[0].id").value(primera))
+				.andExpect(sentenciasSql(1))
+				.andReturn().getResponse().getContentAsString();
+		String cursor = objectMapper.readTree(respuesta).path("data").path("siguienteCursor").asText();
+
+		mvc.perform(get(url + "&cursor=" + cursor)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.items.length()").value(1))
+				.andExpect(jsonPath("$.data.items[0].id").value(segunda))
+				.andExpect(jsonPath("$.data.siguienteCursor").doesNotExist())
+				.andExpect(sentenciasSql(1));
+	}
+
+	@Test
+	void registrarUsuario() throws Exception {
+		// Sin consultas previas de duplicados: solo el INSERT
+		mvc.perform(post("/api/auth/registro").contentType(MediaType.APPLICATION_JSON).content(usuario("2", "bea", "bea@x.co")))
+				.andExpect(status().isOk())
+				.andExpect(sentenciasSql(1));
+
+		mvc.perform(post("/api/auth/registro").contentType(MediaType.APPLICATION_JSON).content(usuario("3", "bea", "otra@x.co")))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Ya existe un usuario con este nombre de usuario"));
+	}
+
+	@Test
+	void canchasDesdeElCatalogo() throws Exception {
+		// La primera lectura carga el catálogo; la siguiente sale de memoria
+		mvc.perform(get("/api/canchas")).andExpect(status().isOk()).andExpect(sentenciasSql(1));
+		mvc.perform(get("/api/canchas/" + canchaId)).andExpect(status().isOk()).andExpect(sentenciasSql(0));
+	}
+
+	@Test
+	void cuposDesdeMemoria() throws Exception {
+		crear("/api/reservas", reserva("18:00", "19:00"));
+		String url = "/api/reservas/disponibilidad?canchaId=" + canchaId + "&fecha=" + fecha + "&horaInicio=18:00&horaFin=19:00";
+
+		// La cancha sale del catálogo (una carga) y la ocupación del índice, que ya tiene el día
+		mvc.perform(get(url)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.cuposDisponibles").value(1))
+				.andExpect(sentenciasSql(1));
+		mvc.perform(get(url)).andExpect(status().isOk()).andExpect(sentenciasSql(0));
+	}
+
+	@Test
+	void getCondicionalSinConsultas() throws Exception {
+		crear("/api/reservas", reserva("18:00", "19:00"));
+		String etag = mvc.perform(get("/api/reservas")).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+
+		// Misma versión: 304 sin tocar la BD
+		mvc.perform(get("/api/reservas").header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(sentenciasSql(0));
+
+		// Cualquier escritura de reservas cambia la versión
+		crear("/api/reservas", reserva("19:00", "20:00"));
+		mvc.perform(get("/api/reservas").header("If-None-Match", etag))
+				.andExpect(status().isOk())
+				.andExpect(sentenciasSql(1));
+	}
+
+	private String usuario(String cedula, String usuario, String email) {
+		return "{\"cedula\":\"" + cedula + "\",\"nombre\":\"Bea\",\"email\":\"" + email
+				+ "\",\"usuario\":\"" + usuario + "\",\"contraseña\":\"1\"}";
+	}
+
+	private String reserva(String horaInicio, String horaFin) {
+		return "{\"usuarioId\":" + usuarioId + ",\"canchaId\":" + canchaId + ",\"fecha\":\"" + fecha
+				+ "\",\"horaInicio\":\"" + horaInicio + "\",\"horaFin\":\"" + horaFin + "\"}";
+	}
+
+	private int crear(String url, String json) throws Exception {
+		String respuesta = mvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(json))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode datos = objectMapper.readTree(respuesta).path("data");
+		return datos.path("id").asInt();
+	}
+}
@@ -0,0 +1,65 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// La rejilla de disponibilidad (picosPorFranja) y la admisión (pico por ventana) deben dar lo mismo en cada franja
+class BarridoOcupacionTest {
+
+	private static final int APERTURA = 6 * 60;
+	private static final int CIERRE = 22 * 60;
+
+	@Test
+	void tramosQueSeTocanSinCoincidirOcupanUnCupo() {
+		BarridoOcupacion dia = new BarridoOcupacion(LocalTime.of(6, 0), LocalTime.of(22, 0), 4);
+		dia.agregar(LocalTime.of(18, 0), LocalTime.of(18, 15));
+		dia.agregar(LocalTime.of(18, 15), LocalTime.of(18, 30));
+
+		int[] picos = dia.picosPorFranja(limites());
+
+		assertEquals(1, picos[(18 * 60 - APERTURA) / 30]);
+		assertEquals(0, picos[(18 * 60 + 30 - APERTURA) / 30]);
+	}
+
+	@Test
+	void cadaFranjaCoincideConElBarridoDeSuVentana() {
+		Random azar = new Random(42);
+		int[] limites = limites();
+		for (int ronda = 0; ronda < 200; ronda++) {
+			int n = azar.nextInt(30);
+			int[][] tramos = new int[n][];
+			BarridoOcupacion dia = new BarridoOcupacion(APERTURA, CIERRE, n);
+			for (int t = 0; t < n; t++) {
+				// Múltiplos de 15 minutos, incluso fuera del horario de atención
+				int inicio = 5 * 60 + 15 * azar.nextInt(70);
+				int fin = inicio + 15 * (1 + azar.nextInt(12));
+				tramos[t] = new int[]{inicio, fin};
+				dia.agregar(inicio, fin);
+			}
+
+			int[] esperado = new int[limites.length - 1];
+			for (int k = 0; k < esperado.length; k++) {
+				BarridoOcupacion franja = new BarridoOcupacion(limites[k], limites[k + 1], n);
+				for (int[] tramo : tramos) {
+					franja.agregar(tramo[0], tramo[1]);
+				}
+				esperado[k] = franja.pico();
+			}
+			assertArrayEquals(esperado, dia.picosPorFranja(limites), "ronda " + ronda);
+		}
+	}
+
+	private static int[] limites() {
+		int franjas = (CIERRE - APERTURA) / 30;
+		int[] limites = new int[franjas + 1];
+		for (int i = 0; i <= franjas; i++) {
+			limites[i] = APERTURA + i * 30;
+		}
+		return limites;
+	}
+}
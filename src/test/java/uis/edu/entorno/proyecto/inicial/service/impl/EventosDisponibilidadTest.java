@@ -0,0 +1,170 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.DisponibilidadCanchaResponse;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Eventos SSE de cupos contra H2: la suscripción recibe los cupos de las franjas que tocó una reserva,
+ * una ráfaga del mismo día sale en un solo evento y por encima del máximo de conexiones se responde 503.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:eventos;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000",
+		"reservas.eventos.latido-ms=3600000",
+		"reservas.eventos.max-suscriptores=2"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class EventosDisponibilidadTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EventosDisponibilidad eventosDisponibilidad;
+
+	@Autowired
+	private IReservaService reservaService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private CanchaRepository canchaRepository;
+
+	private final LocalDate fecha = LocalDate.now().plusDays(1);
+	private Cancha cancha;
+
+	@BeforeEach
+	void setUp() {
+		cancha = canchaRepository.save(new Cancha("C1", "Fútbol", "Norte", 40000.0, 2,
+				LocalTime.of(6, 0), LocalTime.of(22, 0)));
+	}
+
+	@Test
+	void laSuscripcionRecibeLosCuposDeLaReserva() throws Exception {
+		MvcResult suscripcion = suscribir();
+		assertTrue(contenido(suscripcion).startsWith(":suscrito a la cancha " + cancha.getId()), contenido(suscripcion));
+		assertEquals(1, eventosDisponibilidad.getSuscriptores());
+
+		Usuario ana = usuarioRepository.save(new Usuario("c1", "Usuario 1", "u1@x.co", "u1", "1", "USER"));
+		reservaService.create(new ReservaRequest(ana.getId(), cancha.getId(), fecha, LocalTime.of(18, 0), LocalTime.of(19, 0), null));
+
+		List<DisponibilidadCanchaResponse> eventos = esperarEventos(suscripcion, 1);
+		assertEquals(1, eventos.size());
+		assertEquals(cancha.getId(), eventos.get(0).getCanchaId());
+		DisponibilidadCanchaResponse.Dia dia = eventos.get(0).getDias().get(0);
+		assertEquals(fecha, dia.getFecha());
+		assertEquals(List.of(LocalTime.of(18, 0), LocalTime.of(18, 30)), inicios(dia));
+		for (DisponibilidadCanchaResponse.Franja franja : dia.getFranjas()) {
+			assertEquals(1, franja.getReservasActivas());
+			assertEquals(1, franja.getCuposDisponibles());
+		}
+	}
+
+	@Test
+	void unaRafagaDelMismoDiaSaleEnUnSoloEvento() throws Exception {
+		MvcResult suscripcion = suscribir();
+
+		eventosDisponibilidad.notificar(List.of(
+				new EventosDisponibilidad.Cambio(cancha.getId(), fecha, LocalTime.of(18, 0), LocalTime.of(19, 0)),
+				new EventosDisponibilidad.Cambio(cancha.getId(), fecha.plusDays(1), LocalTime.of(7, 0), LocalTime.of(7, 30)),
+				new EventosDisponibilidad.Cambio(cancha.getId(), fecha, LocalTime.of(20, 0), LocalTime.of(20, 30))));
+
+		// Un evento por día, con el rango que cubre todos sus cambios
+		List<DisponibilidadCanchaResponse> eventos = esperarEventos(suscripcion, 2);
+		assertEquals(2, eventos.size());
+		assertEquals(fecha, eventos.get(0).getDias().get(0).getFecha());
+		assertEquals(List.of(LocalTime.of(18, 0), LocalTime.of(18, 30), LocalTime.of(19, 0), LocalTime.of(19, 30),
+				LocalTime.of(20, 0)), inicios(eventos.get(0).getDias().get(0)));
+		assertEquals(fecha.plusDays(1), eventos.get(1).getDias().get(0).getFecha());
+		assertEquals(List.of(LocalTime.of(7, 0)), inicios(eventos.get(1).getDias().get(0)));
+	}
+
+	@Test
+	void porEncimaDelMaximoSeResponde503() throws Exception {
+		suscribir();
+		suscribir();
+
+		mvc.perform(get("/api/canchas/" + cancha.getId() + "/eventos")).andExpect(status().isServiceUnavailable());
+		assertEquals(2, eventosDisponibilidad.getSuscriptores());
+	}
+
+	private MvcResult suscribir() throws Exception {
+		return mvc.perform(get("/api/canchas/" + cancha.getId() + "/eventos"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+
+	private static String contenido(MvcResult suscripcion) throws Exception {
+		return suscripcion.getResponse().getContentAsString(StandardCharsets.UTF_8);
+	}
+
+	// Los escritores envían desde su propio hilo: se espera hasta tener los eventos o vencer el plazo
+	private List<DisponibilidadCanchaResponse> esperarEventos(MvcResult suscripcion, int esperados) throws Exception {
+		long limite = System.nanoTime() + 10_000_000_000L;
+		List<DisponibilidadCanchaResponse> eventos = eventos(contenido(suscripcion));
+		while (eventos.size() < esperados && System.nanoTime() < limite) {
+			Thread.sleep(20);
+			eventos = eventos(contenido(suscripcion));
+		}
+		return eventos;
+	}
+
+	private List<DisponibilidadCanchaResponse> eventos(String flujo) throws Exception {
+		List<DisponibilidadCanchaResponse> eventos = new ArrayList<>();
+		// El último bloque puede estar a medio escribir: solo cuentan los que ya cerró la línea en blanco
+		String completos = flujo.substring(0, flujo.lastIndexOf("\n\n") + 1);
+		for (String bloque : completos.split("\n\n")) {
+			if (!bloque.contains("event:" + EventosDisponibilidad.EVENTO)) {
+				continue;
+			}
+			for (String linea : bloque.split("\n")) {
+				if (linea.startsWith("data:")) {
+					eventos.add(objectMapper.readValue(linea.substring(5), DisponibilidadCanchaResponse.class));
+				}
+			}
+		}
+		return eventos;
+	}
+
+	private static List<LocalTime> inicios(DisponibilidadCanchaResponse.Dia dia) {
+		return dia.getFranjas().stream().map(DisponibilidadCanchaResponse.Franja::getHoraInicio).toList();
+	}
+}
@@ -0,0 +1,145 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exportación en flujo contra H2 (con un tamaño de lote positivo, H2 rechaza Integer.MIN_VALUE): intercala
+ * la tabla viva con reservas_historial por fecha, hora y id, y escribe CSV con comillas donde hacen falta
+ * y NDJSON con una reserva por línea.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:exportacion;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000",
+		"reservas.exportacion.fetch-size=2"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ExportacionReservasTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private CanchaRepository canchaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate hace400 = LocalDate.now().minusDays(400);
+	private Cancha cancha;
+	private Usuario ana;
+	private List<Integer> orden;
+
+	@BeforeEach
+	void setUp() {
+		cancha = canchaRepository.save(new Cancha("C1, \"Norte\"", "Fútbol", "Norte", 40000.0, 2,
+				LocalTime.of(6, 0), LocalTime.of(22, 0)));
+		ana = usuarioRepository.save(new Usuario("c1", "Pérez, Ana", "u1@x.co", "u1", "1", "USER"));
+
+		// Filas de ambas tablas alternadas en el orden de la exportación (fecha, hora de inicio, id)
+		int archivada = archivada(900, hace400, LocalTime.of(18, 0));
+		int mismaFechaViva = viva(hace400, LocalTime.of(19, 0), "ACTIVA");
+		int mismaFechaArchivada = archivada(901, hace400, LocalTime.of(20, 0));
+		int futura = viva(LocalDate.now().plusDays(3), LocalTime.of(7, 0), "ACTIVA");
+		orden = List.of(archivada, mismaFechaViva, mismaFechaArchivada, futura);
+	}
+
+	@Test
+	void csvIntercalaAmbasTablasConComillas() throws Exception {
+		List<String> lineas = exportar("csv").lines().toList();
+
+		assertEquals("id,usuario_id,nombre_usuario,cancha_id,nombre_cancha,precio_hora,fecha,hora_inicio,hora_fin,"
+				+ "estado,serie_id,creado_en", lineas.get(0));
+		assertEquals(orden.size() + 1, lineas.size());
+		List<Integer> ids = new ArrayList<>();
+		for (String linea : lineas.subList(1, lineas.size())) {
+			ids.add(Integer.valueOf(linea.substring(0, linea.indexOf(','))));
+		}
+		assertEquals(orden, ids);
+		// Comas y comillas internas van entre comillas, con las comillas duplicadas; el precio es el cobrado
+		assertEquals(orden.get(0) + "," + ana.getId() + ",\"Pérez, Ana\"," + cancha.getId() + ",\"C1, \"\"Norte\"\"\","
+				+ "35000.0," + hace400 + ",18:00:00,19:00:00,FINALIZADA,,", lineas.get(1));
+	}
+
+	@Test
+	void ndjsonUnaReservaPorLinea() throws Exception {
+		List<String> lineas = exportar("ndjson").lines().toList();
+
+		assertEquals(orden.size(), lineas.size());
+		List<Integer> ids = new ArrayList<>();
+		for (String linea : lineas) {
+			ids.add(objectMapper.readTree(linea).path("id").asInt());
+		}
+		assertEquals(orden, ids);
+		JsonNode primera = objectMapper.readTree(lineas.get(0));
+		assertEquals("Pérez, Ana", primera.path("nombreUsuario").asText());
+		assertEquals("C1, \"Norte\"", primera.path("nombreCancha").asText());
+		assertEquals(hace400.toString(), primera.path("fecha").asText());
+		assertEquals("18:00:00", primera.path("horaInicio").asText());
+		assertEquals(35000.0, primera.path("precioHora").asDouble());
+	}
+
+	private String exportar(String formato) throws Exception {
+		MvcResult flujo = mvc.perform(get("/api/reservas/exportar").param("formato", formato))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mvc.perform(asyncDispatch(flujo)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+	}
+
+	private int viva(LocalDate fecha, LocalTime horaInicio, String estado) {
+		jdbcTemplate.update("INSERT INTO reservas (usuario_id, cancha_id, fecha, hora_inicio, hora_fin, estado, " +
+						"estado_prioridad, precio_hora) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", ana.getId(), cancha.getId(), fecha,
+				horaInicio, horaInicio.plusHours(1), estado, Reserva.prioridadDeEstado(estado), 35000.0);
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM reservas", Integer.class);
+	}
+
+	private int archivada(int id, LocalDate fecha, LocalTime horaInicio) {
+		jdbcTemplate.update("INSERT INTO reservas_historial (id, usuario_id, cancha_id, fecha, hora_inicio, hora_fin, " +
+						"estado, estado_prioridad, precio_hora, archivado_en) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", id,
+				ana.getId(), cancha.getId(), fecha, horaInicio, horaInicio.plusHours(1), "FINALIZADA",
+				Reserva.prioridadDeEstado("FINALIZADA"), 35000.0, LocalDateTime.now());
+		return id;
+	}
+}
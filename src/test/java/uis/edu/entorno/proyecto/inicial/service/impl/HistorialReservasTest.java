@@ -0,0 +1,119 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaResponse;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Listado de reservas de un usuario contra H2: une la tabla viva con reservas_historial en el orden de
+ * los listados, y ve lo archivado por otro nodo sin reiniciar.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:historial;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000",
+		"reservas.archivo.horizonte-dias=180"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class HistorialReservasTest {
+
+	@Autowired
+	private IReservaService reservaService;
+
+	@Autowired
+	private ArchivoReservas archivoReservas;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private CanchaRepository canchaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate hace400 = LocalDate.now().minusDays(400);
+	private Cancha cancha;
+	private Usuario ana;
+	private Usuario bea;
+
+	@BeforeEach
+	void setUp() {
+		cancha = canchaRepository.save(new Cancha("C1", "Fútbol", "Norte", 40000.0, 2,
+				LocalTime.of(6, 0), LocalTime.of(22, 0)));
+		ana = usuario(1);
+		bea = usuario(2);
+	}
+
+	@Test
+	void elListadoUneVivasYArchivadasEnOrden() {
+		int finalizada = reserva(ana, hace400, "FINALIZADA");
+		int cancelada = reserva(ana, hace400.plusDays(5), "CANCELADA");
+		// Una ACTIVA vieja no se archiva: queda en la tabla viva
+		int activaVieja = reserva(ana, hace400.plusDays(10), "ACTIVA");
+		int futura = reserva(ana, LocalDate.now().plusDays(3), "ACTIVA");
+		reserva(bea, hace400.plusDays(1), "FINALIZADA");
+		assertEquals(3, archivoReservas.archivar());
+
+		// ACTIVA > FINALIZADA > CANCELADA, luego fecha
+		assertEquals(List.of(activaVieja, futura, finalizada, cancelada),
+				ids(reservaService.findByUsuarioId(ana.getId(), null, null)));
+		// Un rango que solo cubre fechas archivadas sale del historial
+		assertEquals(List.of(finalizada), ids(reservaService.findByUsuarioId(ana.getId(), hace400, hace400.plusDays(1))));
+		// Un rango posterior a lo archivado no consulta el historial
+		assertEquals(List.of(futura), ids(reservaService.findByUsuarioId(ana.getId(), LocalDate.now(), null)));
+	}
+
+	@Test
+	void loArchivadoPorOtroNodoSeVeSinReiniciar() {
+		int finalizada = reserva(ana, hace400, "FINALIZADA");
+		int futura = reserva(ana, LocalDate.now().plusDays(3), "ACTIVA");
+		assertEquals(List.of(futura, finalizada), ids(reservaService.findByUsuarioId(ana.getId(), null, null)));
+
+		// Otro nodo mueve la reserva al historial; este nodo no pasó por archivar()
+		jdbcTemplate.update("INSERT INTO reservas_historial (id, usuario_id, cancha_id, fecha, hora_inicio, hora_fin, " +
+				"estado, estado_prioridad, precio_hora, archivado_en) SELECT id, usuario_id, cancha_id, fecha, hora_inicio, " +
+				"hora_fin, estado, estado_prioridad, precio_hora, ? FROM reservas WHERE id = ?", LocalDateTime.now(), finalizada);
+		jdbcTemplate.update("DELETE FROM reservas WHERE id = ?", finalizada);
+
+		assertEquals(List.of(futura, finalizada), ids(reservaService.findByUsuarioId(ana.getId(), null, null)));
+	}
+
+	private static List<Integer> ids(List<ReservaResponse> reservas) {
+		return reservas.stream().map(ReservaResponse::getId).toList();
+	}
+
+	private int reserva(Usuario usuario, LocalDate fecha, String estado) {
+		jdbcTemplate.update("INSERT INTO reservas (usuario_id, cancha_id, fecha, hora_inicio, hora_fin, estado, " +
+						"estado_prioridad, precio_hora) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", usuario.getId(), cancha.getId(), fecha,
+				LocalTime.of(18, 0), LocalTime.of(19, 0), estado, Reserva.prioridadDeEstado(estado), cancha.getPrecioHora());
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM reservas", Integer.class);
+	}
+
+	private Usuario usuario(int n) {
+		return usuarioRepository.save(new Usuario("c" + n, "Usuario " + n, "u" + n + "@x.co", "u" + n, "1", "USER"));
+	}
+}
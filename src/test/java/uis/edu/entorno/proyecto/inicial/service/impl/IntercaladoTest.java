@@ -0,0 +1,59 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.Test;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaExportacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Mezcla de la exportación: historial y tabla viva llegan ordenados por fecha, hora de inicio e id
+class IntercaladoTest {
+
+	private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+	@Test
+	void intercalaPorFechaHoraEId() {
+		List<ReservaExportacion> archivadas = List.of(
+				fila(1, DIA, 8), fila(4, DIA, 10), fila(7, DIA.plusDays(2), 8));
+		List<ReservaExportacion> vivas = List.of(
+				fila(2, DIA, 8), fila(3, DIA, 9), fila(5, DIA.plusDays(1), 7), fila(8, DIA.plusDays(2), 8));
+
+		assertEquals(List.of(1, 2, 3, 4, 5, 7, 8), ids(new ExportacionReservas.Intercalado(archivadas.iterator(), vivas.iterator())));
+	}
+
+	@Test
+	void unLadoVacioDevuelveElOtroEnOrden() {
+		List<ReservaExportacion> vivas = List.of(fila(1, DIA, 8), fila(2, DIA, 9));
+
+		assertEquals(List.of(1, 2), ids(new ExportacionReservas.Intercalado(List.<ReservaExportacion>of().iterator(), vivas.iterator())));
+		assertEquals(List.of(1, 2), ids(new ExportacionReservas.Intercalado(vivas.iterator(), List.<ReservaExportacion>of().iterator())));
+	}
+
+	@Test
+	void ambosVaciosNoTienenFilas() {
+		Iterator<ReservaExportacion> vacio = new ExportacionReservas.Intercalado(
+				List.<ReservaExportacion>of().iterator(), List.<ReservaExportacion>of().iterator());
+
+		assertFalse(vacio.hasNext());
+		assertThrows(NoSuchElementException.class, vacio::next);
+	}
+
+	private static List<Integer> ids(Iterator<ReservaExportacion> filas) {
+		List<Integer> ids = new ArrayList<>();
+		filas.forEachRemaining(fila -> ids.add(fila.getId()));
+		return ids;
+	}
+
+	private static ReservaExportacion fila(int id, LocalDate fecha, int hora) {
+		return new ReservaExportacion(id, 1, "Ana", 1, "C1", 40000.0, fecha, LocalTime.of(hora, 0),
+				LocalTime.of(hora + 1, 0), "FINALIZADA", null, null);
+	}
+}
@@ -0,0 +1,259 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.exception.ReservaRechazadaException;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admisión contra H2 con transacciones reales: el SELECT ... FOR UPDATE sobre bloqueos_cancha_dia
+ * serializa a los nodos y la recarga del día bajo el bloqueo ve las reservas que escribió otro.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:admision;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER;LOCK_TIMEOUT=10000",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000",
+		"reservas.admision.recargar-ocupacion=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ReservaAdmisionBloqueoTest {
+
+	private static final LocalTime INICIO = LocalTime.of(18, 0);
+	private static final LocalTime FIN = LocalTime.of(19, 0);
+
+	@Autowired
+	private IReservaService reservaService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private CanchaRepository canchaRepository;
+
+	@Autowired
+	private SlotInventario slotInventario;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final LocalDate fecha = LocalDate.now().plusDays(1);
+	private final ExecutorService hilos = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void tearDown() {
+		hilos.shutdownNow();
+	}
+
+	@Test
+	void otroNodoConElDiaBloqueadoHaceEsperarLaAdmision() throws Exception {
+		Cancha cancha = cancha(1);
+		Usuario ana = usuario(1);
+		Usuario bea = usuario(2);
+		// El índice de este nodo ya tiene el día cargado y vacío
+		assertEquals(0, reservaService.ocupacionMaxima(cancha.getId(), fecha, INICIO, FIN, null));
+
+		// Otro nodo toma la fila del día y llena el cupo sin pasar por este índice
+		CountDownLatch bloqueado = new CountDownLatch(1);
+		CountDownLatch soltar = new CountDownLatch(1);
+		Future<?> otroNodo = hilos.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbcTemplate.update("INSERT IGNORE INTO bloqueos_cancha_dia (cancha_id, fecha) VALUES (?, ?)", cancha.getId(), fecha);
+			jdbcTemplate.queryForList("SELECT cancha_id FROM bloqueos_cancha_dia WHERE cancha_id = ? AND fecha = ? FOR UPDATE",
+					cancha.getId(), fecha);
+			jdbcTemplate.update("INSERT INTO reservas (usuario_id, cancha_id, fecha, hora_inicio, hora_fin, estado) "
+					+ "VALUES (?, ?, ?, ?, ?, 'ACTIVA')", bea.getId(), cancha.getId(), fecha, INICIO, FIN);
+			bloqueado.countDown();
+			try {
+				soltar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		assertTrue(bloqueado.await(10, TimeUnit.SECONDS));
+
+		Future<Reserva> admision = hilos.submit(() ->
+				reservaService.create(new ReservaRequest(ana.getId(), cancha.getId(), fecha, INICIO, FIN, null)));
+		// Mientras el otro nodo no confirme, la admisión espera en la fila de bloqueo
+		assertThrows(TimeoutException.class, () -> admision.get(500, TimeUnit.MILLISECONDS));
+
+		soltar.countDown();
+		otroNodo.get(10, TimeUnit.SECONDS);
+		ExecutionException rechazo = assertThrows(ExecutionException.class, () -> admision.get(10, TimeUnit.SECONDS));
+		assertTrue(rechazo.getCause().getMessage().startsWith("🔒"), rechazo.getCause().getMessage());
+		assertEquals(1, activas(cancha));
+	}
+
+	@Test
+	void moverYEliminarEsperanElBloqueoDelDiaAnterior() throws Exception {
+		Cancha cancha = cancha(2);
+		Usuario ana = usuario(1);
+		Reserva movida = reservaService.create(new ReservaRequest(ana.getId(), cancha.getId(), fecha, INICIO, FIN, null));
+		Reserva eliminada = reservaService.create(new ReservaRequest(ana.getId(), cancha.getId(), fecha,
+				LocalTime.of(8, 0), LocalTime.of(9, 0), null));
+		LocalDate otroDia = fecha.plusDays(1);
+
+		CountDownLatch bloqueado = new CountDownLatch(1);
+		CountDownLatch soltar = new CountDownLatch(1);
+		Future<?> otroNodo = hilos.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbcTemplate.queryForList("SELECT cancha_id FROM bloqueos_cancha_dia WHERE cancha_id = ? AND fecha = ? FOR UPDATE",
+					cancha.getId(), fecha);
+			bloqueado.countDown();
+			try {
+				soltar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		assertTrue(bloqueado.await(10, TimeUnit.SECONDS));
+
+		// Los contadores del día de origen cambian, así que ambas esperan su fila de bloqueo
+		Future<Reserva> edicion = hilos.submit(() -> reservaService.update(movida.getId(),
+				new ReservaRequest(ana.getId(), cancha.getId(), otroDia, INICIO, FIN, null)));
+		Future<?> borrado = hilos.submit(() -> reservaService.delete(eliminada.getId()));
+		assertThrows(TimeoutException.class, () -> edicion.get(500, TimeUnit.MILLISECONDS));
+		assertThrows(TimeoutException.class, () -> borrado.get(500, TimeUnit.MILLISECONDS));
+
+		soltar.countDown();
+		otroNodo.get(10, TimeUnit.SECONDS);
+		assertEquals(otroDia, edicion.get(10, TimeUnit.SECONDS).getFecha());
+		borrado.get(10, TimeUnit.SECONDS);
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COALESCE(SUM(reservados), 0) FROM ocupacion_slots "
+				+ "WHERE cancha_id = ? AND fecha = ?", Integer.class, cancha.getId(), fecha));
+	}
+
+	@Test
+	void solicitudesConcurrentesNoSobrepasanLaCapacidad() throws Exception {
+		Cancha cancha = cancha(3);
+		int solicitudes = 12;
+		List<Usuario> usuarios = new ArrayList<>();
+		for (int i = 1; i <= solicitudes; i++) {
+			usuarios.add(usuario(i));
+		}
+
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		for (Usuario usuario : usuarios) {
+			resultados.add(hilos.submit(() -> {
+				salida.await();
+				try {
+					reservaService.create(new ReservaRequest(usuario.getId(), cancha.getId(), fecha, INICIO, FIN, null));
+					return true;
+				} catch (RuntimeException e) {
+					if (!e.getMessage().startsWith("🔒")) {
+						throw e;
+					}
+					return false;
+				}
+			}));
+		}
+		salida.countDown();
+
+		int exitosas = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get(30, TimeUnit.SECONDS)) {
+				exitosas++;
+			}
+		}
+		assertEquals(3, exitosas);
+		assertEquals(3, activas(cancha));
+	}
+
+	@Test
+	void franjaCompartidaSinSolaparseNoAgotaElCupo() {
+		Cancha cancha = cancha(1);
+		Usuario ana = usuario(1);
+		Usuario bea = usuario(2);
+		Usuario carla = usuario(3);
+
+		// Las dos tocan la franja de 18:00 pero no coinciden en el tiempo
+		reservaService.create(new ReservaRequest(ana.getId(), cancha.getId(), fecha, LocalTime.of(17, 45), LocalTime.of(18, 15), null));
+		reservaService.create(new ReservaRequest(bea.getId(), cancha.getId(), fecha, LocalTime.of(18, 15), LocalTime.of(18, 45), null));
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT reservados FROM ocupacion_slots WHERE cancha_id = ? AND fecha = ? "
+				+ "AND slot_inicio = ?", Integer.class, cancha.getId(), fecha, LocalTime.of(18, 0)));
+
+		RuntimeException rechazo = assertThrows(RuntimeException.class, () -> reservaService.create(
+				new ReservaRequest(carla.getId(), cancha.getId(), fecha, LocalTime.of(18, 0), LocalTime.of(18, 30), null)));
+		assertTrue(rechazo.getMessage().startsWith("🔒"), rechazo.getMessage());
+		assertEquals(2, activas(cancha));
+	}
+
+	@Test
+	void loteSobreLaCapacidadSeRevierte() {
+		Cancha cancha = cancha(1);
+		Usuario ana = usuario(1);
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+		// Se tocan en la franja de 18:00 sin coincidir: el barrido las acepta y deja los conteos exactos
+		transaccion.executeWithoutResult(status -> slotInventario.sumar(List.of(
+				insertada(ana, cancha, LocalTime.of(17, 45), LocalTime.of(18, 15)),
+				insertada(ana, cancha, LocalTime.of(18, 15), LocalTime.of(18, 45)))));
+		assertEquals(List.of(1, 2, 1), jdbcTemplate.queryForList("SELECT reservados FROM ocupacion_slots "
+				+ "WHERE cancha_id = ? AND fecha = ? ORDER BY slot_inicio", Integer.class, cancha.getId(), fecha));
+
+		// Coinciden por completo: el lote falla y no queda nada
+		Cancha otra = cancha(1);
+		assertThrows(ReservaRechazadaException.class, () -> transaccion.executeWithoutResult(status -> slotInventario.sumar(List.of(
+				insertada(ana, otra, INICIO, FIN),
+				insertada(ana, otra, INICIO, FIN)))));
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ocupacion_slots WHERE cancha_id = ?",
+				Integer.class, otra.getId()));
+		assertEquals(0, activas(otra));
+	}
+
+	// Fila ya insertada en la transacción actual, como hacen el lote y las series antes de sumar
+	private Reserva insertada(Usuario usuario, Cancha cancha, LocalTime horaInicio, LocalTime horaFin) {
+		jdbcTemplate.update("INSERT INTO reservas (usuario_id, cancha_id, fecha, hora_inicio, hora_fin, estado) "
+				+ "VALUES (?, ?, ?, ?, ?, 'ACTIVA')", usuario.getId(), cancha.getId(), fecha, horaInicio, horaFin);
+		return new Reserva(usuario, cancha, fecha, horaInicio, horaFin);
+	}
+
+	private int activas(Cancha cancha) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservas WHERE cancha_id = ? AND estado = 'ACTIVA'",
+				Integer.class, cancha.getId());
+	}
+
+	private Cancha cancha(int capacidad) {
+		return canchaRepository.save(new Cancha("C" + capacidad, "Fútbol", "Norte", 40000.0, capacidad,
+				LocalTime.of(6, 0), LocalTime.of(22, 0)));
+	}
+
+	private Usuario usuario(int n) {
+		return usuarioRepository.save(new Usuario("c" + n, "Usuario " + n, "u" + n + "@x.co", "u" + n, "1", "USER"));
+	}
+}
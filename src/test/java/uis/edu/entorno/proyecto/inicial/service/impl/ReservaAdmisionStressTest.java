@@ -0,0 +1,247 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.IntervaloReserva;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.repository.BloqueoCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ReservaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prueba de carga concurrente del motor de admisión de ReservaServiceImpl.create
+ * con repositorios simulados (el INSERT tarda unos milisegundos, como en la BD).
+ */
+class ReservaAdmisionStressTest {
+
+	private static final int HILOS = 8;
+	private static final long LATENCIA_INSERT_MS = 2;
+
+	private final LocalDate fecha = LocalDate.now().plusDays(1);
+	private final Map<Integer, AtomicInteger> guardadasPorCancha = new ConcurrentHashMap<>();
+	private final Map<Integer, List<IntervaloReserva>> intervalosPorCancha = new ConcurrentHashMap<>();
+	private final AtomicInteger secuencia = new AtomicInteger();
+	// INSERTs en curso a la vez: en total y por cancha, con el máximo observado
+	private final AtomicInteger guardando = new AtomicInteger();
+	private final AtomicInteger maximoGuardando = new AtomicInteger();
+	private final Map<Integer, AtomicInteger> guardandoPorCancha = new ConcurrentHashMap<>();
+	private final AtomicInteger maximoGuardandoPorCancha = new AtomicInteger();
+	private volatile Runnable alGuardar = () -> {};
+
+	private ReservaServiceImpl service;
+	private CanchaDiaLocks canchaDiaLocks;
+	private int capacidad;
+
+	@BeforeEach
+	void setUp() {
+		ReservaRepository reservaRepository = mock(ReservaRepository.class);
+		UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+		CanchaRepository canchaRepository = mock(CanchaRepository.class);
+
+		when(usuarioRepository.findById(anyInt())).thenAnswer(inv -> {
+			Usuario usuario = new Usuario();
+			usuario.setId(inv.getArgument(0));
+			return Optional.of(usuario);
+		});
+		when(canchaRepository.findById(anyInt())).thenAnswer(inv -> {
+			Cancha cancha = new Cancha("Cancha", "Fútbol", "Bucaramanga", 40000.0, capacidad,
+					LocalTime.of(6, 0), LocalTime.of(22, 0));
+			cancha.setId(inv.getArgument(0));
+			return Optional.of(cancha);
+		});
+		when(reservaRepository.findByUsuarioIdAndCanchaIdAndFechaAndEstadoNot(anyInt(), anyInt(), any(), anyString()))
+				.thenReturn(List.of());
+		// La "BD" devuelve lo guardado: un rechazo por cupo recarga el día desde aquí
+		when(reservaRepository.findIntervalosByCanchaIdAndFechaAndEstadoNot(anyInt(), any(), anyString()))
+				.thenAnswer(inv -> List.copyOf(intervalosPorCancha.getOrDefault(inv.<Integer>getArgument(0), List.of())));
+		when(reservaRepository.save(any(Reserva.class))).thenAnswer(inv -> {
+			Reserva reserva = inv.getArgument(0);
+			AtomicInteger enCancha = guardandoPorCancha.computeIfAbsent(reserva.getCancha().getId(), k -> new AtomicInteger());
+			maximoGuardando.accumulateAndGet(guardando.incrementAndGet(), Math::max);
+			maximoGuardandoPorCancha.accumulateAndGet(enCancha.incrementAndGet(), Math::max);
+			try {
+				alGuardar.run();
+				Thread.sleep(LATENCIA_INSERT_MS);
+			} finally {
+				enCancha.decrementAndGet();
+				guardando.decrementAndGet();
+			}
+			reserva.setId(secuencia.incrementAndGet());
+			intervalosPorCancha.computeIfAbsent(reserva.getCancha().getId(), k -> new CopyOnWriteArrayList<>())
+					.add(intervalo(reserva));
+			guardadasPorCancha.computeIfAbsent(reserva.getCancha().getId(), k -> new AtomicInteger()).incrementAndGet();
+			return reserva;
+		});
+
+		OcupacionIndex ocupacionIndex = new OcupacionIndex(1024);
+		ReflectionTestUtils.setField(ocupacionIndex, "reservaRepository", reservaRepository);
+
+		service = new ReservaServiceImpl();
+		ReflectionTestUtils.setField(service, "reservaRepository", reservaRepository);
+		ReflectionTestUtils.setField(service, "usuarioRepository", usuarioRepository);
+		ReflectionTestUtils.setField(service, "canchaRepository", canchaRepository);
+		ReflectionTestUtils.setField(service, "ocupacionIndex", ocupacionIndex);
+		ReflectionTestUtils.setField(service, "expiracionReservas", mock(ExpiracionReservas.class));
+		canchaDiaLocks = new CanchaDiaLocks(256);
+		ReflectionTestUtils.setField(service, "canchaDiaLocks", canchaDiaLocks);
+		ReflectionTestUtils.setField(service, "bloqueoCanchaDiaRepository", mock(BloqueoCanchaDiaRepository.class));
+		ReflectionTestUtils.setField(service, "transactionTemplate",
+				new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(service, "metricasReservas", new MetricasReservas(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(service, "resumenOcupacion", mock(ResumenOcupacion.class));
+		ReflectionTestUtils.setField(service, "versionesDatos", new VersionesDatos());
+		ReflectionTestUtils.setField(service, "eventosDisponibilidad", mock(EventosDisponibilidad.class));
+
+		// El cupo lo decide el índice en memoria bajo el bloqueo; el inventario de franjas siempre acepta
+		SlotInventario slotInventario = mock(SlotInventario.class);
+		when(slotInventario.reservar(anyInt(), any(), any(), any(), anyInt(), any())).thenReturn(true);
+		ReflectionTestUtils.setField(service, "slotInventario", slotInventario);
+	}
+
+	@Test
+	void solicitudesConcurrentesNoSobrepasanLaCapacidad() throws Exception {
+		capacidad = 5;
+		int solicitudes = 200;
+
+		int exitosas = ejecutar(solicitudes, i -> 1);
+
+		assertEquals(capacidad, exitosas);
+		assertEquals(capacidad, guardadasPorCancha.get(1).get());
+		// El mismo día de cancha nunca tiene dos INSERTs a la vez
+		assertEquals(1, maximoGuardandoPorCancha.get());
+	}
+
+	@Test
+	void canchasDistintasRespetanSuCapacidad() throws Exception {
+		capacidad = 5;
+		int canchas = 8;
+		int solicitudes = 400;
+
+		int exitosas = ejecutar(solicitudes, i -> 1 + (i % canchas) * 1000);
+
+		assertEquals(capacidad * canchas, exitosas);
+		for (int c = 0; c < canchas; c++) {
+			assertEquals(capacidad, guardadasPorCancha.get(1 + c * 1000).get());
+		}
+	}
+
+	@Test
+	void canchasDistintasGuardanEnParalelo() throws Exception {
+		capacidad = 1;
+		int otra = 2;
+		while (canchaDiaLocks.indice(otra, fecha) == canchaDiaLocks.indice(1, fecha)) {
+			otra++;
+		}
+		int segunda = otra;
+		// Cada INSERT espera dentro del bloqueo de su día a que el de la otra cancha también empiece:
+		// con un bloqueo global el primero nunca vería al segundo y vencería la espera
+		CountDownLatch ambasGuardando = new CountDownLatch(2);
+		alGuardar = () -> {
+			ambasGuardando.countDown();
+			try {
+				if (!ambasGuardando.await(5, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("la otra cancha no pudo guardar mientras esta tenía su bloqueo");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		};
+		assertNotEquals(canchaDiaLocks.indice(1, fecha), canchaDiaLocks.indice(segunda, fecha));
+
+		int exitosas = ejecutar(2, i -> i == 0 ? 1 : segunda);
+
+		assertEquals(2, exitosas);
+		assertEquals(2, maximoGuardando.get());
+		assertTrue(guardadasPorCancha.containsKey(segunda));
+	}
+
+	private int ejecutar(int solicitudes, IntUnaryOperator canchaPorSolicitud) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+		for (int i = 0; i < solicitudes; i++) {
+			int usuarioId = i + 1;
+			int canchaId = canchaPorSolicitud.applyAsInt(i);
+			resultados.add(pool.submit(() -> {
+				salida.await();
+				try {
+					service.create(new ReservaRequest(usuarioId, canchaId, fecha,
+							LocalTime.of(18, 0), LocalTime.of(19, 0), null));
+					return true;
+				} catch (RuntimeException e) {
+					// Solo se acepta el rechazo por cupo; cualquier otro error hace fallar la prueba
+					if (!e.getMessage().startsWith("🔒")) {
+						throw e;
+					}
+					return false;
+				}
+			}));
+		}
+		salida.countDown();
+
+		int exitosas = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get()) {
+				exitosas++;
+			}
+		}
+		pool.shutdown();
+		return exitosas;
+	}
+
+	private static IntervaloReserva intervalo(Reserva reserva) {
+		Integer id = reserva.getId();
+		LocalTime horaInicio = reserva.getHoraInicio();
+		LocalTime horaFin = reserva.getHoraFin();
+		return new IntervaloReserva() {
+			@Override
+			public Integer getId() {
+				return id;
+			}
+
+			@Override
+			public LocalTime getHoraInicio() {
+				return horaInicio;
+			}
+
+			@Override
+			public LocalTime getHoraFin() {
+				return horaFin;
+			}
+		};
+	}
+}
@@ -0,0 +1,141 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import uis.edu.entorno.proyecto.inicial.model.Cancha;
+import uis.edu.entorno.proyecto.inicial.model.Reserva;
+import uis.edu.entorno.proyecto.inicial.model.ResumenCanchaDia;
+import uis.edu.entorno.proyecto.inicial.model.Usuario;
+import uis.edu.entorno.proyecto.inicial.model.dto.ReservaRequest;
+import uis.edu.entorno.proyecto.inicial.repository.CanchaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.ResumenCanchaDiaRepository;
+import uis.edu.entorno.proyecto.inicial.repository.UsuarioRepository;
+import uis.edu.entorno.proyecto.inicial.service.IReservaService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deltas del resumen diario contra H2: cada operación suma o resta con el precio guardado en la reserva,
+ * así un cambio de precio de la cancha no descuadra los ingresos ni la reconstrucción.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:resumen;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,USER",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"reservas.expiracion.intervalo-ms=3600000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ResumenOcupacionTest {
+
+	private static final LocalTime INICIO = LocalTime.of(18, 0);
+	private static final LocalTime FIN = LocalTime.of(19, 0);
+
+	@Autowired
+	private IReservaService reservaService;
+
+	@Autowired
+	private ResumenOcupacion resumenOcupacion;
+
+	@Autowired
+	private ResumenCanchaDiaRepository resumenCanchaDiaRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private CanchaRepository canchaRepository;
+
+	private final LocalDate fecha = LocalDate.now().plusDays(1);
+
+	@Test
+	void crearSumaConElPrecioDeLaCancha() {
+		Cancha cancha = cancha(40000.0);
+		reservaService.create(solicitud(usuario(1), cancha, INICIO, FIN));
+
+		assertResumen(cancha, 1, 60, 40000.0);
+		assertSinDiferencias();
+	}
+
+	@Test
+	void editarRestaConElPrecioCobradoYSumaConElVigente() {
+		Cancha cancha = cancha(40000.0);
+		Usuario ana = usuario(1);
+		Reserva reserva = reservaService.create(solicitud(ana, cancha, INICIO, FIN));
+		cambiarPrecio(cancha, 50000.0);
+
+		// Media hora más tarde y más corta: sale lo cobrado (40000) y entra media hora al precio nuevo
+		reservaService.update(reserva.getId(), solicitud(ana, cancha, LocalTime.of(18, 30), FIN));
+
+		assertResumen(cancha, 1, 30, 25000.0);
+		assertSinDiferencias();
+	}
+
+	@Test
+	void cancelarYReactivarUsanElPrecioGuardado() {
+		Cancha cancha = cancha(40000.0);
+		Reserva reserva = reservaService.create(solicitud(usuario(1), cancha, INICIO, FIN));
+		cambiarPrecio(cancha, 50000.0);
+
+		reservaService.updateEstado(reserva.getId(), "CANCELADA");
+		assertResumen(cancha, 0, 0, 0.0);
+
+		reservaService.updateEstado(reserva.getId(), "ACTIVA");
+		assertResumen(cancha, 1, 60, 40000.0);
+		assertSinDiferencias();
+	}
+
+	@Test
+	void eliminarRestaConElPrecioGuardado() {
+		Cancha cancha = cancha(40000.0);
+		Reserva primera = reservaService.create(solicitud(usuario(1), cancha, INICIO, FIN));
+		cambiarPrecio(cancha, 50000.0);
+		reservaService.create(solicitud(usuario(2), cancha, INICIO, FIN));
+
+		reservaService.delete(primera.getId());
+
+		assertResumen(cancha, 1, 60, 50000.0);
+		assertSinDiferencias();
+	}
+
+	private void assertResumen(Cancha cancha, int reservas, int minutos, double ingresos) {
+		List<ResumenCanchaDia> dias = resumenCanchaDiaRepository.findEnRango(cancha.getId(), fecha, fecha);
+		assertEquals(1, dias.size());
+		assertEquals(reservas, dias.get(0).getReservas());
+		assertEquals(minutos, dias.get(0).getMinutosReservados());
+		assertEquals(ingresos, dias.get(0).getIngresos(), 0.001);
+	}
+
+	// La reconstrucción desde las reservas da lo mismo que los deltas acumulados
+	private void assertSinDiferencias() {
+		assertEquals(0, resumenOcupacion.verificar(null, null, false).getDiasConDiferencias());
+	}
+
+	private void cambiarPrecio(Cancha cancha, double precioHora) {
+		cancha.setPrecioHora(precioHora);
+		canchaRepository.save(cancha);
+	}
+
+	private ReservaRequest solicitud(Usuario usuario, Cancha cancha, LocalTime horaInicio, LocalTime horaFin) {
+		return new ReservaRequest(usuario.getId(), cancha.getId(), fecha, horaInicio, horaFin, null);
+	}
+
+	private Cancha cancha(double precioHora) {
+		return canchaRepository.save(new Cancha("C1", "Fútbol", "Norte", precioHora, 2,
+				LocalTime.of(6, 0), LocalTime.of(22, 0)));
+	}
+
+	private Usuario usuario(int n) {
+		return usuarioRepository.save(new Usuario("c" + n, "Usuario " + n, "u" + n + "@x.co", "u" + n, "1", "USER"));
+	}
+}
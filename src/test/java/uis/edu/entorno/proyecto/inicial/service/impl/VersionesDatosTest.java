@@ -0,0 +1,23 @@
+package uis.edu.entorno.proyecto.inicial.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Un cambio en otro nodo no mueve los contadores de este: el ETag tiene que caducar solo, sin escrituras locales
+class VersionesDatosTest {
+
+	@Test
+	void elEtagCaducaAlTerminarElPeriodo() throws Exception {
+		VersionesDatos versiones = new VersionesDatos();
+		ReflectionTestUtils.setField(versiones, "ttlMs", 50L);
+
+		String reservas = versiones.etagReservas();
+		String usuarios = versiones.etagUsuarios();
+		Thread.sleep(120);
+
+		assertNotEquals(reservas, versiones.etagReservas());
+		assertNotEquals(usuarios, versiones.etagUsuarios());
+	}
+}